@@ -0,0 +1,101 @@
+package cn.geekslife.rpc.benchmark;
+
+import cn.geekslife.rpc.codec.RpcCodec;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.transport.Request;
+import cn.geekslife.rpc.transport.Response;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    
+    @Param({"compact", "java"})
+    private String serialization;
+    
+    @Param({"16", "1024"})
+    private int size;
+    
+    private RpcCodec codec;
+    private EmbeddedChannel channel;
+    private Request request;
+    private Response response;
+    private ByteBuf buffer;
+    private ByteBuf requestFrame;
+    private ByteBuf responseFrame;
+    
+    @Setup
+    public void setup() throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("serialization", serialization);
+        codec = new RpcCodec(new URL("rpc", "127.0.0.1", 0, EchoService.class.getName(), parameters));
+        channel = new EmbeddedChannel();
+        
+        String message = "x".repeat(size);
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class},
+                RpcCodec.getDesc(new Class<?>[]{String.class}), new Object[]{message}, String.class);
+        invocation.setAttachment("path", EchoService.class.getName());
+        invocation.setAttachment("version", "");
+        invocation.setAttachment("group", "");
+        request = new Request(1);
+        request.setTwoWay(true);
+        request.setData(invocation);
+        response = new Response(1);
+        response.setStatus(Response.OK);
+        response.setResult(new Result(message));
+        
+        buffer = PooledByteBufAllocator.DEFAULT.buffer(size * 4 + 256);
+        requestFrame = PooledByteBufAllocator.DEFAULT.buffer(size * 4 + 256);
+        codec.encode(channel, requestFrame, request);
+        // 解码请求时会在连接上记下序列化方式，之后编码响应沿用
+        codec.decode(channel, requestFrame.duplicate());
+        responseFrame = PooledByteBufAllocator.DEFAULT.buffer(size * 4 + 256);
+        codec.encode(channel, responseFrame, response);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+        requestFrame.release();
+        responseFrame.release();
+        channel.finishAndReleaseAll();
+    }
+    
+    @Benchmark
+    public int encodeRequest() throws IOException {
+        buffer.clear();
+        codec.encode(channel, buffer, request);
+        return buffer.writerIndex();
+    }
+    
+    @Benchmark
+    public Object decodeRequest() throws IOException {
+        return codec.decode(channel, requestFrame.duplicate());
+    }
+    
+    @Benchmark
+    public int encodeResponse() throws IOException {
+        buffer.clear();
+        codec.encode(channel, buffer, response);
+        return buffer.writerIndex();
+    }
+    
+    @Benchmark
+    public Object decodeResponse() throws IOException {
+        return codec.decode(channel, responseFrame.duplicate());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package cn.geekslife.rpc.benchmark;
+
+public interface EchoService {
+    
+    String echo(String message);
+    
+    int add(int a, int b);
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package cn.geekslife.rpc.benchmark;
+
+public class EchoServiceImpl implements EchoService {
+    
+    @Override
+    public String echo(String message) {
+        return message;
+    }
+    
+    @Override
+    public int add(int a, int b) {
+        return a + b;
+    }
+}
\ No newline at end of file
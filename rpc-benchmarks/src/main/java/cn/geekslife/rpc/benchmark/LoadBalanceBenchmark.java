@@ -0,0 +1,86 @@
+package cn.geekslife.rpc.benchmark;
+
+import cn.geekslife.rpc.cluster.LoadBalance;
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.ExtensionLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBalanceBenchmark {
+    
+    @Param({"random", "roundrobin", "leastactive", "shortestresponse", "consistenthash"})
+    private String loadbalance;
+    
+    @Param({"1", "10", "100"})
+    private int invokerCount;
+    
+    private LoadBalance selector;
+    private List<Invoker<EchoService>> invokers;
+    private RpcInvocation[] invocations;
+    private int index;
+    
+    @Setup
+    public void setup() {
+        selector = ExtensionLoader.getExtensionLoader(LoadBalance.class).getExtension(loadbalance);
+        invokers = new ArrayList<>();
+        for (int i = 0; i < invokerCount; i++) {
+            // 一部分提供者权重不同，避免所有实现都走等权重的快速路径
+            Map<String, String> parameters = new HashMap<>();
+            parameters.put("interface", EchoService.class.getName());
+            parameters.put("weight", String.valueOf(i % 3 == 0 ? 200 : 100));
+            invokers.add(new StubInvoker(new URL("rpc", "10.0.0." + (i + 1), 20880,
+                    EchoService.class.getName(), parameters)));
+        }
+        // 一致性哈希按参数选择，准备一组不同参数的调用轮流使用
+        invocations = new RpcInvocation[1024];
+        for (int i = 0; i < invocations.length; i++) {
+            invocations[i] = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"key-" + i});
+        }
+    }
+    
+    @Benchmark
+    public Invoker<EchoService> select() {
+        Invocation invocation = invocations[index++ & (invocations.length - 1)];
+        return selector.select(invokers, invocation);
+    }
+    
+    private static class StubInvoker implements Invoker<EchoService> {
+        
+        private final URL url;
+        
+        StubInvoker(URL url) {
+            this.url = url;
+        }
+        
+        @Override
+        public Class<EchoService> getInterface() {
+            return EchoService.class;
+        }
+        
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+        
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            return new Result();
+        }
+    }
+}
\ No newline at end of file
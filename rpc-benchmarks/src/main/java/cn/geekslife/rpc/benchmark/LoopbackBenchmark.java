@@ -0,0 +1,127 @@
+package cn.geekslife.rpc.benchmark;
+
+import cn.geekslife.rpc.cluster.Cluster;
+import cn.geekslife.rpc.cluster.StaticDirectory;
+import cn.geekslife.rpc.codec.RpcCodec;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.ExtensionLoader;
+import cn.geekslife.rpc.filter.FilterChainBuilder;
+import cn.geekslife.rpc.protocol.DispatchHandler;
+import cn.geekslife.rpc.protocol.ProviderInvoker;
+import cn.geekslife.rpc.protocol.ProviderInvokerRegistry;
+import cn.geekslife.rpc.protocol.RpcInvoker;
+import cn.geekslife.rpc.proxy.ProxyFactory;
+import cn.geekslife.rpc.transport.NettyServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoopbackBenchmark {
+    
+    @Param({"compact", "java"})
+    private String serialization;
+    
+    private NettyServer server;
+    private String serviceKey;
+    private Invoker<EchoService> clusterInvoker;
+    private RpcInvoker<EchoService> rpcInvoker;
+    private EchoService proxy;
+    
+    @Setup
+    public void setup() throws IOException {
+        // 服务端和客户端在同一个JVM里，走本机回环地址，不经过注册中心
+        int port = findFreePort();
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("interface", EchoService.class.getName());
+        parameters.put("serialization", serialization);
+        URL url = new URL("rpc", "127.0.0.1", port, EchoService.class.getName(), parameters);
+        
+        Invoker<EchoService> providerInvoker = new ProviderInvoker<>(new EchoServiceImpl(), EchoService.class, url);
+        serviceKey = url.getServiceKey();
+        ProviderInvokerRegistry.getInstance().register(serviceKey,
+                FilterChainBuilder.buildInvokerChain(providerInvoker, "filter", FilterChainBuilder.PROVIDER));
+        server = new NettyServer(url, new DispatchHandler(ProviderInvokerRegistry.getInstance()));
+        
+        // 消费端按引用时的方式组装：Directory -> Cluster -> 过滤器链 -> 代理
+        StaticDirectory<EchoService> directory = new StaticDirectory<>(Collections.singletonList(url), EchoService.class);
+        clusterInvoker = FilterChainBuilder.buildInvokerChain(
+                ExtensionLoader.getExtensionLoader(Cluster.class).getAdaptiveExtension().join(directory),
+                "filter", FilterChainBuilder.CONSUMER);
+        proxy = ProxyFactory.getProxy(EchoService.class, clusterInvoker);
+        rpcInvoker = new RpcInvoker<>(EchoService.class, url);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        rpcInvoker.destroy();
+        clusterInvoker.destroy();
+        server.close(0);
+        ProviderInvokerRegistry.getInstance().unregister(serviceKey);
+    }
+    
+    // 同步调用，并发度用JMH的线程数控制，如 -t 1、-t 16
+    @Benchmark
+    public String syncEcho() {
+        return proxy.echo("hello");
+    }
+    
+    // 单个线程上保持固定数量的在途请求，测连接的流水线吞吐
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object pipelinedEcho(Pipeline pipeline) {
+        Result result = pipeline.inflight.poll().join();
+        pipeline.inflight.add(rpcInvoker.invokeAsync(pipeline.newInvocation()));
+        return result.getValue();
+    }
+    
+    @State(Scope.Thread)
+    public static class Pipeline {
+        
+        @Param({"1", "16", "128"})
+        private int concurrency;
+        
+        private final ArrayDeque<CompletableFuture<Result>> inflight = new ArrayDeque<>();
+        
+        @Setup(Level.Iteration)
+        public void fill(LoopbackBenchmark benchmark) {
+            for (int i = 0; i < concurrency; i++) {
+                inflight.add(benchmark.rpcInvoker.invokeAsync(newInvocation()));
+            }
+        }
+        
+        @TearDown(Level.Iteration)
+        public void drain() {
+            while (!inflight.isEmpty()) {
+                inflight.poll().join();
+            }
+        }
+        
+        private RpcInvocation newInvocation() {
+            // RpcInvoker会往调用上写附件，每个请求用独立的对象
+            return new RpcInvocation("echo", new Class<?>[]{String.class},
+                    RpcCodec.getDesc(new Class<?>[]{String.class}), new Object[]{"hello"}, String.class);
+        }
+    }
+    
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package cn.geekslife.rpc.benchmark;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.proxy.ProxyFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyBenchmark {
+    
+    private EchoService direct;
+    private EchoService bytecodeProxy;
+    private EchoService jdkProxy;
+    
+    @Setup
+    public void setup() {
+        direct = new EchoServiceImpl();
+        bytecodeProxy = ProxyFactory.getProxy(EchoService.class, new LocalInvoker("bytecode"));
+        jdkProxy = ProxyFactory.getProxy(EchoService.class, new LocalInvoker("jdk"));
+    }
+    
+    @Benchmark
+    public int direct() {
+        return direct.add(1, 2);
+    }
+    
+    @Benchmark
+    public int bytecodeProxy() {
+        return bytecodeProxy.add(1, 2);
+    }
+    
+    @Benchmark
+    public int jdkProxy() {
+        return jdkProxy.add(1, 2);
+    }
+    
+    // 不经过网络，直接在本地执行，只测代理本身构造调用和拆结果的开销
+    private static class LocalInvoker implements Invoker<EchoService> {
+        
+        private final URL url;
+        
+        LocalInvoker(String proxy) {
+            Map<String, String> parameters = new HashMap<>();
+            parameters.put("proxy", proxy);
+            this.url = new URL("rpc", "127.0.0.1", 0, EchoService.class.getName(), parameters);
+        }
+        
+        @Override
+        public Class<EchoService> getInterface() {
+            return EchoService.class;
+        }
+        
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+        
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            Object[] args = invocation.getArguments();
+            return new Result((Integer) args[0] + (Integer) args[1]);
+        }
+    }
+}
\ No newline at end of file
@@ -9,8 +9,14 @@ import java.lang.annotation.*;
 @Documented
 @Autowired
 public @interface RpcReference {
+    // 引用GenericService时指定实际调用的服务接口名
+    String interfaceName() default "";
     String version() default "";
     String group() default "";
     String loadbalance() default "random";
     int retries() default 2;
+    String cluster() default "failover";
+    String cache() default "";
+    String[] parameters() default {};
+    String registry() default "nacos://localhost:8848";
 }
\ No newline at end of file
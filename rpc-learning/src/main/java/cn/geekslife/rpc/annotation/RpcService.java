@@ -12,4 +12,6 @@ public @interface RpcService {
     Class<?> interfaceClass() default void.class;
     String version() default "";
     String group() default "";
+    String[] parameters() default {};
+    String registry() default "nacos://localhost:8848";
 }
\ No newline at end of file
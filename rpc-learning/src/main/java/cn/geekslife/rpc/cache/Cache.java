@@ -0,0 +1,8 @@
+package cn.geekslife.rpc.cache;
+
+public interface Cache {
+    Object get(Object key);
+    void put(Object key, Object value);
+    void remove(Object key);
+    int size();
+}
\ No newline at end of file
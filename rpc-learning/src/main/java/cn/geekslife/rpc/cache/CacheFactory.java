@@ -0,0 +1,9 @@
+package cn.geekslife.rpc.cache;
+
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.SPI;
+
+@SPI("lru")
+public interface CacheFactory {
+    Cache createCache(URL url, String methodName);
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package cn.geekslife.rpc.cache;
+
+final class FrequencySketch {
+    
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    
+    // 每个long存16个4位计数器，4行Count-Min共用一张表
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+    
+    FrequencySketch(int maximumSize) {
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, maximumSize) - 1) << 1);
+        this.table = new long[capacity];
+        this.tableMask = capacity - 1;
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+    }
+    
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = 15;
+        for (int i = 0; i < 4; i++) {
+            long h = indexHash(hash, i);
+            int index = (int) (h >>> 32) & tableMask;
+            int offset = (int) (h & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 15L));
+        }
+        return frequency;
+    }
+    
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            long h = indexHash(hash, i);
+            int index = (int) (h >>> 32) & tableMask;
+            int offset = (int) (h & 15) << 2;
+            long mask = 15L << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        // 计数达到采样窗口后全部减半，让过去的热点逐渐老化
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+    
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+    
+    private static long indexHash(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h ^ (h >>> 29);
+    }
+    
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
\ No newline at end of file
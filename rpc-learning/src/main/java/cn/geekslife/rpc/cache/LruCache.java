@@ -0,0 +1,42 @@
+package cn.geekslife.rpc.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class LruCache implements Cache {
+    
+    private final Map<Object, Object> store;
+    
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("cache.size must be positive: " + maxSize);
+        }
+        // 按访问顺序排列，超过容量时淘汰最久未访问的条目
+        this.store = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+    
+    @Override
+    public synchronized Object get(Object key) {
+        return store.get(key);
+    }
+    
+    @Override
+    public synchronized void put(Object key, Object value) {
+        store.put(key, value);
+    }
+    
+    @Override
+    public synchronized void remove(Object key) {
+        store.remove(key);
+    }
+    
+    @Override
+    public synchronized int size() {
+        return store.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package cn.geekslife.rpc.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class TinyLfuCache implements Cache {
+    
+    // W-TinyLFU：新条目先进入小的LRU窗口，被挤出窗口时与主区的淘汰候选比较访问频率，频率更高才准入
+    private final Map<Object, Object> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Object, Object> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Object, Object> protect = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectCapacity;
+    
+    public TinyLfuCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("cache.size must be positive: " + maxSize);
+        }
+        // 窗口占1%，主区中受保护段占80%
+        this.windowCapacity = Math.max(1, maxSize / 100);
+        this.mainCapacity = maxSize - windowCapacity;
+        this.protectCapacity = (int) (mainCapacity * 0.8);
+        this.sketch = new FrequencySketch(maxSize);
+    }
+    
+    @Override
+    public synchronized Object get(Object key) {
+        sketch.increment(key);
+        Object value = window.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = protect.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = probation.remove(key);
+        if (value != null) {
+            // 试用段再次命中，晋升到受保护段
+            promote(key, value);
+        }
+        return value;
+    }
+    
+    @Override
+    public synchronized void put(Object key, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value == null");
+        }
+        sketch.increment(key);
+        if (window.containsKey(key)) {
+            window.put(key, value);
+        } else if (protect.containsKey(key)) {
+            protect.put(key, value);
+        } else if (probation.remove(key) != null) {
+            promote(key, value);
+        } else {
+            window.put(key, value);
+            if (window.size() > windowCapacity) {
+                evictFromWindow();
+            }
+        }
+    }
+    
+    @Override
+    public synchronized void remove(Object key) {
+        if (window.remove(key) == null && protect.remove(key) == null) {
+            probation.remove(key);
+        }
+    }
+    
+    @Override
+    public synchronized int size() {
+        return window.size() + probation.size() + protect.size();
+    }
+    
+    private void promote(Object key, Object value) {
+        protect.put(key, value);
+        if (protect.size() > protectCapacity) {
+            Map.Entry<Object, Object> demoted = eldest(protect);
+            protect.remove(demoted.getKey());
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+    
+    private void evictFromWindow() {
+        Map.Entry<Object, Object> candidate = eldest(window);
+        window.remove(candidate.getKey());
+        if (probation.size() + protect.size() < mainCapacity) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        Map<Object, Object> victimSegment = probation.isEmpty() ? protect : probation;
+        Map.Entry<Object, Object> victim = eldest(victimSegment);
+        if (victim == null) {
+            return;
+        }
+        // 候选访问频率高于淘汰对象才替换，扫描式的一次性访问进不了主区
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+            victimSegment.remove(victim.getKey());
+            probation.put(candidate.getKey(), candidate.getValue());
+        }
+    }
+    
+    private static Map.Entry<Object, Object> eldest(Map<Object, Object> segment) {
+        return segment.isEmpty() ? null : segment.entrySet().iterator().next();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package cn.geekslife.rpc.cache;
+
+import cn.geekslife.rpc.common.URL;
+
+public class TinyLfuCacheFactory implements CacheFactory {
+    
+    @Override
+    public Cache createCache(URL url, String methodName) {
+        return new TinyLfuCache(url.getMethodParameter(methodName, "cache.size", 1000));
+    }
+}
\ No newline at end of file
@@ -5,15 +5,37 @@ import cn.geekslife.rpc.common.Invocation;
 import cn.geekslife.rpc.common.Result;
 import cn.geekslife.rpc.common.URL;
 import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.RpcStatus;
+import cn.geekslife.rpc.extension.ExtensionLoader;
+import cn.geekslife.rpc.generic.RawInvocation;
+import cn.geekslife.rpc.metrics.ErrorType;
+import cn.geekslife.rpc.metrics.MethodMetrics;
+import cn.geekslife.rpc.metrics.MetricsRegistry;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
     
     protected final Directory<T> directory;
+    protected final CircuitBreakers<T> circuitBreakers;
+    protected final RetryBudget retryBudget;
+    protected final boolean metrics;
     
     public AbstractClusterInvoker(Directory<T> directory) {
         this.directory = directory;
+        URL url = directory.getUrl() != null ? directory.getUrl() : new URL("rpc", "", 0, "", null);
+        this.circuitBreakers = url.getParameter("circuit.breaker", true) ? new CircuitBreakers<>(url) : null;
+        // 重试次数限制在请求量的一定比例内，故障时避免重试放大流量
+        this.retryBudget = url.getParameter("retry.budget", true)
+                ? new RetryBudget(Double.parseDouble(url.getParameter("retry.budget.ratio", "0.1")),
+                        url.getParameter("retry.budget.min", 10), url.getParameter("retry.budget.max", 100))
+                : null;
+        this.metrics = url.getParameter("metrics", true);
     }
     
     @Override
@@ -43,20 +65,171 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
     protected abstract Object doInvoke(Invocation invocation, List<Invoker<T>> invokers) throws Throwable;
     
     protected List<Invoker<T>> list(Invocation invocation) throws RpcException {
-        return directory.list(invocation);
+        List<Invoker<T>> invokers = directory.list(invocation);
+        // 排除熔断打开的Invoker，结果按列表和熔断版本号缓存
+        return circuitBreakers != null ? circuitBreakers.filter(invokers) : invokers;
     }
     
-    protected <T> Invoker<T> select(LoadBalance loadbalance, Invocation invocation,
-                                  List<Invoker<T>> invokers, List<Invoker<T>> selected) throws RpcException {
+    protected Invoker<T> select(LoadBalance loadbalance, Invocation invocation,
+                                List<Invoker<T>> invokers, List<Invoker<T>> selected) throws RpcException {
         if (invokers == null || invokers.isEmpty()) {
             return null;
         }
         
-        if (invokers.size() == 1) {
-            return invokers.get(0);
+        // 排除已经选过的Invoker，用于重试和并行调用时挑选不同的提供者
+        // 候选列表始终传原列表，排除项单独传给负载均衡，一致性哈希等按列表缓存的状态不会因重试而重建
+        List<Invoker<T>> excluded = null;
+        int remaining = invokers.size();
+        if (selected != null && !selected.isEmpty()) {
+            excluded = new ArrayList<>(selected.size() + 1);
+            for (Invoker<T> invoker : invokers) {
+                if (selected.contains(invoker)) {
+                    excluded.add(invoker);
+                }
+            }
+            remaining -= excluded.size();
         }
         
-        // 负载均衡选择
-        return loadbalance.select(invokers, invocation);
+        while (remaining > 0) {
+            // 负载均衡选择
+            Invoker<T> invoker = loadbalance.select(invokers, invocation, excluded);
+            if (invoker == null) {
+                return null;
+            }
+            // 连接不可用或提供者正在下线时换一个，只剩最后一个时仍然尝试
+            if (remaining > 1 && !invoker.isAvailable()) {
+                excluded = exclude(excluded, invoker);
+                remaining--;
+                continue;
+            }
+            if (circuitBreakers == null || circuitBreakers.get(invoker).tryAcquire()) {
+                return invoker;
+            }
+            // 半开状态的探测名额已被占用，换一个提供者
+            excluded = exclude(excluded, invoker);
+            remaining--;
+        }
+        return null;
+    }
+    
+    private static <T> List<Invoker<T>> exclude(List<Invoker<T>> excluded, Invoker<T> invoker) {
+        if (excluded == null) {
+            excluded = new ArrayList<>(2);
+        }
+        excluded.add(invoker);
+        return excluded;
+    }
+    
+    protected LoadBalance getLoadBalance() {
+        return ExtensionLoader.getExtensionLoader(LoadBalance.class)
+                .getExtension(getUrl().getParameter("loadbalance", "random"));
+    }
+    
+    protected Result invokeWithStatus(Invoker<T> invoker, Invocation invocation) throws RpcException {
+        // 记录在途数、延迟和成败，供负载均衡使用；业务异常也算一次成功的响应
+        RpcStatus status = RpcStatus.beginCount(invoker);
+        MethodMetrics methodMetrics = beginMetrics(invoker, invocation);
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        ErrorType error = ErrorType.UNKNOWN;
+        try {
+            Result result = invoker.invoke(invocation);
+            succeeded = true;
+            error = result.hasException() ? ErrorType.BIZ : null;
+            if (circuitBreakers != null) {
+                circuitBreakers.get(invoker).onSuccess();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            error = ErrorType.of(e);
+            if (circuitBreakers != null) {
+                circuitBreakers.get(invoker).onFailure(e);
+            }
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            status.endCount(elapsed, succeeded);
+            if (methodMetrics != null) {
+                methodMetrics.end(elapsed, error);
+            }
+        }
+    }
+    
+    protected CompletableFuture<Result> invokeAsyncWithStatus(Invoker<T> invoker, Invocation invocation) {
+        RpcStatus status = RpcStatus.beginCount(invoker);
+        MethodMetrics methodMetrics = beginMetrics(invoker, invocation);
+        long start = System.nanoTime();
+        CompletableFuture<Result> future = invoker.invokeAsync(invocation);
+        // 被取消的调用只是输给了更快的那个，不算失败
+        CircuitBreaker breaker = circuitBreakers != null ? circuitBreakers.get(invoker) : null;
+        future.whenComplete((result, e) -> {
+            boolean cancelled = e instanceof CancellationException;
+            long elapsed = System.nanoTime() - start;
+            status.endCount(elapsed, e == null || cancelled);
+            if (methodMetrics != null) {
+                endMetrics(methodMetrics, elapsed, result, e, cancelled);
+            }
+            if (breaker == null) {
+                return;
+            }
+            if (e == null) {
+                breaker.onSuccess();
+            } else if (cancelled) {
+                breaker.onCancel();
+            } else {
+                breaker.onFailure(e);
+            }
+        });
+        return future;
+    }
+    
+    private MethodMetrics beginMetrics(Invoker<T> invoker, Invocation invocation) {
+        // 按提供者记录，每个地址的延迟和错误分开统计；可以用 metrics=false 关闭
+        if (!metrics) {
+            return null;
+        }
+        MethodMetrics methodMetrics = MetricsRegistry.getInstance()
+                .getMethodMetrics(MetricsRegistry.CONSUMER, invoker, invocation.getMethodName());
+        methodMetrics.begin();
+        return methodMetrics;
+    }
+    
+    private static void endMetrics(MethodMetrics methodMetrics, long elapsed, Result result, Throwable e,
+                                   boolean cancelled) {
+        ErrorType error = null;
+        if (e != null && !cancelled) {
+            error = ErrorType.of(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        } else if (result != null && result.hasException()) {
+            error = ErrorType.BIZ;
+        }
+        methodMetrics.end(elapsed, error);
+    }
+    
+    protected static Invocation copyInvocation(Invocation invocation) {
+        // 并行发出的请求各自持有一份附件，互不影响；透传的请求体只读，可以共用
+        if (invocation instanceof RawInvocation) {
+            return new RawInvocation((RawInvocation) invocation);
+        }
+        return invocation instanceof RpcInvocation ? new RpcInvocation((RpcInvocation) invocation) : invocation;
+    }
+    
+    protected static RpcException getException(CompletableFuture<Result> future) {
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            return cause instanceof RpcException ? (RpcException) cause : new RpcException("Failed to invoke", cause);
+        } catch (CancellationException e) {
+            return new RpcException("Invocation cancelled", e);
+        }
+    }
+    
+    protected static void cancel(List<CompletableFuture<Result>> futures) {
+        for (CompletableFuture<Result> future : futures) {
+            if (!future.isDone()) {
+                future.cancel(false);
+            }
+        }
     }
 }
\ No newline at end of file
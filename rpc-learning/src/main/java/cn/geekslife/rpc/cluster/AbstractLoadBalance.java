@@ -0,0 +1,54 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.URL;
+
+import java.util.List;
+
+public abstract class AbstractLoadBalance implements LoadBalance {
+    
+    public static final int DEFAULT_WEIGHT = 100;
+    public static final int DEFAULT_WARMUP = 10 * 60 * 1000;
+    
+    @Override
+    public <T> Invoker<T> select(List<Invoker<T>> invokers, Invocation invocation) {
+        if (invokers == null || invokers.isEmpty()) {
+            return null;
+        }
+        if (invokers.size() == 1) {
+            return invokers.get(0);
+        }
+        return doSelect(invokers, invocation);
+    }
+    
+    protected abstract <T> Invoker<T> doSelect(List<Invoker<T>> invokers, Invocation invocation);
+    
+    protected int getWeight(Invoker<?> invoker, Invocation invocation) {
+        URL url = invoker.getUrl();
+        int weight = Math.max(url.getParameter("weight", DEFAULT_WEIGHT), 0);
+        if (weight == 0) {
+            return 0;
+        }
+        // 提供者刚启动时JIT还没预热，预热期内按启动时长逐步放大权重
+        long timestamp = url.getParameter("timestamp", 0L);
+        if (timestamp > 0) {
+            long uptime = System.currentTimeMillis() - timestamp;
+            if (uptime < 0) {
+                // 两端时钟不一致时按刚启动处理
+                return 1;
+            }
+            int warmup = url.getParameter("warmup", DEFAULT_WARMUP);
+            if (uptime < warmup) {
+                return calculateWarmupWeight(uptime, warmup, weight);
+            }
+        }
+        return weight;
+    }
+    
+    static int calculateWarmupWeight(long uptime, int warmup, int weight) {
+        // 线性增长，至少为1，新节点也能收到少量请求完成预热
+        int warmupWeight = (int) (uptime * weight / warmup);
+        return Math.max(1, Math.min(warmupWeight, weight));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.NamedThreadFactory;
+import cn.geekslife.rpc.common.RpcException;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CircuitBreaker {
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    private static final Timer TIMER = new HashedWheelTimer(
+            new NamedThreadFactory("rpc-circuit-breaker", true), 100, TimeUnit.MILLISECONDS);
+    
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int halfOpenProbes;
+    private final Runnable stateListener;
+    
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger probes = new AtomicInteger();
+    
+    public CircuitBreaker(int failureThreshold, long openMillis, int halfOpenProbes, Runnable stateListener) {
+        this.failureThreshold = Math.max(failureThreshold, 1);
+        this.openMillis = Math.max(openMillis, 1L);
+        this.halfOpenProbes = Math.max(halfOpenProbes, 1);
+        this.stateListener = stateListener;
+    }
+    
+    public State getState() {
+        return state.get();
+    }
+    
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            return false;
+        }
+        // 半开状态只放行有限个探测请求
+        while (true) {
+            int n = probes.get();
+            if (n >= halfOpenProbes) {
+                return false;
+            }
+            if (probes.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.get() == State.HALF_OPEN && transition(State.HALF_OPEN, State.CLOSED)) {
+            probes.set(0);
+        }
+    }
+    
+    public void onFailure(Throwable e) {
+        if (!isBreakerFailure(e)) {
+            onSuccess();
+            return;
+        }
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            // 探测失败，重新打开
+            open(State.HALF_OPEN);
+        } else if (current == State.CLOSED && consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+    
+    public void onCancel() {
+        // 被取消的探测请求不给结论，归还探测名额
+        if (state.get() == State.HALF_OPEN) {
+            probes.updateAndGet(n -> n > 0 ? n - 1 : 0);
+        }
+    }
+    
+    private void open(State from) {
+        if (!transition(from, State.OPEN)) {
+            return;
+        }
+        consecutiveFailures.set(0);
+        probes.set(0);
+        // 打开一段时间后转为半开，由定时器触发，调用路径上不用检查时间
+        TIMER.newTimeout(t -> transition(State.OPEN, State.HALF_OPEN), openMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        if (stateListener != null) {
+            stateListener.run();
+        }
+        return true;
+    }
+    
+    private static boolean isBreakerFailure(Throwable e) {
+        // 只有网络、超时和线程池满说明提供者不健康，业务异常不计入
+        if (!(e instanceof RpcException)) {
+            return false;
+        }
+        RpcException rpcException = (RpcException) e;
+        return rpcException.isNetwork() || rpcException.isTimeout()
+                || rpcException.getCode() == RpcException.THREAD_POOL_EXHAUSTED_EXCEPTION;
+    }
+}
\ No newline at end of file
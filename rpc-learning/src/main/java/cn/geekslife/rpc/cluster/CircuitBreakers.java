@@ -0,0 +1,80 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.URL;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CircuitBreakers<T> {
+    
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int halfOpenProbes;
+    
+    private final ConcurrentMap<Invoker<T>, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    
+    // 任意熔断器状态变化都会递增版本号，过滤结果据此失效
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile Snapshot<T> snapshot = new Snapshot<>(null, -1, Collections.emptyList());
+    
+    public CircuitBreakers(URL url) {
+        this.failureThreshold = url.getParameter("circuit.failures", 5);
+        this.openMillis = url.getParameter("circuit.open.ms", 5000L);
+        this.halfOpenProbes = url.getParameter("circuit.half.open.probes", 1);
+    }
+    
+    public CircuitBreaker get(Invoker<T> invoker) {
+        CircuitBreaker breaker = breakers.get(invoker);
+        if (breaker == null) {
+            breaker = breakers.computeIfAbsent(invoker,
+                    k -> new CircuitBreaker(failureThreshold, openMillis, halfOpenProbes, version::incrementAndGet));
+        }
+        return breaker;
+    }
+    
+    public List<Invoker<T>> filter(List<Invoker<T>> invokers) {
+        // Directory列表和熔断状态都没变时直接复用上次的结果
+        Snapshot<T> current = snapshot;
+        int v = version.get();
+        if (current.source == invokers && current.version == v) {
+            return current.available;
+        }
+        
+        List<Invoker<T>> available = new ArrayList<>(invokers.size());
+        Map<Invoker<T>, Boolean> alive = new IdentityHashMap<>();
+        for (Invoker<T> invoker : invokers) {
+            alive.put(invoker, Boolean.TRUE);
+            CircuitBreaker breaker = breakers.get(invoker);
+            if (breaker == null || breaker.getState() != CircuitBreaker.State.OPEN) {
+                available.add(invoker);
+            }
+        }
+        if (current.source != invokers) {
+            // 已下线的Invoker不再保留熔断状态
+            breakers.keySet().removeIf(invoker -> !alive.containsKey(invoker));
+        }
+        List<Invoker<T>> result = available.size() == invokers.size() ? invokers : Collections.unmodifiableList(available);
+        snapshot = new Snapshot<>(invokers, v, result);
+        return result;
+    }
+    
+    private static final class Snapshot<T> {
+        
+        private final List<Invoker<T>> source;
+        private final int version;
+        private final List<Invoker<T>> available;
+        
+        Snapshot(List<Invoker<T>> source, int version, List<Invoker<T>> available) {
+            this.source = source;
+            this.version = version;
+            this.available = available;
+        }
+    }
+}
\ No newline at end of file
@@ -1,7 +1,11 @@
 package cn.geekslife.rpc.cluster;
 
 import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.extension.Adaptive;
+import cn.geekslife.rpc.extension.SPI;
 
+@SPI("failover")
 public interface Cluster {
+    @Adaptive({"cluster"})
     <T> Invoker<T> join(Directory<T> directory);
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.URL;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class ConsistentHashLoadBalance extends AbstractLoadBalance {
+    
+    // 服务Key.方法名 -> 哈希环
+    private final ConcurrentMap<String, ConsistentHashSelector<?>> selectors = new ConcurrentHashMap<>();
+    
+    @Override
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, Invocation invocation) {
+        return getSelector(invokers, invocation).select(invocation, null);
+    }
+    
+    @Override
+    public <T> Invoker<T> select(List<Invoker<T>> invokers, Invocation invocation, List<Invoker<T>> excluded) {
+        if (excluded == null || excluded.isEmpty()) {
+            return select(invokers, invocation);
+        }
+        if (invokers == null || invokers.isEmpty()) {
+            return null;
+        }
+        // 重试时仍然使用完整列表的环，沿环顺时针跳过已排除的节点，不为过滤后的列表重建
+        return getSelector(invokers, invocation).select(invocation, excluded);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> ConsistentHashSelector<T> getSelector(List<Invoker<T>> invokers, Invocation invocation) {
+        String key = invokers.get(0).getUrl().getServiceKey() + "." + invocation.getMethodName();
+        ConsistentHashSelector<T> selector = (ConsistentHashSelector<T>) selectors.get(key);
+        // Directory变更或熔断状态变化都会发布新的列表对象，列表不变时复用已经构建好的环
+        if (selector == null || selector.invokers != invokers) {
+            selector = new ConsistentHashSelector<>(invokers);
+            selectors.put(key, selector);
+        }
+        return selector;
+    }
+    
+    private static final class ConsistentHashSelector<T> {
+        
+        private final List<Invoker<T>> invokers;
+        
+        // 按哈希值排序的虚拟节点，两个数组下标一一对应
+        private final long[] ring;
+        private final Invoker<T>[] ringInvokers;
+        private final int[] argumentIndexes;
+        
+        @SuppressWarnings("unchecked")
+        ConsistentHashSelector(List<Invoker<T>> invokers) {
+            this.invokers = invokers;
+            URL url = invokers.get(0).getUrl();
+            int replicaNumber = Math.max(url.getParameter("hash.nodes", 160), 1);
+            this.argumentIndexes = parseIndexes(url.getParameter("hash.arguments", "0"));
+            
+            int size = invokers.size() * replicaNumber;
+            long[] hashes = new long[size];
+            int[] owners = new int[size];
+            Integer[] order = new Integer[size];
+            int n = 0;
+            for (int i = 0; i < invokers.size(); i++) {
+                String address = invokers.get(i).getUrl().getAddress();
+                for (int j = 0; j < replicaNumber; j++) {
+                    hashes[n] = hash(address + "#" + j);
+                    owners[n] = i;
+                    order[n] = n;
+                    n++;
+                }
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+            
+            this.ring = new long[size];
+            this.ringInvokers = (Invoker<T>[]) new Invoker<?>[size];
+            for (int i = 0; i < size; i++) {
+                ring[i] = hashes[order[i]];
+                ringInvokers[i] = invokers.get(owners[order[i]]);
+            }
+        }
+        
+        Invoker<T> select(Invocation invocation, List<Invoker<T>> excluded) {
+            long hash = hash(toKey(invocation.getArguments()));
+            // 顺时针找到第一个不小于该哈希值的虚拟节点
+            int index = Arrays.binarySearch(ring, hash);
+            if (index < 0) {
+                index = -index - 1;
+                if (index == ring.length) {
+                    index = 0;
+                }
+            }
+            if (excluded == null) {
+                return ringInvokers[index];
+            }
+            // 继续顺时针找第一个没有被排除的节点，全部被排除时返回null
+            for (int i = 0; i < ringInvokers.length; i++) {
+                Invoker<T> invoker = ringInvokers[(index + i) % ringInvokers.length];
+                if (!excluded.contains(invoker)) {
+                    return invoker;
+                }
+            }
+            return null;
+        }
+        
+        private String toKey(Object[] args) {
+            if (args == null || args.length == 0) {
+                return "";
+            }
+            if (argumentIndexes.length == 1) {
+                int i = argumentIndexes[0];
+                return i < args.length ? toString(args[i]) : "";
+            }
+            StringBuilder buf = new StringBuilder();
+            for (int i : argumentIndexes) {
+                if (i < args.length) {
+                    buf.append(toString(args[i]));
+                }
+                buf.append(',');
+            }
+            return buf.toString();
+        }
+        
+        private static String toString(Object argument) {
+            // 数组按内容生成键，相同内容的数组参数落到同一个节点
+            if (argument != null && argument.getClass().isArray()) {
+                return Arrays.deepToString(new Object[]{argument});
+            }
+            return String.valueOf(argument);
+        }
+        
+        private static int[] parseIndexes(String value) {
+            // 建环时解析并校验一次，配置错误在第一次选择时就暴露出来
+            String[] parts = value.split(",");
+            int[] indexes = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                try {
+                    indexes[i] = Integer.parseInt(parts[i].trim());
+                } catch (NumberFormatException e) {
+                    indexes[i] = -1;
+                }
+                if (indexes[i] < 0) {
+                    throw new IllegalArgumentException("hash.arguments must be comma separated non-negative indexes: "
+                            + value);
+                }
+            }
+            return indexes;
+        }
+        
+        private static long hash(String key) {
+            // FNV-1a后再做一次murmur3的fmix64，保证虚拟节点在环上分布均匀
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
\ No newline at end of file
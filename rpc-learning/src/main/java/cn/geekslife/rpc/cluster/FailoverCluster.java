@@ -1,8 +1,12 @@
 package cn.geekslife.rpc.cluster;
 
+import cn.geekslife.rpc.common.Invocation;
 import cn.geekslife.rpc.common.Invoker;
 import cn.geekslife.rpc.common.RpcException;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class FailoverCluster implements Cluster {
     
     @Override
@@ -17,8 +21,8 @@ public class FailoverCluster implements Cluster {
         }
         
         @Override
-        protected Object doInvoke(cn.geekslife.rpc.common.Invocation invocation, java.util.List<Invoker<T>> invokers) throws Throwable {
-            java.util.List<Invoker<T>> copyInvokers = invokers;
+        protected Object doInvoke(Invocation invocation, List<Invoker<T>> invokers) throws Throwable {
+            List<Invoker<T>> copyInvokers = invokers;
             if (copyInvokers == null || copyInvokers.isEmpty()) {
                 throw new RpcException("No provider available");
             }
@@ -29,23 +33,40 @@ public class FailoverCluster implements Cluster {
                 retries = 0;
             }
             
+            // 负载均衡在重试之间不变，只解析一次
+            LoadBalance loadbalance = getLoadBalance();
+            if (retryBudget != null) {
+                retryBudget.deposit();
+            }
+            
+            List<Invoker<T>> invoked = null;
             RpcException lastException = null;
             for (int i = 0; i <= retries; i++) {
-                try {
+                if (i > 0) {
+                    // 重试额度用完时不再重试，直接返回上一次的异常
+                    if (retryBudget != null && !retryBudget.tryWithdraw()) {
+                        throw new RpcException(lastException.getCode(), "Retry budget exhausted after " + i
+                                + " attempts, last error is: " + lastException.getMessage(), lastException);
+                    }
                     // 重新获取Invoker列表
                     copyInvokers = list(invocation);
                     if (copyInvokers == null || copyInvokers.isEmpty()) {
                         throw new RpcException("No provider available");
                     }
-                    
-                    // 负载均衡选择Invoker
-                    cn.geekslife.rpc.cluster.LoadBalance loadbalance = cn.geekslife.rpc.extension.ExtensionLoader
-                            .getExtensionLoader(cn.geekslife.rpc.cluster.LoadBalance.class)
-                            .getExtension(getUrl().getParameter("loadbalance", "random"));
-                    Invoker<T> invoker = select(loadbalance, invocation, copyInvokers, null);
-                    
+                }
+                
+                // 负载均衡选择Invoker，优先选择还没有调用过的
+                Invoker<T> invoker = select(loadbalance, invocation, copyInvokers, invoked);
+                if (invoker == null && invoked != null) {
+                    invoker = select(loadbalance, invocation, copyInvokers, null);
+                }
+                if (invoker == null) {
+                    throw new RpcException("No provider available");
+                }
+                
+                try {
                     // 调用
-                    return invoker.invoke(invocation);
+                    return invokeWithStatus(invoker, invocation);
                 } catch (RpcException e) {
                     if (i == retries) {
                         throw e;
@@ -57,6 +78,10 @@ public class FailoverCluster implements Cluster {
                     }
                     lastException = new RpcException("Failed to invoke", e);
                 }
+                if (invoked == null) {
+                    invoked = new ArrayList<>(retries + 1);
+                }
+                invoked.add(invoker);
             }
             
             throw lastException;
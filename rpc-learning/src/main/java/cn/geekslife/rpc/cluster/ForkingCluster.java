@@ -0,0 +1,86 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ForkingCluster implements Cluster {
+    
+    @Override
+    public <T> Invoker<T> join(Directory<T> directory) {
+        return new ForkingClusterInvoker<>(directory);
+    }
+    
+    public static class ForkingClusterInvoker<T> extends AbstractClusterInvoker<T> {
+        
+        public ForkingClusterInvoker(Directory<T> directory) {
+            super(directory);
+        }
+        
+        @Override
+        protected Object doInvoke(Invocation invocation, List<Invoker<T>> invokers) throws Throwable {
+            if (invokers == null || invokers.isEmpty()) {
+                throw new RpcException("No provider available");
+            }
+            int forks = getUrl().getParameter("forks", 2);
+            int timeout = getUrl().getParameter("timeout", 1000);
+            
+            // 选出forks个不同的提供者
+            List<Invoker<T>> selected;
+            if (forks <= 0 || forks >= invokers.size()) {
+                selected = invokers;
+            } else {
+                LoadBalance loadbalance = getLoadBalance();
+                selected = new ArrayList<>(forks);
+                while (selected.size() < forks) {
+                    Invoker<T> invoker = select(loadbalance, invocation, invokers, selected);
+                    if (invoker == null) {
+                        break;
+                    }
+                    selected.add(invoker);
+                }
+            }
+            
+            // 并行发出请求，完成的Future按完成顺序进入队列
+            List<CompletableFuture<Result>> futures = new ArrayList<>(selected.size());
+            BlockingQueue<CompletableFuture<Result>> completed = new ArrayBlockingQueue<>(selected.size());
+            for (Invoker<T> invoker : selected) {
+                CompletableFuture<Result> future = invokeAsyncWithStatus(invoker, copyInvocation(invocation));
+                futures.add(future);
+                future.whenComplete((result, e) -> completed.offer(future));
+            }
+            
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+                RpcException lastException = null;
+                for (int failures = 0; failures < futures.size(); failures++) {
+                    long remaining = deadline - System.nanoTime();
+                    CompletableFuture<Result> future = remaining > 0 ? completed.poll(remaining, TimeUnit.NANOSECONDS) : completed.poll();
+                    if (future == null) {
+                        throw new RpcException(RpcException.TIMEOUT_EXCEPTION, "Failed to forking invoke " + selected.size()
+                                + " providers of " + getInterface().getName() + " within " + timeout + "ms");
+                    }
+                    RpcException e = getException(future);
+                    if (e == null) {
+                        // 第一个成功的结果直接返回
+                        return future.join();
+                    }
+                    lastException = e;
+                }
+                throw new RpcException(lastException.getCode(), "Failed to forking invoke " + selected.size()
+                        + " providers of " + getInterface().getName() + ", last error is: " + lastException.getMessage(), lastException);
+            } finally {
+                // 取消还没完成的请求，释放等待表中的位置
+                cancel(futures);
+            }
+        }
+    }
+}
\ No newline at end of file
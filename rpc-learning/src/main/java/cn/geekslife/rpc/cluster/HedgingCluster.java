@@ -0,0 +1,163 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HedgingCluster implements Cluster {
+    
+    @Override
+    public <T> Invoker<T> join(Directory<T> directory) {
+        return new HedgingClusterInvoker<>(directory);
+    }
+    
+    public static class HedgingClusterInvoker<T> extends AbstractClusterInvoker<T> {
+        
+        private final LatencyWindow latencies;
+        
+        public HedgingClusterInvoker(Directory<T> directory) {
+            super(directory);
+            this.latencies = new LatencyWindow(
+                    getUrl().getParameter("hedging.window", 1024),
+                    getUrl().getParameter("hedging.percentile", 95),
+                    getUrl().getParameter("hedging.min.samples", 100));
+        }
+        
+        @Override
+        protected Object doInvoke(Invocation invocation, List<Invoker<T>> invokers) throws Throwable {
+            if (invokers == null || invokers.isEmpty()) {
+                throw new RpcException("No provider available");
+            }
+            int timeout = getUrl().getParameter("timeout", 1000);
+            // 除首次请求外最多再发几个备份请求
+            int maxAttempts = 1 + Math.max(getUrl().getParameter("hedging.max", 1), 0);
+            long delay = getHedgingDelay();
+            LoadBalance loadbalance = getLoadBalance();
+            
+            List<Invoker<T>> selected = new ArrayList<>(maxAttempts);
+            List<CompletableFuture<Result>> futures = new ArrayList<>(maxAttempts);
+            BlockingQueue<CompletableFuture<Result>> completed = new ArrayBlockingQueue<>(maxAttempts);
+            try {
+                long now = System.nanoTime();
+                long deadline = now + TimeUnit.MILLISECONDS.toNanos(timeout);
+                send(loadbalance, invocation, invokers, selected, futures, completed);
+                long nextHedge = now + delay;
+                int failures = 0;
+                RpcException lastException = null;
+                while (true) {
+                    boolean canHedge = delay >= 0 && futures.size() < maxAttempts && selected.size() < invokers.size();
+                    now = System.nanoTime();
+                    long wait = Math.min(deadline, canHedge ? nextHedge : deadline) - now;
+                    CompletableFuture<Result> future = wait > 0 ? completed.poll(wait, TimeUnit.NANOSECONDS) : completed.poll();
+                    if (future == null) {
+                        now = System.nanoTime();
+                        if (now - deadline >= 0) {
+                            throw new RpcException(RpcException.TIMEOUT_EXCEPTION, "Failed to hedging invoke "
+                                    + getInterface().getName() + " within " + timeout + "ms, attempts: " + futures.size());
+                        }
+                        // 到了对冲时间还没有响应，向另一个提供者发备份请求
+                        if (canHedge && send(loadbalance, invocation, invokers, selected, futures, completed)) {
+                            nextHedge = now + delay;
+                        }
+                        continue;
+                    }
+                    
+                    RpcException e = getException(future);
+                    if (e == null) {
+                        return future.join();
+                    }
+                    failures++;
+                    lastException = e;
+                    // 失败时不用等对冲时间，立刻换一个提供者
+                    boolean resent = futures.size() < maxAttempts
+                            && send(loadbalance, invocation, invokers, selected, futures, completed);
+                    if (resent) {
+                        nextHedge = System.nanoTime() + delay;
+                    } else if (failures == futures.size()) {
+                        throw new RpcException(lastException.getCode(), "Failed to hedging invoke " + getInterface().getName()
+                                + ", attempts: " + futures.size() + ", last error is: " + lastException.getMessage(), lastException);
+                    }
+                }
+            } finally {
+                cancel(futures);
+            }
+        }
+        
+        private boolean send(LoadBalance loadbalance, Invocation invocation, List<Invoker<T>> invokers,
+                             List<Invoker<T>> selected, List<CompletableFuture<Result>> futures,
+                             BlockingQueue<CompletableFuture<Result>> completed) {
+            Invoker<T> invoker = select(loadbalance, invocation, invokers, selected);
+            if (invoker == null) {
+                return false;
+            }
+            selected.add(invoker);
+            long start = System.nanoTime();
+            CompletableFuture<Result> future = invokeAsyncWithStatus(invoker, copyInvocation(invocation));
+            futures.add(future);
+            future.whenComplete((result, e) -> {
+                if (e == null) {
+                    latencies.record(System.nanoTime() - start);
+                }
+                completed.offer(future);
+            });
+            return true;
+        }
+        
+        private long getHedgingDelay() {
+            // 显式配置的延迟优先，否则用最近响应时间的分位数，样本不足时不对冲
+            long delay = getUrl().getParameter("hedging.delay", -1L);
+            if (delay >= 0) {
+                return TimeUnit.MILLISECONDS.toNanos(delay);
+            }
+            return latencies.getPercentile();
+        }
+    }
+    
+    static final class LatencyWindow {
+        
+        // 每记录这么多样本重新计算一次分位数，避免每次调用都排序
+        private static final int RECOMPUTE_INTERVAL = 64;
+        
+        private final long[] samples;
+        private final int percentile;
+        private final int minSamples;
+        private final AtomicLong count = new AtomicLong();
+        private volatile long value = -1;
+        
+        LatencyWindow(int size, int percentile, int minSamples) {
+            this.samples = new long[Math.max(size, RECOMPUTE_INTERVAL)];
+            this.percentile = Math.min(Math.max(percentile, 1), 100);
+            this.minSamples = Math.min(Math.max(minSamples, 1), samples.length);
+        }
+        
+        void record(long nanos) {
+            long n = count.getAndIncrement();
+            samples[(int) (n % samples.length)] = nanos;
+            if ((n + 1) % RECOMPUTE_INTERVAL == 0 && n + 1 >= minSamples) {
+                recompute((int) Math.min(n + 1, samples.length));
+            }
+        }
+        
+        private void recompute(int size) {
+            // 并发写入时可能读到个别新旧混合的样本，对估算分位数没有影响
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            int index = Math.min(size - 1, (int) Math.ceil(size * percentile / 100d) - 1);
+            value = copy[Math.max(index, 0)];
+        }
+        
+        long getPercentile() {
+            return value;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.RpcStatus;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class LeastActiveLoadBalance extends AbstractLoadBalance {
+    
+    @Override
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, Invocation invocation) {
+        int length = invokers.size();
+        int leastActive = Integer.MAX_VALUE;
+        // 活跃数相同的Invoker下标和权重
+        int leastCount = 0;
+        int[] leastIndexes = new int[length];
+        int[] weights = new int[length];
+        int totalWeight = 0;
+        boolean sameWeight = true;
+        
+        for (int i = 0; i < length; i++) {
+            Invoker<T> invoker = invokers.get(i);
+            int active = RpcStatus.getStatus(invoker).getActive();
+            int weight = getWeight(invoker, invocation);
+            weights[i] = weight;
+            if (active < leastActive) {
+                leastActive = active;
+                leastCount = 1;
+                leastIndexes[0] = i;
+                totalWeight = weight;
+                sameWeight = true;
+            } else if (active == leastActive) {
+                leastIndexes[leastCount++] = i;
+                totalWeight += weight;
+                if (sameWeight && weight != weights[leastIndexes[0]]) {
+                    sameWeight = false;
+                }
+            }
+        }
+        
+        if (leastCount == 1) {
+            return invokers.get(leastIndexes[0]);
+        }
+        return invokers.get(pick(leastIndexes, leastCount, weights, totalWeight, sameWeight));
+    }
+    
+    static int pick(int[] indexes, int count, int[] weights, int totalWeight, boolean sameWeight) {
+        // 多个候选时按权重随机，避免所有请求同时涌向同一个提供者
+        if (!sameWeight && totalWeight > 0) {
+            int offset = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (int i = 0; i < count; i++) {
+                offset -= weights[indexes[i]];
+                if (offset < 0) {
+                    return indexes[i];
+                }
+            }
+        }
+        return indexes[ThreadLocalRandom.current().nextInt(count)];
+    }
+}
\ No newline at end of file
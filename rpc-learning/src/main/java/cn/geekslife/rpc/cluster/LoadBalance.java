@@ -2,9 +2,26 @@ package cn.geekslife.rpc.cluster;
 
 import cn.geekslife.rpc.common.Invoker;
 import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.extension.SPI;
 
+import java.util.ArrayList;
 import java.util.List;
 
+@SPI("random")
 public interface LoadBalance {
     <T> Invoker<T> select(List<Invoker<T>> invokers, Invocation invocation);
+    
+    // 重试和并行调用时跳过excluded中的Invoker，invokers保持Directory发布的原列表，便于按列表缓存选择状态
+    default <T> Invoker<T> select(List<Invoker<T>> invokers, Invocation invocation, List<Invoker<T>> excluded) {
+        if (excluded == null || excluded.isEmpty()) {
+            return select(invokers, invocation);
+        }
+        List<Invoker<T>> candidates = new ArrayList<>(invokers.size());
+        for (Invoker<T> invoker : invokers) {
+            if (!excluded.contains(invoker)) {
+                candidates.add(invoker);
+            }
+        }
+        return select(candidates, invocation);
+    }
 }
\ No newline at end of file
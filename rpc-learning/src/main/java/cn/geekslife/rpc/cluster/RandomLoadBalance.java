@@ -6,19 +6,34 @@ import cn.geekslife.rpc.common.Invocation;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
-public class RandomLoadBalance implements LoadBalance {
+public class RandomLoadBalance extends AbstractLoadBalance {
     
     @Override
-    public <T> Invoker<T> select(List<Invoker<T>> invokers, Invocation invocation) {
-        if (invokers == null || invokers.isEmpty()) {
-            return null;
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, Invocation invocation) {
+        int length = invokers.size();
+        int[] weights = new int[length];
+        int totalWeight = 0;
+        boolean sameWeight = true;
+        for (int i = 0; i < length; i++) {
+            weights[i] = getWeight(invokers.get(i), invocation);
+            totalWeight += weights[i];
+            if (sameWeight && i > 0 && weights[i] != weights[0]) {
+                sameWeight = false;
+            }
         }
         
-        if (invokers.size() == 1) {
-            return invokers.get(0);
+        // 权重不同时按权重随机
+        if (!sameWeight && totalWeight > 0) {
+            int offset = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (int i = 0; i < length; i++) {
+                offset -= weights[i];
+                if (offset < 0) {
+                    return invokers.get(i);
+                }
+            }
         }
         
         // 平均随机
-        return invokers.get(ThreadLocalRandom.current().nextInt(invokers.size()));
+        return invokers.get(ThreadLocalRandom.current().nextInt(length));
     }
 }
\ No newline at end of file
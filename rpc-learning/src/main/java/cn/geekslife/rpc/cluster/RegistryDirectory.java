@@ -0,0 +1,138 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.protocol.RpcInvoker;
+import cn.geekslife.rpc.registry.NotifyListener;
+import cn.geekslife.rpc.registry.Registry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RegistryDirectory<T> implements Directory<T>, NotifyListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RegistryDirectory.class);
+    
+    private final Class<T> interfaceClass;
+    private final URL consumerUrl;
+    private final Registry registry;
+    private final boolean emptyProtection;
+    
+    // 调用路径上只读这个快照，注册中心推送时整体替换
+    private volatile List<Invoker<T>> invokers = Collections.emptyList();
+    
+    // 提供者URL -> Invoker，只在notify中访问
+    private Map<String, Invoker<T>> urlInvokerMap = new HashMap<>();
+    
+    private volatile boolean destroyed;
+    
+    public RegistryDirectory(Class<T> interfaceClass, URL consumerUrl, Registry registry) {
+        this.interfaceClass = interfaceClass;
+        this.consumerUrl = consumerUrl;
+        this.registry = registry;
+        this.emptyProtection = consumerUrl.getParameter("empty.protection", true);
+    }
+    
+    public void subscribe() {
+        registry.subscribe(consumerUrl, this);
+    }
+    
+    @Override
+    public Class<T> getInterface() {
+        return interfaceClass;
+    }
+    
+    @Override
+    public URL getUrl() {
+        return consumerUrl;
+    }
+    
+    @Override
+    public List<Invoker<T>> list(Invocation invocation) {
+        return invokers;
+    }
+    
+    @Override
+    public synchronized void notify(List<URL> urls) {
+        if (destroyed) {
+            return;
+        }
+        // 注册中心抖动或会话过期时可能推送空列表，默认保留上一份快照，等下一次非空推送再更新
+        if (emptyProtection && (urls == null || urls.isEmpty()) && !urlInvokerMap.isEmpty()) {
+            logger.warn("Received empty provider list for service {}, keeping {} previous providers",
+                    consumerUrl.getServiceKey(), urlInvokerMap.size());
+            return;
+        }
+        Map<String, Invoker<T>> oldMap = urlInvokerMap;
+        Map<String, Invoker<T>> newMap = new HashMap<>();
+        List<Invoker<T>> list = new ArrayList<>();
+        if (urls != null) {
+            for (URL providerUrl : urls) {
+                if (!isMatch(providerUrl)) {
+                    continue;
+                }
+                URL url = mergeUrl(providerUrl);
+                String key = url.toFullString();
+                if (newMap.containsKey(key)) {
+                    continue;
+                }
+                // 地址和参数都没变的提供者复用原来的Invoker
+                Invoker<T> invoker = oldMap.get(key);
+                if (invoker == null) {
+                    invoker = new RpcInvoker<>(interfaceClass, url);
+                }
+                newMap.put(key, invoker);
+                list.add(invoker);
+            }
+        }
+        urlInvokerMap = newMap;
+        invokers = Collections.unmodifiableList(list);
+        
+        // 新快照发布后再销毁已下线的Invoker
+        for (Map.Entry<String, Invoker<T>> entry : oldMap.entrySet()) {
+            if (!newMap.containsKey(entry.getKey())) {
+                entry.getValue().destroy();
+            }
+        }
+    }
+    
+    private boolean isMatch(URL providerUrl) {
+        return same(consumerUrl.getParameter("version"), providerUrl.getParameter("version"))
+                && same(consumerUrl.getParameter("group"), providerUrl.getParameter("group"));
+    }
+    
+    private static boolean same(String a, String b) {
+        return (a == null ? "" : a).equals(b == null ? "" : b);
+    }
+    
+    private URL mergeUrl(URL providerUrl) {
+        // 消费端配置覆盖提供者参数，服务标识以提供者为准
+        Map<String, String> consumerParameters = new HashMap<>();
+        if (consumerUrl.getParameters() != null) {
+            consumerParameters.putAll(consumerUrl.getParameters());
+        }
+        consumerParameters.remove("interface");
+        consumerParameters.remove("version");
+        consumerParameters.remove("group");
+        return providerUrl.addParameters(consumerParameters);
+    }
+    
+    public synchronized void destroy() {
+        if (destroyed) {
+            return;
+        }
+        destroyed = true;
+        registry.unsubscribe(consumerUrl, this);
+        for (Invoker<T> invoker : urlInvokerMap.values()) {
+            invoker.destroy();
+        }
+        urlInvokerMap = new HashMap<>();
+        invokers = Collections.emptyList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package cn.geekslife.rpc.cluster;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RetryBudget {
+    
+    // 令牌以千分之一为单位保存，避免浮点CAS
+    private static final long SCALE = 1000L;
+    
+    private final long depositPerRequest;
+    private final long minPerSecond;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong lastRefill = new AtomicLong(System.nanoTime());
+    
+    public RetryBudget(double ratio, int minRetriesPerSecond, int maxRetries) {
+        this.depositPerRequest = (long) (Math.max(ratio, 0d) * SCALE);
+        this.minPerSecond = Math.max(minRetriesPerSecond, 0) * SCALE;
+        this.maxBalance = Math.max(maxRetries, 1) * SCALE;
+        this.balance = new AtomicLong(minPerSecond);
+    }
+    
+    public void deposit() {
+        add(depositPerRequest);
+    }
+    
+    public boolean tryWithdraw() {
+        return tryWithdraw(System.nanoTime());
+    }
+    
+    boolean tryWithdraw(long now) {
+        refill(now);
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+    
+    public double getBalance() {
+        return getBalance(System.nanoTime());
+    }
+    
+    double getBalance(long now) {
+        refill(now);
+        return (double) balance.get() / SCALE;
+    }
+    
+    private void refill(long now) {
+        // 按时间补充保底的重试额度，低流量时也能重试
+        if (minPerSecond == 0) {
+            return;
+        }
+        long last = lastRefill.get();
+        long elapsed = now - last;
+        // 长时间空闲后elapsed很大，用double计算并截断到桶容量，避免long相乘溢出成负数
+        long tokens = (long) Math.min((double) minPerSecond * elapsed / TimeUnit.SECONDS.toNanos(1), maxBalance);
+        if (tokens > 0 && lastRefill.compareAndSet(last, now)) {
+            add(tokens);
+        }
+    }
+    
+    private void add(long tokens) {
+        while (true) {
+            long current = balance.get();
+            long next = Math.min(current + tokens, maxBalance);
+            if (next == current || balance.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RoundRobinLoadBalance extends AbstractLoadBalance {
+    
+    // 超过这个时间没有被选中过的Invoker视为已下线，清理其状态
+    private static final long RECYCLE_PERIOD = 60_000L;
+    
+    // 服务Key.方法名 -> (Invoker -> 轮询状态)
+    private final ConcurrentMap<String, ConcurrentMap<Invoker<?>, WeightedRoundRobin>> methodWeightMap =
+            new ConcurrentHashMap<>();
+    
+    @Override
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, Invocation invocation) {
+        String key = invokers.get(0).getUrl().getServiceKey() + "." + invocation.getMethodName();
+        ConcurrentMap<Invoker<?>, WeightedRoundRobin> map = methodWeightMap.get(key);
+        if (map == null) {
+            map = methodWeightMap.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        }
+        
+        // 平滑加权轮询：每个节点current += weight，选current最大的，再减去总权重
+        long totalWeight = 0;
+        long maxCurrent = Long.MIN_VALUE;
+        long now = System.currentTimeMillis();
+        Invoker<T> selectedInvoker = null;
+        WeightedRoundRobin selected = null;
+        for (Invoker<T> invoker : invokers) {
+            int weight = getWeight(invoker, invocation);
+            WeightedRoundRobin weightedRoundRobin = map.get(invoker);
+            if (weightedRoundRobin == null) {
+                weightedRoundRobin = map.computeIfAbsent(invoker, k -> new WeightedRoundRobin(weight));
+            }
+            if (weight != weightedRoundRobin.weight) {
+                weightedRoundRobin.setWeight(weight);
+            }
+            long current = weightedRoundRobin.increaseCurrent();
+            weightedRoundRobin.lastUpdate = now;
+            if (current > maxCurrent) {
+                maxCurrent = current;
+                selectedInvoker = invoker;
+                selected = weightedRoundRobin;
+            }
+            totalWeight += weight;
+        }
+        
+        if (invokers.size() != map.size()) {
+            map.values().removeIf(item -> now - item.lastUpdate > RECYCLE_PERIOD);
+        }
+        
+        if (selected != null) {
+            selected.select(totalWeight);
+            return selectedInvoker;
+        }
+        return invokers.get(0);
+    }
+    
+    private static final class WeightedRoundRobin {
+        
+        private volatile int weight;
+        private final AtomicLong current = new AtomicLong();
+        private volatile long lastUpdate;
+        
+        WeightedRoundRobin(int weight) {
+            this.weight = weight;
+        }
+        
+        void setWeight(int weight) {
+            this.weight = weight;
+            current.set(0);
+        }
+        
+        long increaseCurrent() {
+            return current.addAndGet(weight);
+        }
+        
+        void select(long total) {
+            current.addAndGet(-total);
+        }
+    }
+}
\ No newline at end of file
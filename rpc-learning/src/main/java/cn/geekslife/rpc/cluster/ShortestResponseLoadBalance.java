@@ -0,0 +1,59 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.RpcStatus;
+
+import java.util.List;
+
+public class ShortestResponseLoadBalance extends AbstractLoadBalance {
+    
+    // 失败率上限，避免代价被放大到无穷
+    private static final double MAX_FAILURE_RATE = 0.99d;
+    
+    @Override
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, Invocation invocation) {
+        int length = invokers.size();
+        double shortest = Double.MAX_VALUE;
+        int shortestCount = 0;
+        int[] shortestIndexes = new int[length];
+        int[] weights = new int[length];
+        int totalWeight = 0;
+        boolean sameWeight = true;
+        
+        for (int i = 0; i < length; i++) {
+            Invoker<T> invoker = invokers.get(i);
+            RpcStatus status = RpcStatus.getStatus(invoker);
+            int weight = getWeight(invoker, invocation);
+            weights[i] = weight;
+            
+            // 预估代价 = peak EWMA延迟 * (在途请求数 + 1)，快速失败的节点按失败率加重惩罚
+            double failureRate = Math.min(status.getFailureRate(), MAX_FAILURE_RATE);
+            double cost = status.getEwmaLatency() * (status.getActive() + 1) / (1d - failureRate);
+            if (weight > 0) {
+                cost = cost * DEFAULT_WEIGHT / weight;
+            } else {
+                cost = Double.MAX_VALUE;
+            }
+            
+            if (cost < shortest) {
+                shortest = cost;
+                shortestCount = 1;
+                shortestIndexes[0] = i;
+                totalWeight = weight;
+                sameWeight = true;
+            } else if (cost == shortest) {
+                shortestIndexes[shortestCount++] = i;
+                totalWeight += weight;
+                if (sameWeight && weight != weights[shortestIndexes[0]]) {
+                    sameWeight = false;
+                }
+            }
+        }
+        
+        if (shortestCount == 1) {
+            return invokers.get(shortestIndexes[0]);
+        }
+        return invokers.get(LeastActiveLoadBalance.pick(shortestIndexes, shortestCount, weights, totalWeight, sameWeight));
+    }
+}
\ No newline at end of file
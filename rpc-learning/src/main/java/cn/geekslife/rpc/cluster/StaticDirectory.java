@@ -3,17 +3,34 @@ package cn.geekslife.rpc.cluster;
 import cn.geekslife.rpc.common.Invoker;
 import cn.geekslife.rpc.common.Invocation;
 import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.protocol.RpcInvoker;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class StaticDirectory<T> implements Directory<T> {
     
-    private final List<URL> urls;
     private final Class<T> interfaceClass;
+    private final URL url;
+    private final List<Invoker<T>> invokers;
     
     public StaticDirectory(List<URL> urls, Class<T> interfaceClass) {
-        this.urls = urls;
+        this(null, urls, interfaceClass);
+    }
+    
+    public StaticDirectory(URL url, List<URL> urls, Class<T> interfaceClass) {
         this.interfaceClass = interfaceClass;
+        this.url = url != null ? url : (urls == null || urls.isEmpty() ? null : urls.get(0));
+        
+        // 根据URL列表创建Invoker列表，底层连接由ClientTransport按地址共享
+        List<Invoker<T>> list = new ArrayList<>();
+        if (urls != null) {
+            for (URL providerUrl : urls) {
+                list.add(new RpcInvoker<>(interfaceClass, providerUrl));
+            }
+        }
+        this.invokers = Collections.unmodifiableList(list);
     }
     
     @Override
@@ -23,13 +40,17 @@ public class StaticDirectory<T> implements Directory<T> {
     
     @Override
     public URL getUrl() {
-        return null;
+        return url;
     }
     
     @Override
     public List<Invoker<T>> list(Invocation invocation) {
-        // 根据URL列表创建Invoker列表
-        // 这里简化处理，实际应该根据URL创建对应的Invoker
-        return null;
+        return invokers;
+    }
+    
+    public void destroy() {
+        for (Invoker<T> invoker : invokers) {
+            invoker.destroy();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,517 @@
+package cn.geekslife.rpc.codec;
+
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.compress.Compressor;
+import cn.geekslife.rpc.compress.CompressorSupport;
+import cn.geekslife.rpc.generic.RawBody;
+import cn.geekslife.rpc.generic.RawInvocation;
+import cn.geekslife.rpc.protocol.ProviderInvokerRegistry;
+import cn.geekslife.rpc.serialize.ClassUtils;
+import cn.geekslife.rpc.serialize.ObjectInput;
+import cn.geekslife.rpc.serialize.ObjectOutput;
+import cn.geekslife.rpc.serialize.Serialization;
+import cn.geekslife.rpc.serialize.SerializationSupport;
+import cn.geekslife.rpc.transport.DefaultFuture;
+import cn.geekslife.rpc.transport.Request;
+import cn.geekslife.rpc.transport.Response;
+import cn.geekslife.rpc.transport.StreamFrame;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+
+public class RpcCodec {
+    
+    // 协议头：magic(2) + version(1) + flag(1) + serialization(1) + status(1) + id(8) + body length(4)
+    public static final int HEADER_LENGTH = 18;
+    public static final short MAGIC = (short) 0xdabb;
+    public static final byte VERSION = 1;
+    public static final int LENGTH_FIELD_OFFSET = 14;
+    
+    public static final byte FLAG_REQUEST = (byte) 0x80;
+    public static final byte FLAG_TWOWAY = (byte) 0x40;
+    public static final byte FLAG_EVENT = (byte) 0x20;
+    public static final byte FLAG_STREAM = (byte) 0x10;
+    // 低4位：第4位表示消息体已压缩，低3位是发送方使用的压缩算法ID
+    public static final byte FLAG_COMPRESSED = (byte) 0x08;
+    public static final byte COMPRESSOR_MASK = (byte) 0x07;
+    
+    public static final byte BODY_OBJECT = 0;
+    public static final byte BODY_INVOCATION = 1;
+    
+    public static final byte RESPONSE_WITH_EXCEPTION = 0;
+    public static final byte RESPONSE_VALUE = 1;
+    public static final byte RESPONSE_NULL_VALUE = 2;
+    
+    public static final int DEFAULT_PAYLOAD = 8 * 1024 * 1024;
+    
+    // 服务端按请求使用的序列化方式回写响应
+    public static final AttributeKey<Byte> SERIALIZATION_KEY = AttributeKey.valueOf("rpc.serialization");
+    // 服务端按请求声明的压缩算法压缩响应
+    public static final AttributeKey<Byte> COMPRESSOR_KEY = AttributeKey.valueOf("rpc.compressor");
+    // 连接上发过透传请求后才需要逐个检查响应是否要保持编码状态
+    public static final AttributeKey<Boolean> PASS_THROUGH_KEY = AttributeKey.valueOf("rpc.passthrough");
+    
+    private static final Class<?>[] EMPTY_CLASS_ARRAY = new Class<?>[0];
+    private static final Object[] EMPTY_ARGS = new Object[0];
+    
+    // 参数类型描述符缓存，相同方法签名只解析一次
+    private static final ConcurrentMap<String, Class<?>[]> DESC_CACHE = new ConcurrentHashMap<>();
+    
+    private final Serialization serialization;
+    private final int payload;
+    private final Compressor compressor;
+    private final int compressThreshold;
+    
+    public RpcCodec(URL url) {
+        this.serialization = SerializationSupport.getSerialization(url);
+        this.payload = url != null ? url.getParameter("payload", DEFAULT_PAYLOAD) : DEFAULT_PAYLOAD;
+        this.compressor = CompressorSupport.getCompressor(url);
+        this.compressThreshold = url != null
+                ? url.getParameter("compress.threshold", CompressorSupport.DEFAULT_THRESHOLD) : CompressorSupport.DEFAULT_THRESHOLD;
+    }
+    
+    public int getPayload() {
+        return payload;
+    }
+    
+    public void encode(Channel channel, ByteBuf buffer, Object msg) throws IOException {
+        if (msg instanceof Request) {
+            encodeRequest(channel, buffer, (Request) msg);
+        } else if (msg instanceof Response) {
+            encodeResponse(channel, buffer, (Response) msg);
+        } else if (msg instanceof StreamFrame) {
+            encodeStreamFrame(channel, buffer, (StreamFrame) msg);
+        } else {
+            throw new IOException("Unsupported message type: " + msg.getClass().getName());
+        }
+    }
+    
+    private void encodeRequest(Channel channel, ByteBuf buffer, Request request) throws IOException {
+        byte flag = FLAG_REQUEST;
+        if (request.isTwoWay()) {
+            flag |= FLAG_TWOWAY;
+        }
+        if (request.isEvent()) {
+            flag |= FLAG_EVENT;
+        }
+        // 即使本次不压缩也带上算法ID，服务端据此压缩较大的响应
+        if (compressor != null) {
+            flag |= compressor.getId();
+        }
+        if (request.getData() instanceof RawInvocation) {
+            // 透传的请求体已经按原来的序列化方式编码好，原样写出
+            RawBody body = ((RawInvocation) request.getData()).getBody();
+            channel.attr(PASS_THROUGH_KEY).set(Boolean.TRUE);
+            int start = writeHeader(buffer, flag, body.getSerializationId(), (byte) 0, request.getId());
+            writeRawBody(buffer, start, body, compressor);
+            return;
+        }
+        int start = writeHeader(buffer, flag, serialization.getContentTypeId(), (byte) 0, request.getId());
+        
+        ObjectOutput out = serialization.serialize(buffer);
+        if (request.isEvent()) {
+            out.writeObject(request.getData());
+        } else if (request.getData() instanceof RpcInvocation) {
+            out.writeByte(BODY_INVOCATION);
+            encodeInvocation(out, (RpcInvocation) request.getData());
+        } else {
+            out.writeByte(BODY_OBJECT);
+            out.writeObject(request.getData());
+        }
+        out.flushBuffer();
+        writeBody(buffer, start, compressor);
+    }
+    
+    private void encodeResponse(Channel channel, ByteBuf buffer, Response response) throws IOException {
+        Serialization responseSerialization = getChannelSerialization(channel);
+        Compressor responseCompressor = getChannelCompressor(channel);
+        int start = buffer.writerIndex();
+        try {
+            doEncodeResponse(buffer, response, responseSerialization, responseCompressor);
+        } catch (Throwable t) {
+            // 响应体编码失败时回退为BAD_RESPONSE，让调用方尽快失败而不是等到超时
+            if (response.isEvent() || response.getStatus() != Response.OK) {
+                throw t;
+            }
+            buffer.writerIndex(start);
+            Response badResponse = new Response(response.getId());
+            badResponse.setStatus(Response.BAD_RESPONSE);
+            badResponse.setErrorMessage("Failed to encode response: " + response + ", cause: " + t);
+            doEncodeResponse(buffer, badResponse, responseSerialization, responseCompressor);
+        }
+    }
+    
+    private void doEncodeResponse(ByteBuf buffer, Response response, Serialization responseSerialization,
+                                  Compressor responseCompressor) throws IOException {
+        byte flag = response.isEvent() ? FLAG_EVENT : 0;
+        if (responseCompressor != null) {
+            flag |= responseCompressor.getId();
+        }
+        Object raw = response.getResult() instanceof Result ? ((Result) response.getResult()).getValue() : null;
+        if (raw instanceof RawBody && !response.isEvent() && response.getStatus() == Response.OK) {
+            // 透传得到的响应体直接写回，写出后由这里释放
+            RawBody body = (RawBody) raw;
+            try {
+                int start = writeHeader(buffer, flag, body.getSerializationId(), response.getStatus(), response.getId());
+                writeRawBody(buffer, start, body, responseCompressor);
+            } finally {
+                body.release();
+            }
+            return;
+        }
+        int start = writeHeader(buffer, flag, responseSerialization.getContentTypeId(), response.getStatus(), response.getId());
+        
+        ObjectOutput out = responseSerialization.serialize(buffer);
+        if (response.isEvent()) {
+            out.writeObject(response.getResult());
+        } else if (response.getStatus() == Response.OK) {
+            Object result = response.getResult();
+            if (result instanceof Result) {
+                Result rpcResult = (Result) result;
+                if (rpcResult.hasException()) {
+                    out.writeByte(RESPONSE_WITH_EXCEPTION);
+                    out.writeObject(rpcResult.getException());
+                } else if (rpcResult.getValue() == null) {
+                    out.writeByte(RESPONSE_NULL_VALUE);
+                } else {
+                    out.writeByte(RESPONSE_VALUE);
+                    out.writeObject(rpcResult.getValue());
+                }
+            } else if (result == null) {
+                out.writeByte(RESPONSE_NULL_VALUE);
+            } else {
+                out.writeByte(RESPONSE_VALUE);
+                out.writeObject(result);
+            }
+        } else {
+            out.writeUTF(response.getErrorMessage());
+        }
+        out.flushBuffer();
+        writeBody(buffer, start, responseCompressor);
+    }
+    
+    private void encodeStreamFrame(Channel channel, ByteBuf buffer, StreamFrame frame) throws IOException {
+        Serialization frameSerialization = getChannelSerialization(channel);
+        Compressor frameCompressor = getChannelCompressor(channel);
+        byte flag = FLAG_STREAM;
+        if (frameCompressor != null) {
+            flag |= frameCompressor.getId();
+        }
+        int start = writeHeader(buffer, flag, frameSerialization.getContentTypeId(), (byte) 0, frame.getStreamId());
+        
+        ObjectOutput out = frameSerialization.serialize(buffer);
+        out.writeByte(frame.getType());
+        if (frame.getType() == StreamFrame.DATA) {
+            out.writeObject(frame.getData());
+        } else if (frame.getType() == StreamFrame.ERROR) {
+            Throwable error = (Throwable) frame.getData();
+            out.writeUTF(error.getClass().getName());
+            out.writeUTF(error.getMessage());
+            out.writeInt(error instanceof RpcException ? ((RpcException) error).getCode() : RpcException.UNKNOWN_EXCEPTION);
+        } else if (frame.getType() == StreamFrame.REQUEST_N) {
+            out.writeLong((Long) frame.getData());
+        }
+        out.flushBuffer();
+        writeBody(buffer, start, frameCompressor);
+    }
+    
+    private Serialization getChannelSerialization(Channel channel) throws IOException {
+        // 服务端沿用请求的序列化方式，客户端使用自己配置的序列化方式
+        Byte requested = channel.attr(SERIALIZATION_KEY).get();
+        return requested != null ? SerializationSupport.getSerializationById(requested) : serialization;
+    }
+    
+    private Compressor getChannelCompressor(Channel channel) {
+        Byte requested = channel.attr(COMPRESSOR_KEY).get();
+        return requested != null ? CompressorSupport.getCompressorById(requested) : compressor;
+    }
+    
+    private void encodeInvocation(ObjectOutput out, RpcInvocation invocation) throws IOException {
+        // 服务标识写在最前面，服务端无需解析参数即可定位服务
+        out.writeUTF(invocation.getAttachment("path"));
+        out.writeUTF(invocation.getAttachment("version"));
+        out.writeUTF(invocation.getAttachment("group"));
+        out.writeUTF(invocation.getMethodName());
+        Class<?>[] parameterTypes = invocation.getParameterTypes();
+        String desc = invocation.getParameterDesc();
+        out.writeUTF(desc != null ? desc : getDesc(parameterTypes));
+        Object[] args = invocation.getArguments();
+        int length = parameterTypes != null ? parameterTypes.length : 0;
+        for (int i = 0; i < length; i++) {
+            // 流参数不随请求发送，数据通过同一ID的流帧传输
+            out.writeObject(args[i] instanceof Flow.Publisher ? null : args[i]);
+        }
+        out.writeObject(invocation.getAttachments());
+    }
+    
+    private int writeHeader(ByteBuf buffer, byte flag, byte serializationId, byte status, long id) {
+        int start = buffer.writerIndex();
+        buffer.writeShort(MAGIC);
+        buffer.writeByte(VERSION);
+        buffer.writeByte(flag);
+        buffer.writeByte(serializationId);
+        buffer.writeByte(status);
+        buffer.writeLong(id);
+        // 消息体长度先占位，写完消息体后回填
+        buffer.writeInt(0);
+        return start;
+    }
+    
+    private void writeBodyLength(ByteBuf buffer, int start) throws IOException {
+        int bodyLength = buffer.writerIndex() - start - HEADER_LENGTH;
+        if (bodyLength > payload) {
+            throw new IOException("Data length too large: " + bodyLength + ", max payload: " + payload);
+        }
+        buffer.setInt(start + LENGTH_FIELD_OFFSET, bodyLength);
+    }
+    
+    private void writeRawBody(ByteBuf buffer, int start, RawBody body, Compressor bodyCompressor) throws IOException {
+        ByteBuf content = body.content();
+        buffer.writeBytes(content, content.readerIndex(), content.readableBytes());
+        writeBody(buffer, start, bodyCompressor);
+    }
+    
+    private void writeBody(ByteBuf buffer, int start, Compressor bodyCompressor) throws IOException {
+        int bodyStart = start + HEADER_LENGTH;
+        int bodyLength = buffer.writerIndex() - bodyStart;
+        if (bodyCompressor != null && bodyLength >= compressThreshold && bodyLength <= payload) {
+            // 直接压缩输出缓冲区中的消息体切片，结果写入池化缓冲区，压缩后确实变小才替换
+            ByteBuf compressed = buffer.alloc().buffer(bodyLength >> 1);
+            try {
+                bodyCompressor.compress(buffer.slice(bodyStart, bodyLength), compressed);
+                if (compressed.readableBytes() + 4 < bodyLength) {
+                    buffer.writerIndex(bodyStart);
+                    buffer.writeInt(bodyLength);
+                    buffer.writeBytes(compressed);
+                    buffer.setByte(start + 3, buffer.getByte(start + 3) | FLAG_COMPRESSED);
+                    buffer.setInt(start + LENGTH_FIELD_OFFSET, buffer.writerIndex() - bodyStart);
+                    return;
+                }
+            } finally {
+                compressed.release();
+            }
+        }
+        writeBodyLength(buffer, start);
+    }
+    
+    public Object decode(Channel channel, ByteBuf frame) throws IOException {
+        short magic = frame.readShort();
+        if (magic != MAGIC) {
+            throw new IOException("Illegal magic number: " + Integer.toHexString(magic & 0xFFFF));
+        }
+        frame.readByte();
+        byte flag = frame.readByte();
+        byte serializationId = frame.readByte();
+        byte status = frame.readByte();
+        long id = frame.readLong();
+        frame.readInt();
+        
+        ByteBuf body = frame;
+        if ((flag & FLAG_COMPRESSED) != 0) {
+            try {
+                body = decompress(channel, frame, flag & COMPRESSOR_MASK);
+            } catch (Throwable t) {
+                return decodeFailure(flag, id, t);
+            }
+        }
+        try {
+            if ((flag & FLAG_STREAM) != 0) {
+                return decodeStreamFrame(body, serializationId, id);
+            }
+            if ((flag & FLAG_REQUEST) != 0) {
+                return decodeRequest(channel, body, flag, serializationId, id);
+            }
+            return decodeResponse(channel, body, flag, serializationId, status, id);
+        } finally {
+            if (body != frame) {
+                body.release();
+            }
+        }
+    }
+    
+    private ByteBuf decompress(Channel channel, ByteBuf frame, int compressorId) throws IOException {
+        Compressor bodyCompressor = CompressorSupport.getCompressorById(compressorId);
+        if (bodyCompressor == null) {
+            throw new IOException("Unrecognized compressor id: " + compressorId);
+        }
+        int length = frame.readInt();
+        // 解压后的长度同样受payload限制，防止压缩炸弹
+        if (length < 0 || length > payload) {
+            throw new IOException("Decompressed length " + length + " exceeds max payload " + payload);
+        }
+        // 目标缓冲区容量上限固定为声明长度，解压器按块内声明长度扩容时越界直接失败
+        ByteBuf body = channel.alloc().buffer(length, length);
+        try {
+            bodyCompressor.decompress(frame, body, length);
+            return body;
+        } catch (Throwable t) {
+            body.release();
+            throw t;
+        }
+    }
+    
+    private Object decodeFailure(byte flag, long id, Throwable t) {
+        if ((flag & FLAG_STREAM) != 0) {
+            return new StreamFrame(id, StreamFrame.ERROR, new RpcException("Failed to decompress stream frame, cause: " + t));
+        }
+        if ((flag & FLAG_REQUEST) != 0) {
+            Request request = new Request(id);
+            request.setTwoWay((flag & FLAG_TWOWAY) != 0);
+            request.setEvent((flag & FLAG_EVENT) != 0);
+            request.setBroken(true);
+            request.setData(t);
+            return request;
+        }
+        Response response = new Response(id);
+        response.setStatus(Response.CLIENT_ERROR);
+        response.setEvent((flag & FLAG_EVENT) != 0);
+        response.setErrorMessage("Failed to decompress response, cause: " + t);
+        return response;
+    }
+    
+    private Request decodeRequest(Channel channel, ByteBuf body, byte flag, byte serializationId, long id) {
+        Request request = new Request(id);
+        request.setTwoWay((flag & FLAG_TWOWAY) != 0);
+        request.setEvent((flag & FLAG_EVENT) != 0);
+        try {
+            Serialization requestSerialization = SerializationSupport.getSerializationById(serializationId);
+            channel.attr(SERIALIZATION_KEY).set(serializationId);
+            int compressorId = flag & COMPRESSOR_MASK;
+            if (compressorId != 0 && CompressorSupport.getCompressorById(compressorId) != null) {
+                channel.attr(COMPRESSOR_KEY).set((byte) compressorId);
+            }
+            int bodyStart = body.readerIndex();
+            ObjectInput in = requestSerialization.deserialize(body);
+            if (request.isEvent()) {
+                request.setData(in.readObject());
+            } else if (in.readByte() == BODY_INVOCATION) {
+                request.setData(decodeInvocation(in, body, bodyStart, serializationId));
+            } else {
+                request.setData(in.readObject());
+            }
+        } catch (Throwable t) {
+            // 请求解码失败时标记为broken，由服务端回复BAD_REQUEST
+            request.setBroken(true);
+            request.setData(t);
+        }
+        return request;
+    }
+    
+    private Response decodeResponse(Channel channel, ByteBuf body, byte flag, byte serializationId, byte status,
+                                    long id) {
+        Response response = new Response(id);
+        response.setStatus(status);
+        response.setEvent((flag & FLAG_EVENT) != 0);
+        if (status == Response.OK && !response.isEvent() && channel.hasAttr(PASS_THROUGH_KEY) && DefaultFuture.isRaw(id)) {
+            // 透传请求的响应体不解码，切片引用接收缓冲区交给调用方转发
+            response.setResult(new Result(new RawBody(serializationId, body.retainedSlice())));
+            return response;
+        }
+        try {
+            ObjectInput in = SerializationSupport.getSerializationById(serializationId).deserialize(body);
+            if (response.isEvent()) {
+                response.setResult(in.readObject());
+            } else if (status == Response.OK) {
+                byte type = in.readByte();
+                if (type == RESPONSE_WITH_EXCEPTION) {
+                    response.setResult(new Result((Throwable) in.readObject()));
+                } else if (type == RESPONSE_VALUE) {
+                    response.setResult(new Result(in.readObject()));
+                } else {
+                    response.setResult(new Result());
+                }
+            } else {
+                response.setErrorMessage(in.readUTF());
+            }
+        } catch (Throwable t) {
+            response.setStatus(Response.CLIENT_ERROR);
+            response.setErrorMessage("Failed to decode response, cause: " + t);
+        }
+        return response;
+    }
+    
+    private StreamFrame decodeStreamFrame(ByteBuf body, byte serializationId, long id) {
+        try {
+            ObjectInput in = SerializationSupport.getSerializationById(serializationId).deserialize(body);
+            byte type = in.readByte();
+            if (type == StreamFrame.DATA) {
+                return new StreamFrame(id, type, in.readObject());
+            } else if (type == StreamFrame.ERROR) {
+                return new StreamFrame(id, type, StreamFrame.remoteError(in.readUTF(), in.readUTF(), in.readInt()));
+            } else if (type == StreamFrame.REQUEST_N) {
+                return new StreamFrame(id, type, in.readLong());
+            }
+            return new StreamFrame(id, type, null);
+        } catch (Throwable t) {
+            // 数据帧解码失败时按流错误处理，只结束这一个流
+            return new StreamFrame(id, StreamFrame.ERROR, new RpcException("Failed to decode stream frame, cause: " + t));
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private RpcInvocation decodeInvocation(ObjectInput in, ByteBuf body, int bodyStart, byte serializationId)
+            throws IOException, ClassNotFoundException {
+        String path = in.readUTF();
+        String version = in.readUTF();
+        String group = in.readUTF();
+        String methodName = in.readUTF();
+        ProviderInvokerRegistry providers = ProviderInvokerRegistry.getInstance();
+        if (providers.hasPassThrough() && providers.isPassThrough(URL.buildKey(path, group, version))) {
+            // 透传的服务只解析服务标识和方法名，参数和附件保持编码后的字节，不复制
+            return new RawInvocation(path, version, group, methodName,
+                    new RawBody(serializationId, body.retainedSlice(bodyStart, body.writerIndex() - bodyStart)));
+        }
+        Class<?>[] parameterTypes = getParameterTypes(in.readUTF());
+        Object[] args = parameterTypes.length == 0 ? EMPTY_ARGS : new Object[parameterTypes.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readObject();
+        }
+        RpcInvocation invocation = new RpcInvocation(methodName, parameterTypes, args);
+        Map<String, String> attachments = (Map<String, String>) in.readObject();
+        invocation.setAttachments(attachments != null ? attachments : new HashMap<>());
+        invocation.setAttachment("path", path);
+        invocation.setAttachment("version", version);
+        invocation.setAttachment("group", group);
+        return invocation;
+    }
+    
+    public static String getDesc(Class<?>[] parameterTypes) {
+        if (parameterTypes == null || parameterTypes.length == 0) {
+            return "";
+        }
+        StringBuilder desc = new StringBuilder();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                desc.append(',');
+            }
+            desc.append(parameterTypes[i].getName());
+        }
+        return desc.toString();
+    }
+    
+    private static Class<?>[] getParameterTypes(String desc) throws ClassNotFoundException {
+        if (desc == null || desc.isEmpty()) {
+            return EMPTY_CLASS_ARRAY;
+        }
+        Class<?>[] parameterTypes = DESC_CACHE.get(desc);
+        if (parameterTypes == null) {
+            String[] names = desc.split(",");
+            parameterTypes = new Class<?>[names.length];
+            for (int i = 0; i < names.length; i++) {
+                parameterTypes[i] = ClassUtils.forName(names[i]);
+            }
+            DESC_CACHE.putIfAbsent(desc, parameterTypes);
+        }
+        return parameterTypes;
+    }
+}
\ No newline at end of file
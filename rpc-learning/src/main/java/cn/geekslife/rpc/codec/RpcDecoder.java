@@ -0,0 +1,34 @@
+package cn.geekslife.rpc.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+public class RpcDecoder extends LengthFieldBasedFrameDecoder {
+    
+    private final RpcCodec codec;
+    
+    public RpcDecoder(RpcCodec codec) {
+        super(codec.getPayload() + RpcCodec.HEADER_LENGTH, RpcCodec.LENGTH_FIELD_OFFSET, 4, 0, 0);
+        this.codec = codec;
+    }
+    
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+        ByteBuf frame = (ByteBuf) super.decode(ctx, in);
+        if (frame == null) {
+            return null;
+        }
+        try {
+            return codec.decode(ctx.channel(), frame);
+        } finally {
+            frame.release();
+        }
+    }
+    
+    @Override
+    protected ByteBuf extractFrame(ChannelHandlerContext ctx, ByteBuf buffer, int index, int length) {
+        // 直接在接收缓冲区上切片解码，不复制帧数据
+        return buffer.retainedSlice(index, length);
+    }
+}
\ No newline at end of file
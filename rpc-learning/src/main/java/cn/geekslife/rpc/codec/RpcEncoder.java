@@ -0,0 +1,21 @@
+package cn.geekslife.rpc.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+public class RpcEncoder extends MessageToByteEncoder<Object> {
+    
+    private final RpcCodec codec;
+    
+    public RpcEncoder(RpcCodec codec) {
+        // 优先使用池化的直接内存，消息直接序列化到发送缓冲区
+        super(true);
+        this.codec = codec;
+    }
+    
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) throws Exception {
+        codec.encode(ctx.channel(), out, msg);
+    }
+}
\ No newline at end of file
@@ -1,7 +1,11 @@
 package cn.geekslife.rpc.common;
 
+import java.util.Map;
+
 public interface Invocation {
     String getMethodName();
     Class<?>[] getParameterTypes();
     Object[] getArguments();
+    Map<String, String> getAttachments();
+    String getAttachment(String key);
 }
\ No newline at end of file
@@ -1,7 +1,25 @@
 package cn.geekslife.rpc.common;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface Invoker<T> {
     Class<T> getInterface();
     Result invoke(Invocation invocation) throws RpcException;
     URL getUrl();
+    
+    default CompletableFuture<Result> invokeAsync(Invocation invocation) {
+        // 默认在当前线程同步调用，远程Invoker会覆盖成真正的异步请求
+        try {
+            return CompletableFuture.completedFuture(invoke(invocation));
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    default boolean isAvailable() {
+        return true;
+    }
+    
+    default void destroy() {
+    }
 }
\ No newline at end of file
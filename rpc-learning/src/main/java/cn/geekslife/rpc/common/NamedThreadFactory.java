@@ -0,0 +1,27 @@
+package cn.geekslife.rpc.common;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NamedThreadFactory implements ThreadFactory {
+    
+    private final AtomicInteger threadNum = new AtomicInteger(1);
+    private final String prefix;
+    private final boolean daemon;
+    
+    public NamedThreadFactory(String prefix) {
+        this(prefix, false);
+    }
+    
+    public NamedThreadFactory(String prefix, boolean daemon) {
+        this.prefix = prefix + "-thread-";
+        this.daemon = daemon;
+    }
+    
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + threadNum.getAndIncrement());
+        thread.setDaemon(daemon);
+        return thread;
+    }
+}
\ No newline at end of file
@@ -1,6 +1,11 @@
 package cn.geekslife.rpc.common;
 
-public class Result {
+import java.io.Serializable;
+
+public class Result implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
     private Object value;
     private Throwable exception;
     
@@ -1,6 +1,18 @@
 package cn.geekslife.rpc.common;
 
 public class RpcException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final int UNKNOWN_EXCEPTION = 0;
+    public static final int NETWORK_EXCEPTION = 1;
+    public static final int TIMEOUT_EXCEPTION = 2;
+    public static final int BIZ_EXCEPTION = 3;
+    public static final int THREAD_POOL_EXHAUSTED_EXCEPTION = 6;
+    public static final int LIMIT_EXCEEDED_EXCEPTION = 7;
+    
+    private int code;
+    
     public RpcException() {
         super();
     }
@@ -16,4 +28,30 @@ public class RpcException extends RuntimeException {
     public RpcException(Throwable cause) {
         super(cause);
     }
+    
+    public RpcException(int code, String message) {
+        super(message);
+        this.code = code;
+    }
+    
+    public RpcException(int code, String message, Throwable cause) {
+        super(message, cause);
+        this.code = code;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    public boolean isTimeout() {
+        return code == TIMEOUT_EXCEPTION;
+    }
+    
+    public boolean isNetwork() {
+        return code == NETWORK_EXCEPTION;
+    }
+    
+    public boolean isLimitExceeded() {
+        return code == LIMIT_EXCEEDED_EXCEPTION;
+    }
 }
\ No newline at end of file
@@ -1,9 +1,21 @@
 package cn.geekslife.rpc.common;
 
-public class RpcInvocation implements Invocation {
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+public class RpcInvocation implements Invocation, Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
     private String methodName;
     private Class<?>[] parameterTypes;
     private Object[] arguments;
+    private Map<String, String> attachments;
+    
+    // 参数类型描述由代理预先计算好，编码时不用每次拼接
+    private transient String parameterDesc;
+    private transient Class<?> returnType;
     
     public RpcInvocation() {}
     
@@ -13,6 +25,30 @@ public class RpcInvocation implements Invocation {
         this.arguments = arguments;
     }
     
+    public RpcInvocation(String methodName, Class<?>[] parameterTypes, String parameterDesc, Object[] arguments) {
+        this.methodName = methodName;
+        this.parameterTypes = parameterTypes;
+        this.parameterDesc = parameterDesc;
+        this.arguments = arguments;
+    }
+    
+    public RpcInvocation(String methodName, Class<?>[] parameterTypes, String parameterDesc, Object[] arguments,
+                         Class<?> returnType) {
+        this(methodName, parameterTypes, parameterDesc, arguments);
+        this.returnType = returnType;
+    }
+    
+    public RpcInvocation(RpcInvocation invocation) {
+        this.methodName = invocation.methodName;
+        this.parameterTypes = invocation.parameterTypes;
+        this.parameterDesc = invocation.parameterDesc;
+        this.returnType = invocation.returnType;
+        this.arguments = invocation.arguments;
+        if (invocation.attachments != null) {
+            this.attachments = new HashMap<>(invocation.attachments);
+        }
+    }
+    
     @Override
     public String getMethodName() {
         return methodName;
@@ -29,6 +65,19 @@ public class RpcInvocation implements Invocation {
     
     public void setParameterTypes(Class<?>[] parameterTypes) {
         this.parameterTypes = parameterTypes;
+        this.parameterDesc = null;
+    }
+    
+    public String getParameterDesc() {
+        return parameterDesc;
+    }
+    
+    public Class<?> getReturnType() {
+        return returnType;
+    }
+    
+    public void setReturnType(Class<?> returnType) {
+        this.returnType = returnType;
     }
     
     @Override
@@ -39,4 +88,25 @@ public class RpcInvocation implements Invocation {
     public void setArguments(Object[] arguments) {
         this.arguments = arguments;
     }
+    
+    @Override
+    public Map<String, String> getAttachments() {
+        return attachments;
+    }
+    
+    public void setAttachments(Map<String, String> attachments) {
+        this.attachments = attachments;
+    }
+    
+    @Override
+    public String getAttachment(String key) {
+        return attachments != null ? attachments.get(key) : null;
+    }
+    
+    public void setAttachment(String key, String value) {
+        if (attachments == null) {
+            attachments = new HashMap<>();
+        }
+        attachments.put(key, value);
+    }
 }
\ No newline at end of file
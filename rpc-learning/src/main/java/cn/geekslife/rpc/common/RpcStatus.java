@@ -0,0 +1,106 @@
+package cn.geekslife.rpc.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RpcStatus {
+    
+    // Invoker没有重写equals/hashCode，按对象身份查找
+    private static final ConcurrentMap<Invoker<?>, RpcStatus> STATUSES = new ConcurrentHashMap<>();
+    
+    // EWMA衰减时间常数，超过这个时间没有新样本，旧值的影响基本消失
+    private static final double DECAY_NANOS = 10_000_000_000d;
+    
+    // 失败率按样本数衰减，最近约20次调用决定结果
+    private static final double FAILURE_ALPHA = 0.05d;
+    
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder total = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    
+    // double按位存放在AtomicLong中，更新用CAS
+    private final AtomicLong ewmaLatency = new AtomicLong(Double.doubleToRawLongBits(0d));
+    private final AtomicLong failureRate = new AtomicLong(Double.doubleToRawLongBits(0d));
+    private volatile long lastUpdate = System.nanoTime();
+    
+    public static RpcStatus getStatus(Invoker<?> invoker) {
+        RpcStatus status = STATUSES.get(invoker);
+        if (status == null) {
+            status = STATUSES.computeIfAbsent(invoker, k -> new RpcStatus());
+        }
+        return status;
+    }
+    
+    public static void removeStatus(Invoker<?> invoker) {
+        STATUSES.remove(invoker);
+    }
+    
+    public static RpcStatus beginCount(Invoker<?> invoker) {
+        RpcStatus status = getStatus(invoker);
+        status.active.incrementAndGet();
+        return status;
+    }
+    
+    public void endCount(long elapsedNanos, boolean succeeded) {
+        active.decrementAndGet();
+        total.increment();
+        if (!succeeded) {
+            failed.increment();
+        }
+        updateLatency(elapsedNanos);
+        updateFailureRate(succeeded ? 0d : 1d);
+    }
+    
+    private void updateLatency(long elapsedNanos) {
+        long now = System.nanoTime();
+        long last = lastUpdate;
+        lastUpdate = now;
+        double weight = Math.exp(-Math.max(now - last, 0L) / DECAY_NANOS);
+        while (true) {
+            long bits = ewmaLatency.get();
+            double current = Double.longBitsToDouble(bits);
+            // peak EWMA：变慢时立即跟上，变快时按时间逐渐衰减
+            double next = elapsedNanos > current ? elapsedNanos : current * weight + elapsedNanos * (1d - weight);
+            if (ewmaLatency.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+    
+    private void updateFailureRate(double sample) {
+        while (true) {
+            long bits = failureRate.get();
+            double current = Double.longBitsToDouble(bits);
+            double next = current + (sample - current) * FAILURE_ALPHA;
+            if (failureRate.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+    
+    public int getActive() {
+        return active.get();
+    }
+    
+    public long getTotal() {
+        return total.sum();
+    }
+    
+    public long getFailed() {
+        return failed.sum();
+    }
+    
+    public double getEwmaLatency() {
+        double current = Double.longBitsToDouble(ewmaLatency.get());
+        // 长时间没有调用的Invoker，延迟估计随时间衰减，让它重新获得流量
+        long idle = System.nanoTime() - lastUpdate;
+        return idle > 0 ? current * Math.exp(-idle / DECAY_NANOS) : current;
+    }
+    
+    public double getFailureRate() {
+        return Double.longBitsToDouble(failureRate.get());
+    }
+}
\ No newline at end of file
@@ -1,6 +1,13 @@
 package cn.geekslife.rpc.common;
 
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 
 public class URL {
     private String protocol;
@@ -73,10 +80,168 @@ public class URL {
         return value != null ? Integer.parseInt(value) : defaultValue;
     }
     
+    public long getParameter(String key, long defaultValue) {
+        String value = getParameter(key);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+    
+    public boolean getParameter(String key, boolean defaultValue) {
+        String value = getParameter(key);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+    
+    public String getMethodParameter(String method, String key) {
+        // 方法级配置 method.key 优先于服务级配置 key
+        String value = getParameter(method + "." + key);
+        return value != null ? value : getParameter(key);
+    }
+    
+    public String getMethodParameter(String method, String key, String defaultValue) {
+        String value = getMethodParameter(method, key);
+        return value != null ? value : defaultValue;
+    }
+    
+    public int getMethodParameter(String method, String key, int defaultValue) {
+        String value = getMethodParameter(method, key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+    
+    public long getMethodParameter(String method, String key, long defaultValue) {
+        String value = getMethodParameter(method, key);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+    
     public String getServiceInterface() {
         return getParameter("interface");
     }
     
+    public String getAddress() {
+        return host + ":" + port;
+    }
+    
+    public String getServiceKey() {
+        String serviceInterface = getServiceInterface();
+        return buildKey(serviceInterface != null ? serviceInterface : path,
+                getParameter("group"), getParameter("version"));
+    }
+    
+    public static String buildKey(String path, String group, String version) {
+        // 没有分组和版本时直接使用接口名，避免每次调用拼接字符串
+        boolean hasGroup = group != null && !group.isEmpty();
+        boolean hasVersion = version != null && !version.isEmpty();
+        if (!hasGroup && !hasVersion) {
+            return path;
+        }
+        StringBuilder key = new StringBuilder();
+        if (hasGroup) {
+            key.append(group).append('/');
+        }
+        key.append(path);
+        if (hasVersion) {
+            key.append(':').append(version);
+        }
+        return key.toString();
+    }
+    
+    public URL addParameters(Map<String, String> extra) {
+        Map<String, String> merged = new HashMap<>();
+        if (parameters != null) {
+            merged.putAll(parameters);
+        }
+        if (extra != null) {
+            merged.putAll(extra);
+        }
+        return new URL(protocol, host, port, path, merged);
+    }
+    
+    public String toFullString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(protocol).append("://").append(host).append(':').append(port).append('/');
+        if (path != null) {
+            buf.append(path);
+        }
+        // 参数排序后输出，保证同一个URL的字符串形式稳定
+        Map<String, String> sorted = parameters == null ? Collections.emptyMap() : new TreeMap<>(parameters);
+        char separator = '?';
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            buf.append(separator).append(encode(entry.getKey())).append('=').append(encode(entry.getValue()));
+            separator = '&';
+        }
+        return buf.toString();
+    }
+    
+    public static URL valueOf(String url) {
+        if (url == null || url.isEmpty()) {
+            throw new IllegalArgumentException("url == null");
+        }
+        Map<String, String> parameters = new HashMap<>();
+        int i = url.indexOf('?');
+        if (i >= 0) {
+            for (String pair : url.substring(i + 1).split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    parameters.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+                }
+            }
+            url = url.substring(0, i);
+        }
+        String protocol = null;
+        i = url.indexOf("://");
+        if (i >= 0) {
+            protocol = url.substring(0, i);
+            url = url.substring(i + 3);
+        }
+        String path = "";
+        i = url.indexOf('/');
+        if (i >= 0) {
+            path = url.substring(i + 1);
+            url = url.substring(0, i);
+        }
+        int port = 0;
+        i = url.lastIndexOf(':');
+        if (i >= 0) {
+            port = Integer.parseInt(url.substring(i + 1));
+            url = url.substring(0, i);
+        }
+        return new URL(protocol, url, port, path, parameters);
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+    
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof URL)) {
+            return false;
+        }
+        URL other = (URL) o;
+        return port == other.port
+                && Objects.equals(protocol, other.protocol)
+                && Objects.equals(host, other.host)
+                && Objects.equals(path, other.path)
+                && Objects.equals(nullToEmpty(parameters), nullToEmpty(other.parameters));
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(protocol, host, port, path, nullToEmpty(parameters));
+    }
+    
+    private static Map<String, String> nullToEmpty(Map<String, String> parameters) {
+        return parameters == null ? Collections.emptyMap() : parameters;
+    }
+    
     @Override
     public String toString() {
         return protocol + "://" + host + ":" + port + "/" + path + "?" + parameters;
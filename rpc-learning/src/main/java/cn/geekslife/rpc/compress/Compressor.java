@@ -0,0 +1,14 @@
+package cn.geekslife.rpc.compress;
+
+import cn.geekslife.rpc.extension.SPI;
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+
+@SPI("deflate")
+public interface Compressor {
+    // 写在协议头flag的低3位，取值1~7
+    byte getId();
+    void compress(ByteBuf in, ByteBuf out) throws IOException;
+    void decompress(ByteBuf in, ByteBuf out, int length) throws IOException;
+}
\ No newline at end of file
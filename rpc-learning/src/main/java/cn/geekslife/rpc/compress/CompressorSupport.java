@@ -0,0 +1,45 @@
+package cn.geekslife.rpc.compress;
+
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.ExtensionLoader;
+
+import java.util.Arrays;
+
+public class CompressorSupport {
+    
+    public static final int DEFAULT_THRESHOLD = 8 * 1024;
+    
+    // 按压缩ID直接索引，解码时不需要查Map
+    private static final Compressor[] ID_COMPRESSORS = new Compressor[8];
+    
+    static {
+        ExtensionLoader<Compressor> loader = ExtensionLoader.getExtensionLoader(Compressor.class);
+        for (String name : loader.getSupportedExtensions()) {
+            Compressor compressor = loader.getExtension(name);
+            ID_COMPRESSORS[compressor.getId() & 0x07] = compressor;
+        }
+    }
+    
+    private CompressorSupport() {}
+    
+    public static Compressor getCompressor(URL url) {
+        // 消费端配置compressor，提供者在compressors中声明过才启用，否则按不压缩处理
+        String name = url != null ? url.getParameter("compressor") : null;
+        if (name == null || name.isEmpty() || "none".equals(name)) {
+            return null;
+        }
+        String supported = url.getParameter("compressors");
+        if (supported != null && !Arrays.asList(supported.split(",")).contains(name)) {
+            return null;
+        }
+        return ExtensionLoader.getExtensionLoader(Compressor.class).getExtension(name);
+    }
+    
+    public static Compressor getCompressorById(int id) {
+        return id > 0 && id < ID_COMPRESSORS.length ? ID_COMPRESSORS[id] : null;
+    }
+    
+    public static String getSupportedNames() {
+        return String.join(",", ExtensionLoader.getExtensionLoader(Compressor.class).getSupportedExtensions());
+    }
+}
\ No newline at end of file
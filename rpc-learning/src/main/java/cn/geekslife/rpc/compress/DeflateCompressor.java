@@ -0,0 +1,66 @@
+package cn.geekslife.rpc.compress;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class DeflateCompressor implements Compressor {
+    
+    public static final byte DEFLATE_ID = 1;
+    
+    // Deflater创建开销大且持有本地内存，每个线程复用一个
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+    
+    @Override
+    public byte getId() {
+        return DEFLATE_ID;
+    }
+    
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) throws IOException {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        // 直接在池化缓冲区的NIO视图上压缩，不先拷贝到byte[]
+        deflater.setInput(in.nioBuffer(in.readerIndex(), in.readableBytes()));
+        deflater.finish();
+        int length = in.readableBytes();
+        out.ensureWritable(length + (length >> 12) + (length >> 14) + 64);
+        while (!deflater.finished()) {
+            if (!out.isWritable()) {
+                out.ensureWritable(Math.max(64, out.writableBytes()));
+            }
+            ByteBuffer target = out.nioBuffer(out.writerIndex(), out.writableBytes());
+            int written = deflater.deflate(target);
+            out.writerIndex(out.writerIndex() + written);
+        }
+        in.skipBytes(length);
+    }
+    
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out, int length) throws IOException {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(in.nioBuffer(in.readerIndex(), in.readableBytes()));
+        out.ensureWritable(length);
+        ByteBuffer target = out.nioBuffer(out.writerIndex(), length);
+        try {
+            while (target.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(target) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Failed to inflate body", e);
+        }
+        if (target.hasRemaining()) {
+            throw new IOException("Truncated deflate body, expected " + length + " bytes, got " + target.position());
+        }
+        out.writerIndex(out.writerIndex() + length);
+        in.skipBytes(in.readableBytes());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package cn.geekslife.rpc.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.compression.Snappy;
+
+import java.io.IOException;
+
+public class SnappyCompressor implements Compressor {
+    
+    public static final byte SNAPPY_ID = 2;
+    
+    // Netty的Snappy用short保存块内偏移且要求从切片起点编码，单块不超过32KB，按块压缩并在块前写压缩后长度
+    private static final int MAX_CHUNK_LENGTH = 32 * 1024;
+    
+    @Override
+    public byte getId() {
+        return SNAPPY_ID;
+    }
+    
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) throws IOException {
+        // Snappy实例带编解码状态，不能跨线程共享
+        Snappy snappy = new Snappy();
+        while (in.isReadable()) {
+            int chunkLength = Math.min(MAX_CHUNK_LENGTH, in.readableBytes());
+            int lengthIndex = out.writerIndex();
+            out.writeInt(0);
+            snappy.encode(in.readSlice(chunkLength), out, chunkLength);
+            out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+            snappy.reset();
+        }
+    }
+    
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out, int length) throws IOException {
+        Snappy snappy = new Snappy();
+        int start = out.writerIndex();
+        try {
+            while (in.isReadable()) {
+                int chunkLength = in.readInt();
+                ByteBuf chunk = in.readSlice(chunkLength);
+                // 块头的varint是解压后长度，Snappy会按它扩容，先校验不超过剩余的预算
+                int remaining = length - (out.writerIndex() - start);
+                int chunkUncompressed = readPreamble(chunk);
+                if (chunkUncompressed > remaining) {
+                    throw new IOException("Snappy chunk declares " + chunkUncompressed + " bytes, only " + remaining + " expected");
+                }
+                snappy.decode(chunk, out);
+                snappy.reset();
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to decode snappy body", e);
+        }
+        if (out.writerIndex() - start != length) {
+            throw new IOException("Snappy body length mismatch, expected " + length + ", got " + (out.writerIndex() - start));
+        }
+    }
+    
+    private static int readPreamble(ByteBuf chunk) throws IOException {
+        int result = 0;
+        for (int i = 0, shift = 0; i < 5 && i < chunk.readableBytes(); i++, shift += 7) {
+            byte b = chunk.getByte(chunk.readerIndex() + i);
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (result < 0) {
+                    break;
+                }
+                return result;
+            }
+        }
+        throw new IOException("Malformed snappy preamble");
+    }
+}
\ No newline at end of file
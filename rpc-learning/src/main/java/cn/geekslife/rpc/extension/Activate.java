@@ -0,0 +1,12 @@
+package cn.geekslife.rpc.extension;
+
+import java.lang.annotation.*;
+
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Activate {
+    String[] group() default {};
+    String[] value() default {};
+    int order() default 0;
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package cn.geekslife.rpc.extension;
+
+import java.lang.annotation.*;
+
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Adaptive {
+    String[] value() default {};
+}
\ No newline at end of file
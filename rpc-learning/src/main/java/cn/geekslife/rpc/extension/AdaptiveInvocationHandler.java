@@ -0,0 +1,175 @@
+package cn.geekslife.rpc.extension;
+
+import cn.geekslife.rpc.common.URL;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+class AdaptiveInvocationHandler<T> implements InvocationHandler {
+    
+    private final ExtensionLoader<T> loader;
+    private final Class<T> type;
+    // 自适应接口通常只有一两个方法，数组顺序查找比按Method做哈希更快，JDK代理传入的Method对象每次相同
+    private final AdaptiveMethod[] methods;
+    // 扩展名 -> 扩展实例，不同URL选择不同扩展时互不覆盖
+    private final ConcurrentMap<String, T> extensions = new ConcurrentHashMap<>();
+    
+    AdaptiveInvocationHandler(ExtensionLoader<T> loader, Class<T> type, String defaultName) {
+        this.loader = loader;
+        this.type = type;
+        // 创建时解析好每个方法的URL位置、参数名和方法句柄，调用时不再反射
+        List<AdaptiveMethod> list = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            Adaptive adaptive = method.getAnnotation(Adaptive.class);
+            if (adaptive != null) {
+                list.add(new AdaptiveMethod(type, method, adaptive, defaultName));
+            }
+        }
+        this.methods = list.toArray(new AdaptiveMethod[0]);
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return type.getName() + "$Adaptive";
+            }
+        }
+        AdaptiveMethod adaptiveMethod = getAdaptiveMethod(method);
+        if (adaptiveMethod == null) {
+            throw new UnsupportedOperationException("Method " + method + " of " + type.getName()
+                    + " is not an adaptive method!");
+        }
+        T extension = getExtension(adaptiveMethod.getExtensionName(args));
+        return (Object) adaptiveMethod.handle.invokeExact((Object) extension, args);
+    }
+    
+    private AdaptiveMethod getAdaptiveMethod(Method method) {
+        for (AdaptiveMethod adaptiveMethod : methods) {
+            if (adaptiveMethod.method == method) {
+                return adaptiveMethod;
+            }
+        }
+        for (AdaptiveMethod adaptiveMethod : methods) {
+            if (adaptiveMethod.method.equals(method)) {
+                return adaptiveMethod;
+            }
+        }
+        return null;
+    }
+    
+    private T getExtension(String name) {
+        T extension = extensions.get(name);
+        if (extension == null) {
+            extension = extensions.computeIfAbsent(name, loader::getExtension);
+        }
+        return extension;
+    }
+    
+    private static final class AdaptiveMethod {
+        
+        private final Class<?> type;
+        private final Method method;
+        // (Object extension, Object[] args) -> Object，异常直接抛出，不包装成InvocationTargetException
+        private final MethodHandle handle;
+        private final int urlIndex;
+        // (Object arg) -> URL，URL直接是方法参数时为null
+        private final MethodHandle urlGetter;
+        private final String[] keys;
+        private final String defaultName;
+        
+        AdaptiveMethod(Class<?> type, Method method, Adaptive adaptive, String defaultName) {
+            this.type = type;
+            this.method = method;
+            this.defaultName = defaultName;
+            this.keys = adaptive.value().length > 0 ? adaptive.value() : new String[]{defaultKey(type)};
+            
+            // URL优先取方法参数，其次取参数上的getUrl()，例如Directory
+            int index = -1;
+            Method getter = null;
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length && index < 0; i++) {
+                if (parameterTypes[i] == URL.class) {
+                    index = i;
+                }
+            }
+            for (int i = 0; i < parameterTypes.length && index < 0; i++) {
+                try {
+                    Method candidate = parameterTypes[i].getMethod("getUrl");
+                    if (candidate.getReturnType() == URL.class) {
+                        index = i;
+                        getter = candidate;
+                    }
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+            if (index < 0) {
+                throw new IllegalStateException("Failed to create adaptive method " + method
+                        + ", no URL parameter or getUrl() accessor found");
+            }
+            this.urlIndex = index;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                this.handle = lookup.unreflect(method).asSpreader(Object[].class, parameterTypes.length)
+                        .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+                this.urlGetter = getter == null ? null
+                        : lookup.unreflect(getter).asType(MethodType.methodType(URL.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Failed to create adaptive method " + method, e);
+            }
+        }
+        
+        String getExtensionName(Object[] args) throws Throwable {
+            Object arg = args[urlIndex];
+            if (arg == null) {
+                throw new IllegalArgumentException("Adaptive method " + type.getName() + "." + method.getName()
+                        + " requires a non-null argument at index " + urlIndex);
+            }
+            URL url = urlGetter != null ? (URL) urlGetter.invokeExact(arg) : (URL) arg;
+            if (url == null) {
+                throw new IllegalArgumentException("URL of argument " + urlIndex + " == null");
+            }
+            for (String key : keys) {
+                String value = "protocol".equals(key) ? url.getProtocol() : url.getParameter(key);
+                if (value != null && !value.isEmpty()) {
+                    return value;
+                }
+            }
+            if (defaultName == null) {
+                throw new IllegalStateException("Failed to get extension " + type.getName() + " from url "
+                        + url + ", use keys " + String.join(",", keys));
+            }
+            return defaultName;
+        }
+    }
+    
+    private static String defaultKey(Class<?> type) {
+        // ThreadPool -> thread.pool
+        String simpleName = type.getSimpleName();
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < simpleName.length(); i++) {
+            char c = simpleName.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    key.append('.');
+                }
+                key.append(Character.toLowerCase(c));
+            } else {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+}
\ No newline at end of file
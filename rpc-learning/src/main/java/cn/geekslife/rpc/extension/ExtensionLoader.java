@@ -1,18 +1,44 @@
 package cn.geekslife.rpc.extension;
 
+import cn.geekslife.rpc.common.URL;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 public class ExtensionLoader<T> {
     
+    private static final String EXTENSION_DIRECTORY = "META-INF/rpc/";
+    private static final String ADAPTIVE_NAME = "adaptive";
+    
     private static final ConcurrentMap<Class<?>, ExtensionLoader<?>> EXTENSION_LOADERS = 
             new ConcurrentHashMap<>();
     
     private final Class<T> type;
-    private final ConcurrentMap<String, T> cachedInstances = new ConcurrentHashMap<>();
+    private final String defaultName;
+    
+    // 扩展名 -> 实现类名，只读配置文件，用到某个扩展时才加载对应的类
+    private final Holder<Map<String, String>> cachedClassNames = new Holder<>();
+    private final ConcurrentMap<String, Class<?>> cachedClasses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Holder<T>> cachedInstances = new ConcurrentHashMap<>();
+    private final Holder<T> cachedAdaptiveInstance = new Holder<>();
     
     private ExtensionLoader(Class<T> type) {
         this.type = type;
+        SPI spi = type.getAnnotation(SPI.class);
+        this.defaultName = spi.value().isEmpty() ? null : spi.value();
     }
     
     @SuppressWarnings("unchecked")
@@ -20,6 +46,10 @@ public class ExtensionLoader<T> {
         if (type == null) {
             throw new IllegalArgumentException("Extension type == null");
         }
+        ExtensionLoader<T> loader = (ExtensionLoader<T>) EXTENSION_LOADERS.get(type);
+        if (loader != null) {
+            return loader;
+        }
         if (!type.isInterface()) {
             throw new IllegalArgumentException("Extension type (" + type + ") is not an interface!");
         }
@@ -27,13 +57,7 @@ public class ExtensionLoader<T> {
             throw new IllegalArgumentException("Extension type (" + type + 
                     ") is not an extension, because it is NOT annotated with @" + SPI.class.getSimpleName() + "!");
         }
-        
-        ExtensionLoader<T> loader = (ExtensionLoader<T>) EXTENSION_LOADERS.get(type);
-        if (loader == null) {
-            EXTENSION_LOADERS.putIfAbsent(type, new ExtensionLoader<>(type));
-            loader = (ExtensionLoader<T>) EXTENSION_LOADERS.get(type);
-        }
-        return loader;
+        return (ExtensionLoader<T>) EXTENSION_LOADERS.computeIfAbsent(type, ExtensionLoader::new);
     }
     
     public T getExtension(String name) {
@@ -41,45 +65,206 @@ public class ExtensionLoader<T> {
             throw new IllegalArgumentException("Extension name == null");
         }
         
-        T instance = cachedInstances.get(name);
+        Holder<T> holder = cachedInstances.get(name);
+        if (holder == null) {
+            holder = cachedInstances.computeIfAbsent(name, k -> new Holder<>());
+        }
+        // 双重检查，保证每个扩展只创建一个实例
+        T instance = holder.get();
         if (instance == null) {
-            instance = createExtension(name);
-            cachedInstances.putIfAbsent(name, instance);
-            instance = cachedInstances.get(name);
+            synchronized (holder) {
+                instance = holder.get();
+                if (instance == null) {
+                    instance = createExtension(name);
+                    holder.set(instance);
+                }
+            }
         }
         return instance;
     }
     
-    @SuppressWarnings("unchecked")
+    public T getDefaultExtension() {
+        if (defaultName == null) {
+            throw new IllegalStateException("No default extension for " + type.getName());
+        }
+        return getExtension(defaultName);
+    }
+    
+    public String getDefaultExtensionName() {
+        return defaultName;
+    }
+    
+    public boolean hasExtension(String name) {
+        return getExtensionClassNames().containsKey(name);
+    }
+    
+    public List<String> getSupportedExtensions() {
+        return new ArrayList<>(getExtensionClassNames().keySet());
+    }
+    
+    public T getAdaptiveExtension() {
+        T instance = cachedAdaptiveInstance.get();
+        if (instance == null) {
+            synchronized (cachedAdaptiveInstance) {
+                instance = cachedAdaptiveInstance.get();
+                if (instance == null) {
+                    instance = createAdaptiveExtension();
+                    cachedAdaptiveInstance.set(instance);
+                }
+            }
+        }
+        return instance;
+    }
+    
+    public List<T> getActivateExtension(URL url, String key, String group) {
+        // filter=a,b追加指定的扩展，-a去掉某个自动激活的扩展，-default去掉全部自动激活的扩展
+        String value = url != null ? url.getParameter(key, "") : "";
+        List<String> names = value.isEmpty() ? Collections.emptyList() : Arrays.asList(value.split("\\s*,\\s*"));
+        
+        List<T> activated = new ArrayList<>();
+        if (!names.contains("-default")) {
+            for (String name : getSupportedExtensions()) {
+                Activate activate = getExtensionClass(name).getAnnotation(Activate.class);
+                if (activate != null && !names.contains(name) && !names.contains("-" + name)
+                        && isGroupMatch(group, activate.group()) && isActive(activate.value(), url)) {
+                    activated.add(getExtension(name));
+                }
+            }
+            activated.sort(Comparator.comparingInt(e -> e.getClass().getAnnotation(Activate.class).order()));
+        }
+        
+        for (String name : names) {
+            if (!name.isEmpty() && !name.startsWith("-") && !"default".equals(name) && !names.contains("-" + name)) {
+                activated.add(getExtension(name));
+            }
+        }
+        return activated;
+    }
+    
+    private static boolean isGroupMatch(String group, String[] groups) {
+        if (group == null || group.isEmpty() || groups.length == 0) {
+            return true;
+        }
+        return Arrays.asList(groups).contains(group);
+    }
+    
+    private static boolean isActive(String[] keys, URL url) {
+        // 没有指定条件时总是激活，否则URL中存在任一非空参数即激活，方法级配置 method.key 同样算
+        if (keys.length == 0) {
+            return true;
+        }
+        if (url == null || url.getParameters() == null) {
+            return false;
+        }
+        for (Map.Entry<String, String> entry : url.getParameters().entrySet()) {
+            String value = entry.getValue();
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            for (String key : keys) {
+                if (entry.getKey().equals(key) || entry.getKey().endsWith("." + key)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
     private T createExtension(String name) {
+        Class<?> clazz = getExtensionClass(name);
         try {
-            // 简化实现，实际应该从配置文件中读取具体的实现类
-            if ("nacos".equals(name)) {
-                if (type == cn.geekslife.rpc.registry.RegistryFactory.class) {
-                    return (T) new cn.geekslife.rpc.registry.NacosRegistryFactory();
-                }
-            } else if ("failover".equals(name)) {
-                if (type == cn.geekslife.rpc.cluster.Cluster.class) {
-                    return (T) new cn.geekslife.rpc.cluster.FailoverCluster();
+            return type.cast(clazz.getDeclaredConstructor().newInstance());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create extension " + type.getName() + " by name " + name
+                    + ", class: " + clazz.getName(), e);
+        }
+    }
+    
+    private Class<?> getExtensionClass(String name) {
+        Class<?> clazz = cachedClasses.get(name);
+        if (clazz != null) {
+            return clazz;
+        }
+        String className = getExtensionClassNames().get(name);
+        if (className == null) {
+            throw new IllegalStateException("No such extension " + type.getName() + " by name " + name
+                    + ", supported: " + getExtensionClassNames().keySet());
+        }
+        return cachedClasses.computeIfAbsent(name, k -> loadClass(className));
+    }
+    
+    private Class<?> loadClass(String className) {
+        try {
+            Class<?> clazz = Class.forName(className, true, getClassLoader());
+            if (!type.isAssignableFrom(clazz)) {
+                throw new IllegalStateException("Extension class " + className + " is not subtype of " + type.getName());
+            }
+            return clazz;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Failed to load extension class " + className, e);
+        }
+    }
+    
+    private Map<String, String> getExtensionClassNames() {
+        Map<String, String> classNames = cachedClassNames.get();
+        if (classNames == null) {
+            synchronized (cachedClassNames) {
+                classNames = cachedClassNames.get();
+                if (classNames == null) {
+                    classNames = loadExtensionClassNames();
+                    cachedClassNames.set(classNames);
                 }
-            } else if ("random".equals(name)) {
-                if (type == cn.geekslife.rpc.cluster.LoadBalance.class) {
-                    return (T) new cn.geekslife.rpc.cluster.RandomLoadBalance();
+            }
+        }
+        return classNames;
+    }
+    
+    private Map<String, String> loadExtensionClassNames() {
+        // 配置文件格式：每行 name=实现类全名，#开头为注释，先出现的同名配置优先
+        Map<String, String> classNames = new LinkedHashMap<>();
+        String fileName = EXTENSION_DIRECTORY + type.getName();
+        try {
+            Enumeration<java.net.URL> resources = getClassLoader().getResources(fileName);
+            while (resources.hasMoreElements()) {
+                java.net.URL resource = resources.nextElement();
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int comment = line.indexOf('#');
+                        if (comment >= 0) {
+                            line = line.substring(0, comment);
+                        }
+                        line = line.trim();
+                        int eq = line.indexOf('=');
+                        if (eq > 0) {
+                            classNames.putIfAbsent(line.substring(0, eq).trim(), line.substring(eq + 1).trim());
+                        }
+                    }
                 }
             }
-            
-            // 默认实现
-            if (type == cn.geekslife.rpc.registry.RegistryFactory.class) {
-                return (T) new cn.geekslife.rpc.registry.NacosRegistryFactory();
-            } else if (type == cn.geekslife.rpc.cluster.Cluster.class) {
-                return (T) new cn.geekslife.rpc.cluster.FailoverCluster();
-            } else if (type == cn.geekslife.rpc.cluster.LoadBalance.class) {
-                return (T) new cn.geekslife.rpc.cluster.RandomLoadBalance();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load extension file " + fileName, e);
+        }
+        return Collections.unmodifiableMap(classNames);
+    }
+    
+    private T createAdaptiveExtension() {
+        // 配置了名为adaptive的实现类时直接使用，否则按方法上的@Adaptive生成代理，不用为此加载全部实现类
+        if (hasExtension(ADAPTIVE_NAME)) {
+            Class<?> clazz = getExtensionClass(ADAPTIVE_NAME);
+            if (!clazz.isAnnotationPresent(Adaptive.class)) {
+                throw new IllegalStateException("Adaptive extension class " + clazz.getName()
+                        + " is not annotated with @" + Adaptive.class.getSimpleName());
             }
-            
-            return null;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create extension instance", e);
+            return getExtension(ADAPTIVE_NAME);
         }
+        return type.cast(Proxy.newProxyInstance(getClassLoader(), new Class<?>[]{type},
+                new AdaptiveInvocationHandler<>(this, type, defaultName)));
+    }
+    
+    private ClassLoader getClassLoader() {
+        ClassLoader classLoader = type.getClassLoader();
+        return classLoader != null ? classLoader : ExtensionLoader.class.getClassLoader();
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package cn.geekslife.rpc.extension;
+
+public class Holder<T> {
+    
+    private volatile T value;
+    
+    public T get() {
+        return value;
+    }
+    
+    public void set(T value) {
+        this.value = value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package cn.geekslife.rpc.filter;
+
+import cn.geekslife.rpc.cache.Cache;
+import cn.geekslife.rpc.cache.CacheFactory;
+import cn.geekslife.rpc.codec.RpcCodec;
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.Activate;
+import cn.geekslife.rpc.extension.ExtensionLoader;
+import cn.geekslife.rpc.serialize.ObjectOutput;
+import cn.geekslife.rpc.serialize.Serialization;
+import cn.geekslife.rpc.serialize.SerializationSupport;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+
+@Activate(group = FilterChainBuilder.CONSUMER, value = "cache", order = -20000)
+public class CacheFilter implements Filter {
+    
+    // 过滤器是单例，缓存按引用的Invoker和方法名区分；未开启缓存的方法记为空
+    private final ConcurrentMap<Invoker<?>, ConcurrentMap<String, Optional<MethodCache>>> caches = 
+            new ConcurrentHashMap<>();
+    
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        MethodCache methodCache = getMethodCache(invoker, invocation.getMethodName());
+        if (methodCache == null) {
+            return invoker.invoke(invocation);
+        }
+        CacheKey key = methodCache.createKey(invocation);
+        if (key == null) {
+            return invoker.invoke(invocation);
+        }
+        Result cached = methodCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        // 相同参数的并发调用只发一次远程请求，其余调用等待同一个结果
+        CompletableFuture<Result> flight = new CompletableFuture<>();
+        CompletableFuture<Result> existing = methodCache.inflight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing, invocation);
+        }
+        try {
+            Result result = invoker.invoke(invocation);
+            // 业务异常和只能订阅一次的流结果不缓存，下次仍然调用提供者
+            if (!result.hasException() && !(result.getValue() instanceof Flow.Publisher)) {
+                methodCache.put(key, result);
+            }
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            methodCache.inflight.remove(key, flight);
+        }
+    }
+    
+    private MethodCache getMethodCache(Invoker<?> invoker, String methodName) {
+        ConcurrentMap<String, Optional<MethodCache>> methods = caches.get(invoker);
+        if (methods == null) {
+            methods = caches.computeIfAbsent(invoker, k -> new ConcurrentHashMap<>());
+        }
+        Optional<MethodCache> methodCache = methods.get(methodName);
+        if (methodCache == null) {
+            methodCache = methods.computeIfAbsent(methodName, name -> createMethodCache(invoker.getUrl(), name));
+        }
+        return methodCache.orElse(null);
+    }
+    
+    private static Optional<MethodCache> createMethodCache(URL url, String methodName) {
+        String type = url.getMethodParameter(methodName, "cache");
+        if (type == null || type.isEmpty() || "false".equals(type)) {
+            return Optional.empty();
+        }
+        ExtensionLoader<CacheFactory> loader = ExtensionLoader.getExtensionLoader(CacheFactory.class);
+        CacheFactory factory = "true".equals(type) ? loader.getDefaultExtension() : loader.getExtension(type);
+        long ttl = url.getMethodParameter(methodName, "cache.ttl", 60000L);
+        return Optional.of(new MethodCache(factory.createCache(url, methodName), ttl,
+                SerializationSupport.getSerialization(url)));
+    }
+    
+    private static Result await(CompletableFuture<Result> flight, Invocation invocation) {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RpcException) {
+                throw (RpcException) cause;
+            }
+            throw new RpcException("Failed to invoke method: " + invocation.getMethodName(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RpcException("Interrupted while waiting for method: " + invocation.getMethodName(), e);
+        }
+    }
+    
+    static final class MethodCache {
+        
+        private final Cache cache;
+        private final long ttlNanos;
+        private final Serialization serialization;
+        private final ConcurrentMap<CacheKey, CompletableFuture<Result>> inflight = new ConcurrentHashMap<>();
+        
+        MethodCache(Cache cache, long ttlMillis, Serialization serialization) {
+            this.cache = cache;
+            // ttl小于等于0表示只受容量限制
+            this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1_000_000L : 0;
+            this.serialization = serialization;
+        }
+        
+        Result get(CacheKey key) {
+            Entry entry = (Entry) cache.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (ttlNanos > 0 && System.nanoTime() - entry.expireAt > 0) {
+                cache.remove(key);
+                return null;
+            }
+            return entry.result;
+        }
+        
+        void put(CacheKey key, Result result) {
+            cache.put(key, new Entry(result, System.nanoTime() + ttlNanos));
+        }
+        
+        CacheKey createKey(Invocation invocation) {
+            // 键为参数类型描述加序列化后的参数，重载方法不会互相命中
+            String desc = invocation instanceof RpcInvocation ? ((RpcInvocation) invocation).getParameterDesc() : null;
+            ByteBuf buffer = Unpooled.buffer(64);
+            try {
+                ObjectOutput out = serialization.serialize(buffer);
+                out.writeUTF(desc != null ? desc : RpcCodec.getDesc(invocation.getParameterTypes()));
+                Object[] arguments = invocation.getArguments();
+                if (arguments != null) {
+                    for (Object argument : arguments) {
+                        out.writeObject(argument);
+                    }
+                }
+                out.flushBuffer();
+                return new CacheKey(ByteBufUtil.getBytes(buffer));
+            } catch (IOException | RuntimeException e) {
+                // 参数无法序列化时不走缓存
+                return null;
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+    
+    static final class CacheKey {
+        
+        private final byte[] bytes;
+        private final int hash;
+        
+        CacheKey(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof CacheKey && Arrays.equals(bytes, ((CacheKey) o).bytes));
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+    
+    private static final class Entry {
+        
+        private final Result result;
+        private final long expireAt;
+        
+        Entry(Result result, long expireAt) {
+            this.result = result;
+            this.expireAt = expireAt;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package cn.geekslife.rpc.filter;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.extension.Activate;
+import cn.geekslife.rpc.limit.ConcurrencyLimiter;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Activate(group = FilterChainBuilder.PROVIDER, value = "limiter", order = -10000)
+public class ConcurrencyLimitFilter implements Filter {
+    
+    // 过滤器是单例，每个服务的限流器按下游Invoker区分；没有开启限流的服务记为空，不再每次解析URL
+    private final ConcurrentMap<Invoker<?>, Optional<ConcurrencyLimiter>> limiters = new ConcurrentHashMap<>();
+    
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        Optional<ConcurrencyLimiter> cached = limiters.get(invoker);
+        if (cached == null) {
+            cached = limiters.computeIfAbsent(invoker, k -> Optional.ofNullable(ConcurrencyLimiter.create(k.getUrl())));
+        }
+        ConcurrencyLimiter limiter = cached.orElse(null);
+        if (limiter == null) {
+            return invoker.invoke(invocation);
+        }
+        
+        // 超过当前并发上限直接拒绝，不让请求在队列里越积越多
+        if (!limiter.tryAcquire()) {
+            throw new RpcException(RpcException.LIMIT_EXCEEDED_EXCEPTION, "Concurrency limit exceeded for service "
+                    + invoker.getUrl().getServiceKey() + ", limit: " + limiter.getLimit());
+        }
+        long start = System.nanoTime();
+        boolean didDrop = true;
+        try {
+            Result result = invoker.invoke(invocation);
+            didDrop = false;
+            return result;
+        } finally {
+            limiter.release(System.nanoTime() - start, didDrop);
+        }
+    }
+    
+    public ConcurrencyLimiter getLimiter(Invoker<?> invoker) {
+        Optional<ConcurrencyLimiter> cached = limiters.get(invoker);
+        return cached != null ? cached.orElse(null) : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package cn.geekslife.rpc.filter;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.extension.SPI;
+
+@SPI
+public interface Filter {
+    Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException;
+}
\ No newline at end of file
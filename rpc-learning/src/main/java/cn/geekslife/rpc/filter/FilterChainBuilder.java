@@ -0,0 +1,70 @@
+package cn.geekslife.rpc.filter;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.ExtensionLoader;
+
+import java.util.List;
+
+public class FilterChainBuilder {
+    
+    public static final String CONSUMER = "consumer";
+    public static final String PROVIDER = "provider";
+    
+    public static <T> Invoker<T> buildInvokerChain(Invoker<T> invoker, String key, String group) {
+        List<Filter> filters = ExtensionLoader.getExtensionLoader(Filter.class)
+                .getActivateExtension(invoker.getUrl(), key, group);
+        // 从后往前串成链表，调用时每个节点只持有下一个节点，不产生额外对象
+        Invoker<T> next = invoker;
+        for (int i = filters.size() - 1; i >= 0; i--) {
+            next = new FilterNode<>(invoker, next, filters.get(i));
+        }
+        return next;
+    }
+    
+    static final class FilterNode<T> implements Invoker<T> {
+        
+        private final Invoker<T> originalInvoker;
+        private final Invoker<T> next;
+        private final Filter filter;
+        
+        FilterNode(Invoker<T> originalInvoker, Invoker<T> next, Filter filter) {
+            this.originalInvoker = originalInvoker;
+            this.next = next;
+            this.filter = filter;
+        }
+        
+        @Override
+        public Class<T> getInterface() {
+            return originalInvoker.getInterface();
+        }
+        
+        @Override
+        public URL getUrl() {
+            return originalInvoker.getUrl();
+        }
+        
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            return filter.invoke(next, invocation);
+        }
+        
+        @Override
+        public boolean isAvailable() {
+            return originalInvoker.isAvailable();
+        }
+        
+        @Override
+        public void destroy() {
+            originalInvoker.destroy();
+        }
+        
+        @Override
+        public String toString() {
+            return filter.getClass().getSimpleName() + " -> " + next;
+        }
+    }
+}
\ No newline at end of file
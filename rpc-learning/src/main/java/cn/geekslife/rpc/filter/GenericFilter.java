@@ -0,0 +1,104 @@
+package cn.geekslife.rpc.filter;
+
+import cn.geekslife.rpc.codec.RpcCodec;
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.extension.Activate;
+import cn.geekslife.rpc.generic.GenericException;
+import cn.geekslife.rpc.generic.GenericService;
+import cn.geekslife.rpc.generic.PojoUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Activate(group = FilterChainBuilder.PROVIDER, order = -40000)
+public class GenericFilter implements Filter {
+    
+    // 接口 -> 方法名和参数类型 -> 方法，泛化调用按类名匹配，解析结果缓存下来
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Method>> methods = new ConcurrentHashMap<>();
+    
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        Object[] args = invocation.getArguments();
+        if (!GenericService.$INVOKE.equals(invocation.getMethodName()) || args == null || args.length != 3
+                || !(args[0] instanceof String) || GenericService.class.isAssignableFrom(invoker.getInterface())) {
+            return invoker.invoke(invocation);
+        }
+        
+        // 排在最外层，之后的过滤器和统计看到的都是真实的方法
+        String methodName = (String) args[0];
+        String[] types = args[1] instanceof String[] ? (String[]) args[1] : null;
+        Object[] values = args[2] instanceof Object[] ? (Object[]) args[2] : null;
+        Method method = findMethod(invoker.getInterface(), methodName, types);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Object[] arguments;
+        try {
+            arguments = PojoUtils.realize(values, parameterTypes, method.getGenericParameterTypes());
+        } catch (RuntimeException e) {
+            return new Result(e instanceof GenericException ? e : new GenericException(e));
+        }
+        RpcInvocation real = new RpcInvocation(method.getName(), parameterTypes, RpcCodec.getDesc(parameterTypes),
+                arguments, method.getReturnType());
+        real.setAttachments(invocation.getAttachments());
+        
+        Result result = invoker.invoke(real);
+        if (result.hasException()) {
+            Throwable e = result.getException();
+            return new Result(e instanceof GenericException ? e : new GenericException(e));
+        }
+        return new Result(PojoUtils.generalize(result.getValue()));
+    }
+    
+    private Method findMethod(Class<?> interfaceClass, String methodName, String[] types) {
+        ConcurrentMap<String, Method> cache = methods.computeIfAbsent(interfaceClass, k -> new ConcurrentHashMap<>());
+        String key = types == null ? methodName : methodName + Arrays.toString(types);
+        Method method = cache.get(key);
+        if (method == null) {
+            method = resolveMethod(interfaceClass, methodName, types);
+            cache.putIfAbsent(key, method);
+        }
+        return method;
+    }
+    
+    private static Method resolveMethod(Class<?> interfaceClass, String methodName, String[] types) {
+        Method found = null;
+        for (Method method : interfaceClass.getMethods()) {
+            if (!method.getName().equals(methodName)) {
+                continue;
+            }
+            // 没有给出参数类型时，只有方法名唯一才能确定
+            if (types == null) {
+                if (found != null) {
+                    throw new RpcException("Ambiguous generic invocation of overloaded method " + methodName
+                            + " in service " + interfaceClass.getName() + ", parameter types are required");
+                }
+                found = method;
+            } else if (isMatch(method.getParameterTypes(), types)) {
+                return method;
+            }
+        }
+        if (found == null) {
+            throw new RpcException("Not found method " + methodName + (types != null ? Arrays.toString(types) : "")
+                    + " in service " + interfaceClass.getName());
+        }
+        return found;
+    }
+    
+    private static boolean isMatch(Class<?>[] parameterTypes, String[] types) {
+        if (parameterTypes.length != types.length) {
+            return false;
+        }
+        // 类型既可以写成Class.getName()的形式，也可以写成源码中的形式，如 java.lang.String[]
+        for (int i = 0; i < types.length; i++) {
+            if (!types[i].equals(parameterTypes[i].getName()) && !types[i].equals(parameterTypes[i].getCanonicalName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
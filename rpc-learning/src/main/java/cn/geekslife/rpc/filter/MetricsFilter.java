@@ -0,0 +1,34 @@
+package cn.geekslife.rpc.filter;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.extension.Activate;
+import cn.geekslife.rpc.metrics.ErrorType;
+import cn.geekslife.rpc.metrics.MethodMetrics;
+import cn.geekslife.rpc.metrics.MetricsRegistry;
+
+@Activate(group = FilterChainBuilder.PROVIDER, order = -30000)
+public class MetricsFilter implements Filter {
+    
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        // 排在限流之前，被拒绝的请求也计入错误数；可以用 filter=-metrics 关闭
+        MethodMetrics metrics = MetricsRegistry.getInstance()
+                .getMethodMetrics(MetricsRegistry.PROVIDER, invoker, invocation.getMethodName());
+        metrics.begin();
+        long start = System.nanoTime();
+        ErrorType error = ErrorType.UNKNOWN;
+        try {
+            Result result = invoker.invoke(invocation);
+            error = result.hasException() ? ErrorType.BIZ : null;
+            return result;
+        } catch (RuntimeException e) {
+            error = ErrorType.of(e);
+            throw e;
+        } finally {
+            metrics.end(System.nanoTime() - start, error);
+        }
+    }
+}
\ No newline at end of file
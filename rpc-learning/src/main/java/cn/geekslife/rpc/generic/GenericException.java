@@ -0,0 +1,35 @@
+package cn.geekslife.rpc.generic;
+
+public class GenericException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final String exceptionClass;
+    private final String exceptionMessage;
+    
+    public GenericException(String exceptionClass, String exceptionMessage) {
+        super(exceptionMessage);
+        this.exceptionClass = exceptionClass;
+        this.exceptionMessage = exceptionMessage;
+    }
+    
+    public GenericException(Throwable cause) {
+        // 只保留类名、消息和堆栈，调用方没有原异常的类也能反序列化
+        this(cause.getClass().getName(), cause.getMessage());
+        setStackTrace(cause.getStackTrace());
+    }
+    
+    public String getExceptionClass() {
+        return exceptionClass;
+    }
+    
+    public String getExceptionMessage() {
+        return exceptionMessage;
+    }
+    
+    @Override
+    public String toString() {
+        return GenericException.class.getName() + ": " + exceptionClass
+                + (exceptionMessage != null ? ": " + exceptionMessage : "");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package cn.geekslife.rpc.generic;
+
+public interface GenericService {
+    
+    String $INVOKE = "$invoke";
+    
+    // 参数类型用类名描述，参数和返回值中的自定义对象都用Map表示，调用方不需要服务接口的类
+    Object $invoke(String method, String[] parameterTypes, Object[] args) throws GenericException;
+}
\ No newline at end of file
@@ -0,0 +1,348 @@
+package cn.geekslife.rpc.generic;
+
+import cn.geekslife.rpc.serialize.ClassUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class PojoUtils {
+    
+    // 泛化后的Map用这个键记录原始类名，还原时优先使用
+    public static final String CLASS_KEY = "class";
+    
+    // 声明类型是Object、接口或抽象类时，记录的类名必须以这些前缀开头才按它创建，逗号分隔
+    private static final String[] ALLOWED_CLASSES = System.getProperty("rpc.generic.allowed.classes", "").split("\\s*,\\s*");
+    
+    // 每个类需要复制的字段，包括父类字段，只解析一次
+    private static final ConcurrentMap<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+    
+    private PojoUtils() {}
+    
+    public static Object generalize(Object value) {
+        return generalize(value, new IdentityHashMap<>());
+    }
+    
+    public static Object[] realize(Object[] values, Class<?>[] types, Type[] genericTypes) {
+        Object[] realized = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Object value = values != null && i < values.length ? values[i] : null;
+            realized[i] = realize(value, types[i], genericTypes != null ? genericTypes[i] : types[i]);
+        }
+        return realized;
+    }
+    
+    public static Object realize(Object value, Class<?> type, Type genericType) {
+        return realize(value, type, genericType, new IdentityHashMap<>());
+    }
+    
+    private static Object generalize(Object value, Map<Object, Object> history) {
+        if (value == null || isPrimitive(value.getClass())) {
+            return value;
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof Class) {
+            return ((Class<?>) value).getName();
+        }
+        Object generalized = history.get(value);
+        if (generalized != null) {
+            return generalized;
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            if (type.getComponentType().isPrimitive()) {
+                return value;
+            }
+            int length = Array.getLength(value);
+            Object[] array = new Object[length];
+            history.put(value, array);
+            for (int i = 0; i < length; i++) {
+                array[i] = generalize(Array.get(value, i), history);
+            }
+            return array;
+        }
+        if (value instanceof Collection) {
+            Collection<Object> collection = value instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+            history.put(value, collection);
+            for (Object element : (Collection<?>) value) {
+                collection.add(generalize(element, history));
+            }
+            return collection;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            history.put(value, map);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(generalize(entry.getKey(), history), generalize(entry.getValue(), history));
+            }
+            return map;
+        }
+        
+        // 普通对象按字段转成Map，调用方不需要这个类
+        Map<String, Object> map = new LinkedHashMap<>();
+        history.put(value, map);
+        map.put(CLASS_KEY, type.getName());
+        for (Field field : getFields(type)) {
+            try {
+                map.put(field.getName(), generalize(field.get(value), history));
+            } catch (IllegalAccessException e) {
+                throw new GenericException(e);
+            }
+        }
+        return map;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Object realize(Object value, Class<?> type, Type genericType, Map<Object, Object> history) {
+        if (value == null) {
+            return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+        }
+        if (type.isPrimitive() || isPrimitive(type) || type.isEnum()) {
+            return convert(value, type);
+        }
+        Object realized = history.get(value);
+        if (realized != null) {
+            return realized;
+        }
+        if (type.isArray() && (value instanceof Collection || value.getClass().isArray())) {
+            if (type.isInstance(value) && type.getComponentType().isPrimitive()) {
+                return value;
+            }
+            Class<?> componentType = type.getComponentType();
+            Type genericComponent = genericType instanceof GenericArrayType
+                    ? ((GenericArrayType) genericType).getGenericComponentType() : componentType;
+            Object[] elements = value instanceof Collection ? ((Collection<?>) value).toArray() : toObjectArray(value);
+            Object array = Array.newInstance(componentType, elements.length);
+            history.put(value, array);
+            for (int i = 0; i < elements.length; i++) {
+                Array.set(array, i, realize(elements[i], componentType, genericComponent, history));
+            }
+            return array;
+        }
+        if (Collection.class.isAssignableFrom(type) && (value instanceof Collection || value.getClass().isArray())) {
+            Collection<Object> collection = newCollection(type);
+            history.put(value, collection);
+            Type elementType = getTypeArgument(genericType, 0);
+            Class<?> elementClass = toClass(elementType);
+            for (Object element : value instanceof Collection ? (Collection<?>) value : List.of(toObjectArray(value))) {
+                collection.add(realize(element, elementClass, elementType, history));
+            }
+            return collection;
+        }
+        if (!(value instanceof Map)) {
+            return value;
+        }
+        Map<Object, Object> map = (Map<Object, Object>) value;
+        if (Map.class.isAssignableFrom(type) || type == Object.class && !map.containsKey(CLASS_KEY)) {
+            Map<Object, Object> result = newMap(type);
+            history.put(value, result);
+            Type keyType = getTypeArgument(genericType, 0);
+            Type valueType = getTypeArgument(genericType, 1);
+            for (Map.Entry<Object, Object> entry : map.entrySet()) {
+                result.put(realize(entry.getKey(), toClass(keyType), keyType, history),
+                        realize(entry.getValue(), toClass(valueType), valueType, history));
+            }
+            return result;
+        }
+        
+        // Map还原为普通对象，记录的类名是声明类型的子类时按记录的类创建
+        Class<?> targetType = type;
+        Object className = map.get(CLASS_KEY);
+        if (className instanceof String && (isConcrete(type) || isAllowed((String) className))) {
+            try {
+                Class<?> recorded = ClassUtils.forName((String) className);
+                if (type.isAssignableFrom(recorded)) {
+                    targetType = recorded;
+                }
+            } catch (ClassNotFoundException e) {
+                // 找不到记录的类时按声明类型还原
+            }
+        }
+        if (!isConcrete(targetType)) {
+            return value;
+        }
+        Object instance = newInstance(targetType);
+        history.put(value, instance);
+        for (Field field : getFields(targetType)) {
+            if (!map.containsKey(field.getName())) {
+                continue;
+            }
+            try {
+                field.set(instance, realize(map.get(field.getName()), field.getType(), field.getGenericType(), history));
+            } catch (IllegalAccessException e) {
+                throw new GenericException(e);
+            }
+        }
+        return instance;
+    }
+    
+    private static boolean isConcrete(Class<?> type) {
+        return type != Object.class && !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+    }
+    
+    private static boolean isAllowed(String className) {
+        // 调用方给的类名不能随意实例化，声明类型约束不住时只认白名单
+        for (String prefix : ALLOWED_CLASSES) {
+            if (!prefix.isEmpty() && className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Object convert(Object value, Class<?> type) {
+        Class<?> boxed = box(type);
+        if (boxed.isInstance(value)) {
+            return value;
+        }
+        // 泛化调用的数字可能被调用方的序列化换成其他宽度，按目标类型转换
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (boxed == Integer.class) {
+                return number.intValue();
+            } else if (boxed == Long.class) {
+                return number.longValue();
+            } else if (boxed == Double.class) {
+                return number.doubleValue();
+            } else if (boxed == Float.class) {
+                return number.floatValue();
+            } else if (boxed == Short.class) {
+                return number.shortValue();
+            } else if (boxed == Byte.class) {
+                return number.byteValue();
+            } else if (boxed == Date.class) {
+                return new Date(number.longValue());
+            }
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            if (type.isEnum()) {
+                return toEnum(type, text);
+            } else if (boxed == Character.class && text.length() == 1) {
+                return text.charAt(0);
+            }
+        }
+        return value;
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(Class<?> type, String name) {
+        return Enum.valueOf((Class) type, name);
+    }
+    
+    private static boolean isPrimitive(Class<?> type) {
+        // JDK自带的值类型两端都有，原样传输；集合和Map需要逐个元素处理
+        return type.isPrimitive() || type != Object.class && type.getName().startsWith("java.")
+                && !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type);
+    }
+    
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return Array.get(Array.newInstance(type, 1), 0).getClass();
+    }
+    
+    private static Object[] toObjectArray(Object array) {
+        int length = Array.getLength(array);
+        Object[] elements = new Object[length];
+        for (int i = 0; i < length; i++) {
+            elements[i] = Array.get(array, i);
+        }
+        return elements;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> newCollection(Class<?> type) {
+        if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+            return (Collection<Object>) newInstance(type);
+        }
+        if (SortedSet.class.isAssignableFrom(type)) {
+            return new TreeSet<>();
+        }
+        return Set.class.isAssignableFrom(type) ? new LinkedHashSet<>() : new ArrayList<>();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newMap(Class<?> type) {
+        if (Map.class.isAssignableFrom(type) && !type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+            return (Map<Object, Object>) newInstance(type);
+        }
+        return SortedMap.class.isAssignableFrom(type) ? new TreeMap<>() : new LinkedHashMap<>();
+    }
+    
+    private static Object newInstance(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new GenericException(new IllegalArgumentException("Failed to instantiate " + type.getName()
+                    + ", a no-arg constructor is required", e));
+        }
+    }
+    
+    private static Type getTypeArgument(Type genericType, int index) {
+        if (genericType instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (index < arguments.length) {
+                return arguments[index];
+            }
+        }
+        return Object.class;
+    }
+    
+    private static Class<?> toClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(toClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        return Object.class;
+    }
+    
+    private static Field[] getFields(Class<?> type) {
+        Field[] fields = FIELDS.get(type);
+        if (fields == null) {
+            List<Field> list = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    list.add(field);
+                }
+            }
+            fields = list.toArray(new Field[0]);
+            FIELDS.putIfAbsent(type, fields);
+        }
+        return fields;
+    }
+}
\ No newline at end of file
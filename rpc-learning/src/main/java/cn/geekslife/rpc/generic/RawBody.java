@@ -0,0 +1,29 @@
+package cn.geekslife.rpc.generic;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+public class RawBody extends DefaultByteBufHolder {
+    
+    // 消息体按这个序列化方式编码，转发时原样写进消息头
+    private final byte serializationId;
+    
+    public RawBody(byte serializationId, ByteBuf content) {
+        super(content);
+        this.serializationId = serializationId;
+    }
+    
+    public byte getSerializationId() {
+        return serializationId;
+    }
+    
+    @Override
+    public RawBody replace(ByteBuf content) {
+        return new RawBody(serializationId, content);
+    }
+    
+    @Override
+    public String toString() {
+        return "RawBody[serialization=" + serializationId + ", length=" + content().readableBytes() + "]";
+    }
+}
\ No newline at end of file
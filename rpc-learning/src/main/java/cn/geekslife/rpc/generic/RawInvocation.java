@@ -0,0 +1,56 @@
+package cn.geekslife.rpc.generic;
+
+import cn.geekslife.rpc.codec.RpcCodec;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.serialize.ObjectInput;
+import cn.geekslife.rpc.serialize.SerializationSupport;
+import io.netty.util.ReferenceCountUtil;
+
+import java.io.IOException;
+
+public class RawInvocation extends RpcInvocation {
+    
+    private static final long serialVersionUID = 1L;
+    
+    // 已编码的请求体，从调用类型开始，包含服务标识、方法、参数和附件
+    private final transient RawBody body;
+    
+    public RawInvocation(String path, String version, String group, String methodName, RawBody body) {
+        setMethodName(methodName);
+        setAttachment("path", path);
+        setAttachment("version", version);
+        setAttachment("group", group);
+        this.body = body;
+    }
+    
+    public RawInvocation(RawInvocation invocation) {
+        super(invocation);
+        this.body = invocation.body;
+    }
+    
+    public static RawInvocation of(RawBody body) throws IOException {
+        // 只读出消息体开头的服务标识和方法名，用于路由和统计，参数不解码
+        ObjectInput in = SerializationSupport.getSerializationById(body.getSerializationId())
+                .deserialize(body.content().duplicate());
+        if (in.readByte() != RpcCodec.BODY_INVOCATION) {
+            throw new IOException("Raw body is not an invocation: " + body);
+        }
+        String path = in.readUTF();
+        String version = in.readUTF();
+        String group = in.readUTF();
+        return new RawInvocation(path, version, group, in.readUTF(), body);
+    }
+    
+    public RawBody getBody() {
+        return body;
+    }
+    
+    public void release() {
+        ReferenceCountUtil.release(body);
+    }
+    
+    @Override
+    public String toString() {
+        return "RawInvocation[" + getAttachment("path") + "#" + getMethodName() + ", " + body + "]";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package cn.geekslife.rpc.limit;
+
+import cn.geekslife.rpc.common.URL;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrencyLimiter {
+    
+    private final Limit limit;
+    private final int windowSamples;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    
+    // 当前采样窗口，凑够样本后用平均RTT和最大在途数更新一次上限
+    private long windowRttSum;
+    private int windowCount;
+    private int windowMaxInflight;
+    private boolean windowDidDrop;
+    
+    public ConcurrencyLimiter(Limit limit, int windowSamples) {
+        this.limit = limit;
+        this.windowSamples = Math.max(windowSamples, 1);
+    }
+    
+    public static ConcurrencyLimiter create(URL url) {
+        String name = url.getParameter("limiter", "");
+        if (name.isEmpty() || "none".equals(name)) {
+            return null;
+        }
+        int initial = url.getParameter("limiter.initial", 20);
+        int min = url.getParameter("limiter.min", 1);
+        int max = url.getParameter("limiter.max", 1000);
+        double smoothing = Double.parseDouble(url.getParameter("limiter.smoothing", "0.2"));
+        int windowSamples = url.getParameter("limiter.window.samples", 20);
+        if ("vegas".equals(name)) {
+            return new ConcurrencyLimiter(new VegasLimit(initial, min, max, smoothing,
+                    url.getParameter("limiter.rtt.window", 100)), windowSamples);
+        }
+        if ("gradient".equals(name)) {
+            return new ConcurrencyLimiter(new GradientLimit(initial, min, max, smoothing,
+                    Double.parseDouble(url.getParameter("limiter.rtt.tolerance", "1.5")),
+                    url.getParameter("limiter.short.window", 3), url.getParameter("limiter.rtt.window", 100)), windowSamples);
+        }
+        throw new IllegalArgumentException("Unsupported limiter: " + name);
+    }
+    
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit.getLimit()) {
+                rejected.increment();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    public void release(long rttNanos, boolean didDrop) {
+        // 用释放前的在途数作为样本，反映这次调用期间的并发水平
+        int current = inflight.getAndDecrement();
+        long avgRtt;
+        int maxInflight;
+        boolean drop;
+        synchronized (this) {
+            windowRttSum += rttNanos;
+            windowMaxInflight = Math.max(windowMaxInflight, current);
+            windowDidDrop |= didDrop;
+            if (++windowCount < windowSamples) {
+                return;
+            }
+            avgRtt = windowRttSum / windowCount;
+            maxInflight = windowMaxInflight;
+            drop = windowDidDrop;
+            windowRttSum = 0;
+            windowCount = 0;
+            windowMaxInflight = 0;
+            windowDidDrop = false;
+        }
+        limit.onSample(avgRtt, maxInflight, drop);
+    }
+    
+    public int getLimit() {
+        return limit.getLimit();
+    }
+    
+    public int getInflight() {
+        return inflight.get();
+    }
+    
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package cn.geekslife.rpc.limit;
+
+public class GradientLimit implements Limit {
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double shortFactor;
+    
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRtt;
+    private final MinRttWindow minRtt;
+    
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance,
+                         int shortWindow, int minRttWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.shortFactor = 2d / (shortWindow + 1);
+        this.minRtt = new MinRttWindow(minRttWindow);
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+    
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+    
+    @Override
+    public synchronized void onSample(long rttNanos, int inflight, boolean didDrop) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        // 短窗口EWMA反映当前RTT，窗口内最小RTT作为无负载时的基线
+        long baseline = minRtt.update(rttNanos);
+        shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) * shortFactor;
+        
+        // 请求量不到上限一半时，不需要继续放大
+        if (inflight < estimatedLimit / 2) {
+            return;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * baseline / shortRtt));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = didDrop ? estimatedLimit * 0.9 : estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package cn.geekslife.rpc.limit;
+
+public interface Limit {
+    int getLimit();
+    void onSample(long rttNanos, int inflight, boolean didDrop);
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package cn.geekslife.rpc.limit;
+
+final class MinRttWindow {
+    
+    // 按样本数分段记录最小RTT，基线取当前段和上一段中的较小值，
+    // 这样无负载RTT变大时基线能在两段内跟上，又不会被某一次抖动带偏
+    private final int windowSize;
+    private long currentMin = Long.MAX_VALUE;
+    private long previousMin = Long.MAX_VALUE;
+    private int samples;
+    
+    MinRttWindow(int windowSize) {
+        this.windowSize = Math.max(windowSize, 1);
+    }
+    
+    long update(long rttNanos) {
+        if (rttNanos < currentMin) {
+            currentMin = rttNanos;
+        }
+        if (++samples >= windowSize) {
+            previousMin = currentMin;
+            currentMin = Long.MAX_VALUE;
+            samples = 0;
+        }
+        return Math.min(currentMin, previousMin);
+    }
+}
\ No newline at end of file
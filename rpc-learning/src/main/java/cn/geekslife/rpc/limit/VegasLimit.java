@@ -0,0 +1,61 @@
+package cn.geekslife.rpc.limit;
+
+public class VegasLimit implements Limit {
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    
+    private volatile int limit;
+    private double estimatedLimit;
+    private final MinRttWindow rttNoLoad;
+    
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, int rttWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttNoLoad = new MinRttWindow(rttWindow);
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+    
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+    
+    @Override
+    public synchronized void onSample(long rttNanos, int inflight, boolean didDrop) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        long minRtt = rttNoLoad.update(rttNanos);
+        
+        double current = estimatedLimit;
+        double log = Math.max(1d, Math.log10(current));
+        double newLimit;
+        if (didDrop) {
+            newLimit = current - log;
+        } else if (inflight * 2 < current) {
+            // 请求量远没到上限时，RTT不能说明排队情况
+            return;
+        } else {
+            // 排队长度 = limit * (1 - 无负载RTT / 当前RTT)
+            int queueSize = (int) Math.ceil(current * (1 - (double) minRtt / rttNanos));
+            double alpha = 3 * log;
+            double beta = 6 * log;
+            if (queueSize <= log) {
+                newLimit = current + beta;
+            } else if (queueSize < alpha) {
+                newLimit = current + log;
+            } else if (queueSize > beta) {
+                newLimit = current - log;
+            } else {
+                return;
+            }
+        }
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        estimatedLimit = (1 - smoothing) * current + smoothing * newLimit;
+        limit = (int) estimatedLimit;
+    }
+}
\ No newline at end of file
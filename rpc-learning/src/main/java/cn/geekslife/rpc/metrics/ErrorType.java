@@ -0,0 +1,33 @@
+package cn.geekslife.rpc.metrics;
+
+import cn.geekslife.rpc.common.RpcException;
+
+public enum ErrorType {
+    
+    TIMEOUT,
+    NETWORK,
+    LIMIT_EXCEEDED,
+    THREAD_POOL_EXHAUSTED,
+    BIZ,
+    UNKNOWN;
+    
+    public static ErrorType of(Throwable e) {
+        if (!(e instanceof RpcException)) {
+            return UNKNOWN;
+        }
+        switch (((RpcException) e).getCode()) {
+            case RpcException.TIMEOUT_EXCEPTION:
+                return TIMEOUT;
+            case RpcException.NETWORK_EXCEPTION:
+                return NETWORK;
+            case RpcException.LIMIT_EXCEEDED_EXCEPTION:
+                return LIMIT_EXCEEDED;
+            case RpcException.THREAD_POOL_EXHAUSTED_EXCEPTION:
+                return THREAD_POOL_EXHAUSTED;
+            case RpcException.BIZ_EXCEPTION:
+                return BIZ;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
\ No newline at end of file
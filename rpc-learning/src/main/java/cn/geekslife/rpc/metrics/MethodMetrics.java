@@ -0,0 +1,124 @@
+package cn.geekslife.rpc.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MethodMetrics {
+    
+    // 延迟按微秒记录，超过超时上限的样本按上限计；两位有效数字，每个直方图只占几十KB
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+    
+    private final String side;
+    private final String service;
+    private final String method;
+    private final String address;
+    
+    // 调用路径上只做分段计数和直方图写入，不分配对象
+    private final LongAdder active = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder[] errors = new LongAdder[ERROR_TYPES.length];
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    
+    // 以下字段只在拉取快照时加锁访问；累计值只增不减，各个读取方用自己的Interval求区间差值，互不影响
+    private final Histogram cumulativeHistogram = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram deltaHistogram = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final long createdNanos = System.nanoTime();
+    private Histogram intervalHistogram;
+    
+    public MethodMetrics(String side, String service, String method, String address) {
+        this.side = side;
+        this.service = service;
+        this.method = method;
+        this.address = address;
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = new LongAdder();
+        }
+    }
+    
+    public void begin() {
+        active.increment();
+    }
+    
+    public void end(long elapsedNanos, ErrorType error) {
+        active.decrement();
+        total.increment();
+        if (error != null) {
+            failed.increment();
+            errors[error.ordinal()].increment();
+        }
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), 0), HIGHEST_TRACKABLE_MICROS);
+        recorder.recordValue(micros);
+    }
+    
+    public String getSide() {
+        return side;
+    }
+    
+    public String getService() {
+        return service;
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public String getAddress() {
+        return address;
+    }
+    
+    public long getActive() {
+        return active.sum();
+    }
+    
+    public MethodMetricsSnapshot snapshot() {
+        return snapshot(null);
+    }
+    
+    public synchronized MethodMetricsSnapshot snapshot(Interval interval) {
+        // 不带Interval时统计创建以来的累计值，没有副作用；带Interval时只统计该读取方上次拉取以来的区间
+        long now = System.nanoTime();
+        long currentTotal = total.sum();
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        cumulativeHistogram.add(intervalHistogram);
+        
+        Histogram h = cumulativeHistogram;
+        long sinceNanos = createdNanos;
+        long lastTotal = 0;
+        if (interval != null) {
+            cumulativeHistogram.copyInto(deltaHistogram);
+            deltaHistogram.subtract(interval.histogram);
+            h = deltaHistogram;
+            sinceNanos = interval.nanos;
+            lastTotal = interval.total;
+            cumulativeHistogram.copyInto(interval.histogram);
+            interval.total = currentTotal;
+            interval.nanos = now;
+        }
+        double seconds = Math.max(now - sinceNanos, 1) / 1_000_000_000d;
+        double qps = (currentTotal - lastTotal) / seconds;
+        
+        Map<String, Long> errorCounts = new LinkedHashMap<>();
+        for (ErrorType type : ERROR_TYPES) {
+            errorCounts.put(type.name(), errors[type.ordinal()].sum());
+        }
+        return new MethodMetricsSnapshot(side, service, method, address, qps, active.sum(), currentTotal, failed.sum(),
+                errorCounts, h.getTotalCount(), h.getMean(), h.getValueAtPercentile(50), h.getValueAtPercentile(90),
+                h.getValueAtPercentile(99), h.getValueAtPercentile(99.9), h.getMaxValue());
+    }
+    
+    public static class Interval {
+        
+        // 读取方上次拉取时的累计值，由所属的MethodMetrics加锁更新
+        private final Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private long total;
+        private long nanos = System.nanoTime();
+    }
+}
\ No newline at end of file
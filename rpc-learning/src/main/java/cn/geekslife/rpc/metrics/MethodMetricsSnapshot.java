@@ -0,0 +1,117 @@
+package cn.geekslife.rpc.metrics;
+
+import java.util.Map;
+
+public class MethodMetricsSnapshot {
+    
+    private final String side;
+    private final String service;
+    private final String method;
+    private final String address;
+    private final double qps;
+    private final long active;
+    private final long total;
+    private final long failed;
+    private final Map<String, Long> errors;
+    
+    // 统计区间内的延迟分布，单位微秒；累计快照的区间从指标创建开始
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    private final long max;
+    
+    public MethodMetricsSnapshot(String side, String service, String method, String address, double qps, long active,
+                                 long total, long failed, Map<String, Long> errors, long count, double mean,
+                                 long p50, long p90, long p99, long p999, long max) {
+        this.side = side;
+        this.service = service;
+        this.method = method;
+        this.address = address;
+        this.qps = qps;
+        this.active = active;
+        this.total = total;
+        this.failed = failed;
+        this.errors = errors;
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+    
+    public String getSide() {
+        return side;
+    }
+    
+    public String getService() {
+        return service;
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public String getAddress() {
+        return address;
+    }
+    
+    public double getQps() {
+        return qps;
+    }
+    
+    public long getActive() {
+        return active;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public Map<String, Long> getErrors() {
+        return errors;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public double getMean() {
+        return mean;
+    }
+    
+    public long getP50() {
+        return p50;
+    }
+    
+    public long getP90() {
+        return p90;
+    }
+    
+    public long getP99() {
+        return p99;
+    }
+    
+    public long getP999() {
+        return p999;
+    }
+    
+    public long getMax() {
+        return max;
+    }
+    
+    @Override
+    public String toString() {
+        return side + " " + service + "#" + method + "@" + address + " qps=" + String.format("%.1f", qps)
+                + " active=" + active + " total=" + total + " failed=" + failed + " errors=" + errors
+                + " p50=" + p50 + "us p99=" + p99 + "us p999=" + p999 + "us max=" + max + "us";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package cn.geekslife.rpc.metrics;
+
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.URL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class MetricsRegistry {
+    
+    public static final String CONSUMER = "consumer";
+    public static final String PROVIDER = "provider";
+    public static final String OBJECT_NAME = "cn.geekslife.rpc:type=Metrics";
+    
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+    
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    
+    // Invoker -> 方法名 -> 指标；Invoker按对象身份查找，方法名直接用调用里的字符串，查找时不创建键对象
+    private final ConcurrentMap<Invoker<?>, ConcurrentMap<String, MethodMetrics>> metrics = new ConcurrentHashMap<>();
+    
+    static {
+        INSTANCE.registerMBean();
+    }
+    
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+    
+    public MethodMetrics getMethodMetrics(String side, Invoker<?> invoker, String methodName) {
+        ConcurrentMap<String, MethodMetrics> methods = metrics.get(invoker);
+        if (methods == null) {
+            methods = metrics.computeIfAbsent(invoker, k -> new ConcurrentHashMap<>());
+        }
+        MethodMetrics methodMetrics = methods.get(methodName);
+        if (methodMetrics == null) {
+            methodMetrics = methods.computeIfAbsent(methodName, k -> {
+                URL url = invoker.getUrl();
+                return new MethodMetrics(side, url.getServiceKey(), k, url.getAddress());
+            });
+        }
+        return methodMetrics;
+    }
+    
+    public void remove(Invoker<?> invoker) {
+        metrics.remove(invoker);
+    }
+    
+    public List<MethodMetrics> getMethodMetrics() {
+        List<MethodMetrics> result = new ArrayList<>();
+        for (ConcurrentMap<String, MethodMetrics> methods : metrics.values()) {
+            result.addAll(methods.values());
+        }
+        return result;
+    }
+    
+    public List<MethodMetricsSnapshot> snapshot() {
+        List<MethodMetricsSnapshot> snapshots = new ArrayList<>();
+        for (ConcurrentMap<String, MethodMetrics> methods : metrics.values()) {
+            for (MethodMetrics methodMetrics : methods.values()) {
+                snapshots.add(methodMetrics.snapshot());
+            }
+        }
+        return snapshots;
+    }
+    
+    public Reader newReader() {
+        return new Reader(this);
+    }
+    
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            // 同一个JVM里被多个类加载器加载时只注册第一个
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new RpcMetrics(this), name);
+            }
+        } catch (JMException | RuntimeException e) {
+            // 注册失败只影响JMX查看，调用统计照常进行
+            logger.warn("Failed to register metrics MBean {}", OBJECT_NAME, e);
+        }
+    }
+    
+    private static class RpcMetrics implements RpcMetricsMXBean {
+        
+        private final MetricsRegistry registry;
+        
+        private RpcMetrics(MetricsRegistry registry) {
+            this.registry = registry;
+        }
+        
+        @Override
+        public List<MethodMetricsSnapshot> getMethods() {
+            return registry.snapshot();
+        }
+        
+        @Override
+        public int getMethodCount() {
+            return registry.getMethodMetrics().size();
+        }
+    }
+    
+    public static class Reader {
+        
+        private final MetricsRegistry registry;
+        private Map<MethodMetrics, MethodMetrics.Interval> intervals = new IdentityHashMap<>();
+        
+        private Reader(MetricsRegistry registry) {
+            this.registry = registry;
+        }
+        
+        public synchronized List<MethodMetricsSnapshot> snapshot() {
+            // 每次拉取只统计本读取方上次拉取以来的区间，已经移除的指标不再保留区间状态
+            Map<MethodMetrics, MethodMetrics.Interval> current = new IdentityHashMap<>();
+            List<MethodMetricsSnapshot> snapshots = new ArrayList<>();
+            for (MethodMetrics methodMetrics : registry.getMethodMetrics()) {
+                MethodMetrics.Interval interval = intervals.get(methodMetrics);
+                if (interval == null) {
+                    interval = new MethodMetrics.Interval();
+                }
+                current.put(methodMetrics, interval);
+                snapshots.add(methodMetrics.snapshot(interval));
+            }
+            intervals = current;
+            return snapshots;
+        }
+    }
+}
\ No newline at end of file
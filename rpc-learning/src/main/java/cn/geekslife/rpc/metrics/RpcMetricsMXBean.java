@@ -0,0 +1,10 @@
+package cn.geekslife.rpc.metrics;
+
+import java.util.List;
+
+public interface RpcMetricsMXBean {
+    
+    List<MethodMetricsSnapshot> getMethods();
+    
+    int getMethodCount();
+}
\ No newline at end of file
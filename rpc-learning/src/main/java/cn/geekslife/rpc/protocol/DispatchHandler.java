@@ -0,0 +1,39 @@
+package cn.geekslife.rpc.protocol;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.transport.ExchangeHandler;
+import io.netty.channel.Channel;
+
+public class DispatchHandler implements ExchangeHandler {
+    
+    private final ProviderInvokerRegistry registry;
+    
+    public DispatchHandler(ProviderInvokerRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    public Object reply(Channel channel, Object request) throws Throwable {
+        if (!(request instanceof Invocation)) {
+            throw new RpcException("Unsupported request: " + (request == null ? null : request.getClass().getName())
+                    + ", channel: " + channel);
+        }
+        Invocation invocation = (Invocation) request;
+        Invoker<?> invoker = getInvoker(channel, invocation);
+        return invoker.invoke(invocation);
+    }
+    
+    private Invoker<?> getInvoker(Channel channel, Invocation invocation) {
+        String serviceKey = URL.buildKey(invocation.getAttachment("path"),
+                invocation.getAttachment("group"), invocation.getAttachment("version"));
+        Invoker<?> invoker = registry.getInvoker(serviceKey);
+        if (invoker == null) {
+            throw new RpcException("Not found exported service: " + serviceKey + ", may be version or group mismatch"
+                    + ", channel: " + channel + ", method: " + invocation.getMethodName());
+        }
+        return invoker;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package cn.geekslife.rpc.protocol;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.URL;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ProviderInvoker<T> implements Invoker<T> {
+    
+    private static final MethodType GENERIC_TYPE = MethodType.methodType(Object.class, Object[].class);
+    
+    private final T service;
+    private final Class<T> interfaceClass;
+    private final URL url;
+    
+    // 方法名 -> 重载方法列表，导出时一次性解析完成，调用期间只读
+    private final Map<String, MethodEntry[]> methods;
+    
+    public ProviderInvoker(T service, Class<T> interfaceClass, URL url) {
+        this.service = service;
+        this.interfaceClass = interfaceClass;
+        this.url = url;
+        this.methods = resolveMethods(service, interfaceClass);
+    }
+    
+    private static Map<String, MethodEntry[]> resolveMethods(Object service, Class<?> interfaceClass) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Map<String, MethodEntry[]> methods = new HashMap<>();
+        for (Method method : interfaceClass.getMethods()) {
+            try {
+                method.setAccessible(true);
+                // 绑定服务实例并展开参数数组，调用时只需invokeExact(args)
+                MethodHandle handle = lookup.unreflect(method)
+                        .bindTo(service)
+                        .asSpreader(Object[].class, method.getParameterCount())
+                        .asType(GENERIC_TYPE);
+                MethodEntry entry = new MethodEntry(method.getParameterTypes(), handle);
+                MethodEntry[] entries = methods.get(method.getName());
+                if (entries == null) {
+                    methods.put(method.getName(), new MethodEntry[]{entry});
+                } else {
+                    MethodEntry[] expanded = Arrays.copyOf(entries, entries.length + 1);
+                    expanded[entries.length] = entry;
+                    methods.put(method.getName(), expanded);
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new RpcException("Failed to resolve method " + method + " of service " + interfaceClass.getName(), e);
+            }
+        }
+        return methods;
+    }
+    
+    @Override
+    public Class<T> getInterface() {
+        return interfaceClass;
+    }
+    
+    @Override
+    public URL getUrl() {
+        return url;
+    }
+    
+    public T getService() {
+        return service;
+    }
+    
+    @Override
+    public Result invoke(Invocation invocation) throws RpcException {
+        MethodEntry entry = findMethod(invocation.getMethodName(), invocation.getParameterTypes());
+        if (entry == null) {
+            throw new RpcException("Not found method " + invocation.getMethodName()
+                    + Arrays.toString(invocation.getParameterTypes()) + " in service " + interfaceClass.getName());
+        }
+        try {
+            return new Result((Object) entry.handle.invokeExact(invocation.getArguments()));
+        } catch (Throwable e) {
+            // 业务异常原样返回给调用方
+            return new Result(e);
+        }
+    }
+    
+    private MethodEntry findMethod(String methodName, Class<?>[] parameterTypes) {
+        MethodEntry[] entries = methods.get(methodName);
+        if (entries == null) {
+            return null;
+        }
+        for (MethodEntry entry : entries) {
+            if (Arrays.equals(entry.parameterTypes, parameterTypes)
+                    || (entry.parameterTypes.length == 0 && parameterTypes == null)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+    
+    private static final class MethodEntry {
+        private final Class<?>[] parameterTypes;
+        private final MethodHandle handle;
+        
+        private MethodEntry(Class<?>[] parameterTypes, MethodHandle handle) {
+            this.parameterTypes = parameterTypes;
+            this.handle = handle;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package cn.geekslife.rpc.protocol;
+
+import cn.geekslife.rpc.common.Invoker;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class ProviderInvokerRegistry {
+    
+    private static final ProviderInvokerRegistry INSTANCE = new ProviderInvokerRegistry();
+    
+    // serviceKey(group/interface:version) -> 服务端Invoker
+    private final ConcurrentMap<String, Invoker<?>> invokers = new ConcurrentHashMap<>();
+    
+    // 网关透传的服务，请求体不反序列化，原样交给Invoker转发
+    private final Set<String> passThroughKeys = ConcurrentHashMap.newKeySet();
+    
+    public static ProviderInvokerRegistry getInstance() {
+        return INSTANCE;
+    }
+    
+    public void register(String serviceKey, Invoker<?> invoker) {
+        Invoker<?> previous = invokers.putIfAbsent(serviceKey, invoker);
+        if (previous != null && previous != invoker) {
+            throw new IllegalStateException("Service " + serviceKey + " has already been exported");
+        }
+    }
+    
+    public void registerPassThrough(String serviceKey, Invoker<?> invoker) {
+        register(serviceKey, invoker);
+        passThroughKeys.add(serviceKey);
+    }
+    
+    public Invoker<?> unregister(String serviceKey) {
+        passThroughKeys.remove(serviceKey);
+        return invokers.remove(serviceKey);
+    }
+    
+    public boolean hasPassThrough() {
+        return !passThroughKeys.isEmpty();
+    }
+    
+    public boolean isPassThrough(String serviceKey) {
+        return passThroughKeys.contains(serviceKey);
+    }
+    
+    public Invoker<?> getInvoker(String serviceKey) {
+        return invokers.get(serviceKey);
+    }
+    
+    public Collection<Invoker<?>> getInvokers() {
+        return invokers.values();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package cn.geekslife.rpc.protocol;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.RpcStatus;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.metrics.MetricsRegistry;
+import cn.geekslife.rpc.transport.ClientTransport;
+import cn.geekslife.rpc.transport.ConnectionPool;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class RpcInvoker<T> implements Invoker<T> {
+    
+    private final Class<T> interfaceClass;
+    private final URL url;
+    private final ConnectionPool connectionPool;
+    private final String path;
+    private final String version;
+    private final String group;
+    private final int timeout;
+    private volatile boolean destroyed;
+    
+    public RpcInvoker(Class<T> interfaceClass, URL url) {
+        this.interfaceClass = interfaceClass;
+        this.url = url;
+        // 同一服务地址的连接在所有Invoker之间共享
+        this.connectionPool = ClientTransport.getInstance().acquire(url);
+        this.path = url.getServiceInterface() != null ? url.getServiceInterface() : interfaceClass.getName();
+        this.version = url.getParameter("version", "");
+        this.group = url.getParameter("group", "");
+        this.timeout = url.getParameter("timeout", 1000);
+    }
+    
+    @Override
+    public Class<T> getInterface() {
+        return interfaceClass;
+    }
+    
+    @Override
+    public URL getUrl() {
+        return url;
+    }
+    
+    @Override
+    public Result invoke(Invocation invocation) throws RpcException {
+        CompletableFuture<Result> future = request(invocation);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RpcException) {
+                throw (RpcException) cause;
+            }
+            throw new RpcException("Failed to invoke remote method: " + invocation.getMethodName()
+                    + ", provider: " + url.getAddress(), cause);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RpcException("Interrupted while invoking remote method: " + invocation.getMethodName(), e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Result> invokeAsync(Invocation invocation) {
+        // 直接返回请求Future，取消时会从等待表中移除
+        try {
+            return request(invocation);
+        } catch (RpcException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private CompletableFuture<Result> request(Invocation invocation) {
+        if (destroyed) {
+            throw new RpcException("Invoker for service " + path + " on " + url.getAddress() + " is destroyed");
+        }
+        RpcInvocation rpcInvocation = (RpcInvocation) invocation;
+        rpcInvocation.setAttachment("path", path);
+        rpcInvocation.setAttachment("version", version);
+        rpcInvocation.setAttachment("group", group);
+        return connectionPool.select().request(rpcInvocation, timeout);
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return !destroyed && connectionPool.isAvailable();
+    }
+    
+    @Override
+    public void destroy() {
+        if (destroyed) {
+            return;
+        }
+        destroyed = true;
+        RpcStatus.removeStatus(this);
+        MetricsRegistry.getInstance().remove(this);
+        ClientTransport.getInstance().release(connectionPool);
+    }
+    
+    @Override
+    public String toString() {
+        return "RpcInvoker[" + path + " -> " + url.getAddress() + "]";
+    }
+}
\ No newline at end of file
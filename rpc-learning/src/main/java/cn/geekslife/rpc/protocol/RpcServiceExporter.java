@@ -1,16 +1,32 @@
 package cn.geekslife.rpc.protocol;
 
 import cn.geekslife.rpc.annotation.RpcService;
+import cn.geekslife.rpc.common.Invoker;
 import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.compress.CompressorSupport;
 import cn.geekslife.rpc.extension.ExtensionLoader;
+import cn.geekslife.rpc.filter.FilterChainBuilder;
 import cn.geekslife.rpc.registry.Registry;
 import cn.geekslife.rpc.registry.RegistryFactory;
+import cn.geekslife.rpc.transport.NettyServer;
+import cn.geekslife.rpc.transport.Server;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 public class RpcServiceExporter {
     
+    // 同一地址上的所有服务共用一个Server
+    private static final ConcurrentMap<String, Server> SERVERS = new ConcurrentHashMap<>();
+    
+    // 已注册到注册中心的服务，下线时先逐个注销
+    private static final Queue<Exported> EXPORTED = new ConcurrentLinkedQueue<>();
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public void exportService(Object serviceBean, RpcService rpcService) {
         // 获取服务接口类
         Class<?> interfaceClass = rpcService.interfaceClass();
@@ -23,24 +39,85 @@ public class RpcServiceExporter {
         parameters.put("interface", interfaceClass.getName());
         parameters.put("version", rpcService.version());
         parameters.put("group", rpcService.group());
+        // 其他参数按key、value成对配置，如limiter、dispatcher
+        String[] extra = rpcService.parameters();
+        for (int i = 0; i + 1 < extra.length; i += 2) {
+            parameters.put(extra[i], extra[i + 1]);
+        }
+        
+        // 声明本端支持的压缩算法，消费端只会选择其中之一
+        parameters.putIfAbsent("compressors", CompressorSupport.getSupportedNames());
+        // 导出时间，消费端据此在预热期（warmup参数，默认10分钟）内逐步增加本节点的权重
+        parameters.put("timestamp", String.valueOf(System.currentTimeMillis()));
         
         URL url = new URL("rpc", "localhost", 20880, interfaceClass.getName(), parameters);
         
+        // 创建服务端Invoker，方法句柄在这里一次性解析
+        Invoker<?> invoker = new ProviderInvoker(serviceBean, interfaceClass, url);
+        
+        // 按配置组装服务端过滤器链，链只在导出时构建一次
+        invoker = FilterChainBuilder.buildInvokerChain(invoker, "filter", FilterChainBuilder.PROVIDER);
+        ProviderInvokerRegistry.getInstance().register(url.getServiceKey(), invoker);
+        
+        // 启动服务端
+        openServer(url);
+        
         // 导出服务到注册中心
-        exportToRegistry(url);
+        exportToRegistry(url, rpcService.registry());
+    }
+    
+    private void openServer(URL url) {
+        SERVERS.computeIfAbsent(url.getAddress(),
+                address -> new NettyServer(url, new DispatchHandler(ProviderInvokerRegistry.getInstance())));
     }
     
-    private void exportToRegistry(URL url) {
+    private void exportToRegistry(URL url, String registryAddress) {
         // 构造注册中心URL
-        URL registryUrl = new URL("nacos", "localhost", 8848, "", null);
+        URL registryUrl = URL.valueOf(registryAddress);
         
         // 获取注册中心工厂
-        RegistryFactory registryFactory = ExtensionLoader.getExtensionLoader(RegistryFactory.class).getExtension("nacos");
+        RegistryFactory registryFactory = ExtensionLoader.getExtensionLoader(RegistryFactory.class).getAdaptiveExtension();
         
         // 获取注册中心
         Registry registry = registryFactory.getRegistry(registryUrl);
         
         // 注册服务
         registry.register(url);
+        EXPORTED.add(new Exported(registry, url));
+    }
+    
+    public void destroy() {
+        // 优雅下线：先从注册中心注销让消费端停止路由过来，再等待推送生效，最后排空在途请求后关闭
+        int wait = 0;
+        Exported exported;
+        while ((exported = EXPORTED.poll()) != null) {
+            try {
+                exported.registry.unregister(exported.url);
+            } catch (RuntimeException e) {
+                // 注销失败不影响下线，消费端仍会收到只读事件
+            }
+            wait = Math.max(wait, exported.url.getParameter("shutdown.wait", 1000));
+        }
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Server server : SERVERS.values()) {
+            server.close();
+        }
+        SERVERS.clear();
+    }
+    
+    private static final class Exported {
+        private final Registry registry;
+        private final URL url;
+        
+        private Exported(Registry registry, URL url) {
+            this.registry = registry;
+            this.url = url;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+package cn.geekslife.rpc.proxy;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+final class BytecodeProxyGenerator implements Opcodes {
+    
+    private static final String HANDLER = Type.getInternalName(RpcProxyHandler.class);
+    private static final String HANDLER_DESC = Type.getDescriptor(RpcProxyHandler.class);
+    private static final String INVOKE_DESC = "(I[Ljava/lang/Object;)Ljava/lang/Object;";
+    private static final String UNDECLARED = Type.getInternalName(UndeclaredThrowableException.class);
+    
+    // JDK代理也会把这三个方法转给InvocationHandler
+    private static final Method[] OBJECT_METHODS;
+    
+    static {
+        try {
+            OBJECT_METHODS = new Method[]{
+                Object.class.getMethod("hashCode"),
+                Object.class.getMethod("equals", Object.class),
+                Object.class.getMethod("toString")
+            };
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private final Class<?> interfaceClass;
+    private final Method[] methods;
+    private final MethodHandle constructor;
+    
+    private BytecodeProxyGenerator(Class<?> interfaceClass, Method[] methods, MethodHandle constructor) {
+        this.interfaceClass = interfaceClass;
+        this.methods = methods;
+        this.constructor = constructor;
+    }
+    
+    static BytecodeProxyGenerator generate(Class<?> interfaceClass) throws Exception {
+        if (!Modifier.isPublic(interfaceClass.getModifiers())) {
+            throw new IllegalArgumentException("Interface " + interfaceClass.getName() + " is not public");
+        }
+        // 隐藏类由本类的类加载器解析，接口必须对它可见
+        ClassLoader loader = BytecodeProxyGenerator.class.getClassLoader();
+        if (Class.forName(interfaceClass.getName(), false, loader) != interfaceClass) {
+            throw new IllegalArgumentException("Interface " + interfaceClass.getName() + " is not visible from " + loader);
+        }
+        
+        Method[] methods = collectMethods(interfaceClass);
+        byte[] bytes = generateClass(interfaceClass, methods);
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+        MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(),
+                MethodType.methodType(void.class, RpcProxyHandler.class));
+        return new BytecodeProxyGenerator(interfaceClass, methods,
+                constructor.asType(MethodType.methodType(Object.class, RpcProxyHandler.class)));
+    }
+    
+    Object newInstance(RpcProxyHandler handler) throws Throwable {
+        return constructor.invokeExact(handler);
+    }
+    
+    Method[] getMethods() {
+        return methods;
+    }
+    
+    Class<?> getInterfaceClass() {
+        return interfaceClass;
+    }
+    
+    private static Method[] collectMethods(Class<?> interfaceClass) {
+        // 父接口中重复声明的方法只生成一次，接口重新声明的Object方法和JDK代理一样按Object的方法处理
+        List<Method> methods = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        for (Method method : OBJECT_METHODS) {
+            methods.add(method);
+            signatures.add(method.getName() + Type.getMethodDescriptor(method));
+        }
+        for (Method method : interfaceClass.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (signatures.add(method.getName() + Type.getMethodDescriptor(method))) {
+                methods.add(method);
+            }
+        }
+        return methods.toArray(new Method[0]);
+    }
+    
+    private static byte[] generateClass(Class<?> interfaceClass, Method[] methods) {
+        String className = Type.getInternalName(BytecodeProxyGenerator.class).replace("BytecodeProxyGenerator", "RpcProxy");
+        // 异常处理块需要栈帧信息，合并类型时用接口的类加载器解析声明的异常类
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected ClassLoader getClassLoader() {
+                return interfaceClass.getClassLoader();
+            }
+        };
+        cw.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, "java/lang/Object",
+                new String[]{Type.getInternalName(interfaceClass)});
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, "handler", HANDLER_DESC, null, null).visitEnd();
+        
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(" + HANDLER_DESC + ")V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitFieldInsn(PUTFIELD, className, "handler", HANDLER_DESC);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        
+        for (int i = 0; i < methods.length; i++) {
+            generateMethod(cw, className, methods[i], i);
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+    
+    private static void generateMethod(ClassWriter cw, String className, Method method, int index) {
+        // 生成的方法：return (R) handler.invoke(index, new Object[]{args...});
+        // 和JDK代理一致，运行时异常、Error和方法声明的异常原样抛出，其他受检异常包装成UndeclaredThrowableException
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, method.getName(), Type.getMethodDescriptor(method), null, null);
+        mv.visitCode();
+        boolean wrap = needsWrap(method);
+        Label start = new Label();
+        Label end = new Label();
+        Label undeclared = new Label();
+        List<Label> catchHandlers = new ArrayList<>();
+        if (wrap) {
+            List<String> rethrown = new ArrayList<>();
+            rethrown.add("java/lang/RuntimeException");
+            rethrown.add("java/lang/Error");
+            for (Class<?> exceptionType : method.getExceptionTypes()) {
+                rethrown.add(Type.getInternalName(exceptionType));
+            }
+            for (String type : rethrown) {
+                Label handler = new Label();
+                mv.visitTryCatchBlock(start, end, handler, type);
+                catchHandlers.add(handler);
+            }
+            mv.visitTryCatchBlock(start, end, undeclared, "java/lang/Throwable");
+        }
+        mv.visitLabel(start);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, "handler", HANDLER_DESC);
+        mv.visitLdcInsn(index);
+        
+        Type[] argumentTypes = Type.getArgumentTypes(method);
+        if (argumentTypes.length == 0) {
+            // 和JDK代理保持一致，无参方法传null
+            mv.visitInsn(ACONST_NULL);
+        } else {
+            mv.visitLdcInsn(argumentTypes.length);
+            mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
+            int slot = 1;
+            for (int i = 0; i < argumentTypes.length; i++) {
+                Type type = argumentTypes[i];
+                mv.visitInsn(DUP);
+                mv.visitLdcInsn(i);
+                mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+                box(mv, type);
+                mv.visitInsn(AASTORE);
+                slot += type.getSize();
+            }
+        }
+        mv.visitMethodInsn(INVOKEVIRTUAL, HANDLER, "invoke", INVOKE_DESC, false);
+        
+        Type returnType = Type.getReturnType(method);
+        if (returnType.getSort() == Type.VOID) {
+            mv.visitInsn(POP);
+            mv.visitInsn(RETURN);
+        } else {
+            unbox(mv, returnType);
+            mv.visitInsn(returnType.getOpcode(IRETURN));
+        }
+        mv.visitLabel(end);
+        if (wrap) {
+            // 每个类型单独一个处理块，栈帧不需要合并异常类型
+            for (Label handler : catchHandlers) {
+                mv.visitLabel(handler);
+                mv.visitInsn(ATHROW);
+            }
+            mv.visitLabel(undeclared);
+            mv.visitTypeInsn(NEW, UNDECLARED);
+            mv.visitInsn(DUP_X1);
+            mv.visitInsn(SWAP);
+            mv.visitMethodInsn(INVOKESPECIAL, UNDECLARED, "<init>", "(Ljava/lang/Throwable;)V", false);
+            mv.visitInsn(ATHROW);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+    
+    private static boolean needsWrap(Method method) {
+        // 声明了Exception或Throwable时任何异常都可以直接抛出
+        for (Class<?> exceptionType : method.getExceptionTypes()) {
+            if (exceptionType == Exception.class || exceptionType == Throwable.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static void box(MethodVisitor mv, Type type) {
+        String wrapper = wrapper(type);
+        if (wrapper != null) {
+            mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf", "(" + type.getDescriptor() + ")L" + wrapper + ";", false);
+        }
+    }
+    
+    private static void unbox(MethodVisitor mv, Type type) {
+        String wrapper = wrapper(type);
+        if (wrapper == null) {
+            mv.visitTypeInsn(CHECKCAST, type.getInternalName());
+            return;
+        }
+        mv.visitTypeInsn(CHECKCAST, wrapper);
+        mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, type.getClassName() + "Value", "()" + type.getDescriptor(), false);
+    }
+    
+    private static String wrapper(Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                return "java/lang/Boolean";
+            case Type.CHAR:
+                return "java/lang/Character";
+            case Type.BYTE:
+                return "java/lang/Byte";
+            case Type.SHORT:
+                return "java/lang/Short";
+            case Type.INT:
+                return "java/lang/Integer";
+            case Type.FLOAT:
+                return "java/lang/Float";
+            case Type.LONG:
+                return "java/lang/Long";
+            case Type.DOUBLE:
+                return "java/lang/Double";
+            default:
+                return null;
+        }
+    }
+}
\ No newline at end of file
@@ -1,17 +1,21 @@
 package cn.geekslife.rpc.proxy;
 
-import cn.geekslife.rpc.common.Invocation;
 import cn.geekslife.rpc.common.Invoker;
 import cn.geekslife.rpc.common.Result;
 import cn.geekslife.rpc.common.RpcInvocation;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class InvokerInvocationHandler implements InvocationHandler {
     
     private final Invoker<?> invoker;
     
+    // 缓存参数类型和描述，避免每次调用getParameterTypes复制数组
+    private final ConcurrentMap<Method, MethodMeta> methodCache = new ConcurrentHashMap<>();
+    
     public InvokerInvocationHandler(Invoker<?> invoker) {
         this.invoker = invoker;
     }
@@ -23,11 +27,18 @@ public class InvokerInvocationHandler implements InvocationHandler {
             return method.invoke(invoker, args);
         }
         
+        MethodMeta meta = methodCache.get(method);
+        if (meta == null) {
+            meta = methodCache.computeIfAbsent(method, MethodMeta::new);
+        }
+        
         // 构造调用信息
         RpcInvocation rpcInvocation = new RpcInvocation(
-            method.getName(),
-            method.getParameterTypes(),
-            args
+            meta.name,
+            meta.parameterTypes,
+            meta.parameterDesc,
+            args,
+            meta.returnType
         );
         
         // 执行调用
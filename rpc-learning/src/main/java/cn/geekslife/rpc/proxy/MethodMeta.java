@@ -0,0 +1,20 @@
+package cn.geekslife.rpc.proxy;
+
+import cn.geekslife.rpc.codec.RpcCodec;
+
+import java.lang.reflect.Method;
+
+final class MethodMeta {
+    
+    final String name;
+    final Class<?>[] parameterTypes;
+    final String parameterDesc;
+    final Class<?> returnType;
+    
+    MethodMeta(Method method) {
+        this.name = method.getName();
+        this.parameterTypes = method.getParameterTypes();
+        this.parameterDesc = RpcCodec.getDesc(parameterTypes);
+        this.returnType = method.getReturnType();
+    }
+}
\ No newline at end of file
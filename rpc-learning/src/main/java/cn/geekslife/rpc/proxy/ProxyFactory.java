@@ -1,17 +1,56 @@
 package cn.geekslife.rpc.proxy;
 
 import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.RpcException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class ProxyFactory {
     
+    private static final Logger logger = LoggerFactory.getLogger(ProxyFactory.class);
+    
+    // 每个接口只生成一次代理类，生成失败的接口记为空，之后直接走JDK代理
+    private static final ConcurrentMap<Class<?>, Optional<BytecodeProxyGenerator>> GENERATORS = new ConcurrentHashMap<>();
+    
     @SuppressWarnings("unchecked")
     public static <T> T getProxy(Class<T> interfaceClass, Invoker<T> invoker) {
+        String proxy = invoker.getUrl() != null ? invoker.getUrl().getParameter("proxy", "bytecode") : "bytecode";
+        if (!"jdk".equals(proxy)) {
+            BytecodeProxyGenerator generator = GENERATORS.computeIfAbsent(interfaceClass, ProxyFactory::generate).orElse(null);
+            if (generator != null) {
+                try {
+                    return (T) generator.newInstance(new RpcProxyHandler(invoker, generator.getMethods()));
+                } catch (VirtualMachineError e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new RpcException("Failed to create proxy for " + interfaceClass.getName(), e);
+                }
+            }
+        }
+        return getJdkProxy(interfaceClass, invoker);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public static <T> T getJdkProxy(Class<T> interfaceClass, Invoker<T> invoker) {
         return (T) Proxy.newProxyInstance(
             interfaceClass.getClassLoader(),
-            new Class[]{interfaceClass},
+            new Class<?>[]{interfaceClass},
             new InvokerInvocationHandler(invoker)
         );
     }
+    
+    private static Optional<BytecodeProxyGenerator> generate(Class<?> interfaceClass) {
+        try {
+            return Optional.of(BytecodeProxyGenerator.generate(interfaceClass));
+        } catch (Exception | LinkageError e) {
+            // 结果按接口缓存，每个接口只记录一次
+            logger.warn("Failed to generate bytecode proxy for {}, falling back to JDK proxy", interfaceClass.getName(), e);
+            return Optional.empty();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package cn.geekslife.rpc.proxy;
+
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcInvocation;
+
+import java.lang.reflect.Method;
+
+public final class RpcProxyHandler {
+    
+    private final Invoker<?> invoker;
+    private final MethodMeta[] methods;
+    // toString、hashCode、equals对应的下标上保存Object的方法，其他下标为null
+    private final Method[] objectMethods;
+    
+    public RpcProxyHandler(Invoker<?> invoker, Method[] methods) {
+        this.invoker = invoker;
+        this.methods = new MethodMeta[methods.length];
+        this.objectMethods = new Method[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            this.methods[i] = new MethodMeta(methods[i]);
+            if (methods[i].getDeclaringClass() == Object.class) {
+                this.objectMethods[i] = methods[i];
+            }
+        }
+    }
+    
+    // 生成的代理类按方法下标调用，方法名和参数类型都在创建代理时算好
+    public Object invoke(int index, Object[] args) throws Throwable {
+        Method objectMethod = objectMethods[index];
+        if (objectMethod != null) {
+            // 和InvokerInvocationHandler一致，Object的方法直接调用Invoker自身
+            return objectMethod.invoke(invoker, args);
+        }
+        MethodMeta method = methods[index];
+        RpcInvocation invocation = new RpcInvocation(method.name, method.parameterTypes, method.parameterDesc, args,
+                method.returnType);
+        Result result = invoker.invoke(invocation);
+        return result.recreate();
+    }
+    
+    public Invoker<?> getInvoker() {
+        return invoker;
+    }
+}
\ No newline at end of file
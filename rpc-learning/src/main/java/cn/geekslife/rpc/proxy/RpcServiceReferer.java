@@ -2,47 +2,57 @@ package cn.geekslife.rpc.proxy;
 
 import cn.geekslife.rpc.annotation.RpcReference;
 import cn.geekslife.rpc.cluster.Cluster;
-import cn.geekslife.rpc.cluster.Directory;
-import cn.geekslife.rpc.cluster.StaticDirectory;
+import cn.geekslife.rpc.cluster.RegistryDirectory;
 import cn.geekslife.rpc.common.Invoker;
 import cn.geekslife.rpc.common.URL;
 import cn.geekslife.rpc.extension.ExtensionLoader;
+import cn.geekslife.rpc.filter.FilterChainBuilder;
+import cn.geekslife.rpc.generic.GenericService;
 import cn.geekslife.rpc.registry.Registry;
 import cn.geekslife.rpc.registry.RegistryFactory;
 
-import java.util.List;
+import java.util.HashMap;
 
 public class RpcServiceReferer {
     
     public <T> Object referService(Class<T> interfaceClass, RpcReference rpcReference) {
         // 构造注册中心URL
-        URL registryUrl = new URL("nacos", "localhost", 8848, "", null);
+        URL registryUrl = URL.valueOf(rpcReference.registry());
         
         // 获取注册中心
-        RegistryFactory registryFactory = ExtensionLoader.getExtensionLoader(RegistryFactory.class).getExtension("nacos");
+        RegistryFactory registryFactory = ExtensionLoader.getExtensionLoader(RegistryFactory.class).getAdaptiveExtension();
         Registry registry = registryFactory.getRegistry(registryUrl);
         
-        // 构造服务URL
-        URL serviceUrl = new URL("rpc", "", 0, interfaceClass.getName(), null);
-        serviceUrl.getParameters().put("interface", interfaceClass.getName());
+        // 构造服务URL，泛化引用按指定的接口名订阅，本地不需要这个接口的类
+        String interfaceName = interfaceClass == GenericService.class && !rpcReference.interfaceName().isEmpty()
+                ? rpcReference.interfaceName() : interfaceClass.getName();
+        URL serviceUrl = new URL("rpc", "", 0, interfaceName, new HashMap<>());
+        serviceUrl.getParameters().put("interface", interfaceName);
         serviceUrl.getParameters().put("version", rpcReference.version());
         serviceUrl.getParameters().put("group", rpcReference.group());
-        
-        // 发现服务
-        List<URL> urls = registry.discover(serviceUrl);
-        
-        // 创建Invoker列表
-        // 这里简化处理，实际应该根据URL创建对应的Invoker
-        
-        // 创建Directory
-        Directory<T> directory = new StaticDirectory<>(urls, interfaceClass);
-        
-        // 获取集群
-        Cluster cluster = ExtensionLoader.getExtensionLoader(Cluster.class).getExtension("failover");
-        
-        // 加入集群
+        serviceUrl.getParameters().put("loadbalance", rpcReference.loadbalance());
+        serviceUrl.getParameters().put("retries", String.valueOf(rpcReference.retries()));
+        serviceUrl.getParameters().put("cluster", rpcReference.cluster());
+        if (!rpcReference.cache().isEmpty()) {
+            serviceUrl.getParameters().put("cache", rpcReference.cache());
+        }
+        // 其他参数按key、value成对配置，如forks、hedging.delay
+        String[] parameters = rpcReference.parameters();
+        for (int i = 0; i + 1 < parameters.length; i += 2) {
+            serviceUrl.getParameters().put(parameters[i], parameters[i + 1]);
+        }
+        
+        // 订阅服务，提供者变化由注册中心推送到Directory
+        RegistryDirectory<T> directory = new RegistryDirectory<>(interfaceClass, serviceUrl, registry);
+        directory.subscribe();
+        
+        // 加入集群，按服务URL的cluster参数选择集群实现
+        Cluster cluster = ExtensionLoader.getExtensionLoader(Cluster.class).getAdaptiveExtension();
         Invoker<T> invoker = cluster.join(directory);
         
+        // 在集群Invoker外层组装消费端过滤器链
+        invoker = FilterChainBuilder.buildInvokerChain(invoker, "filter", FilterChainBuilder.CONSUMER);
+        
         // 创建代理
         return ProxyFactory.getProxy(interfaceClass, invoker);
     }
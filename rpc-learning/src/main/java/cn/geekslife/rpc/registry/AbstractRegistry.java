@@ -0,0 +1,219 @@
+package cn.geekslife.rpc.registry;
+
+import cn.geekslife.rpc.common.NamedThreadFactory;
+import cn.geekslife.rpc.common.URL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public abstract class AbstractRegistry implements Registry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AbstractRegistry.class);
+    
+    private static final String URL_SEPARATOR = " ";
+    
+    // 所有注册中心共用，负责写快照文件和后台订阅重试
+    private static final ScheduledExecutorService REGISTRY_EXECUTOR =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("rpc-registry", true));
+    
+    protected final URL registryUrl;
+    
+    // 服务Key -> 最近一次推送的提供者URL，空格分隔
+    private final Properties properties = new Properties();
+    private final File file;
+    private final AtomicLong lastCacheChanged = new AtomicLong();
+    // 每次推送都会落盘，磁盘持续不可写时只在第一次失败时打印完整异常
+    private final AtomicBoolean saveFailed = new AtomicBoolean();
+    private final long retryPeriod;
+    
+    // 业务监听器 -> 包装后负责落盘的监听器
+    private final ConcurrentMap<NotifyListener, NotifyListener> listeners = new ConcurrentHashMap<>();
+    
+    protected AbstractRegistry(URL registryUrl) {
+        this.registryUrl = registryUrl;
+        this.retryPeriod = registryUrl.getParameter("retry.period", 5000L);
+        if (registryUrl.getParameter("file.cache", true)) {
+            String defaultFile = System.getProperty("user.home") + "/.rpc/rpc-registry-"
+                    + registryUrl.getProtocol() + "-" + registryUrl.getHost() + "-" + registryUrl.getPort() + ".cache";
+            this.file = new File(registryUrl.getParameter("file", defaultFile));
+            loadProperties();
+        } else {
+            this.file = null;
+        }
+    }
+    
+    public URL getRegistryUrl() {
+        return registryUrl;
+    }
+    
+    @Override
+    public List<URL> discover(URL url) {
+        try {
+            List<URL> urls = doDiscover(url);
+            saveCache(url, urls);
+            return urls;
+        } catch (RuntimeException e) {
+            // 注册中心不可用时退回到本地快照
+            List<URL> cached = getCacheUrls(url);
+            if (cached.isEmpty()) {
+                throw e;
+            }
+            return cached;
+        }
+    }
+    
+    @Override
+    public void subscribe(URL url, NotifyListener listener) {
+        NotifyListener cacheListener = listeners.computeIfAbsent(listener, l -> urls -> {
+            saveCache(url, urls);
+            l.notify(urls);
+        });
+        List<URL> cached = getCacheUrls(url);
+        if (cached.isEmpty()) {
+            try {
+                doSubscribe(url, cacheListener);
+            } catch (RuntimeException e) {
+                listeners.remove(listener);
+                throw e;
+            }
+            return;
+        }
+        // 先用快照启动，真正的订阅在后台完成，之后的推送会覆盖快照
+        listener.notify(cached);
+        REGISTRY_EXECUTOR.execute(() -> subscribeInBackground(url, listener, cacheListener));
+    }
+    
+    private void subscribeInBackground(URL url, NotifyListener listener, NotifyListener cacheListener) {
+        if (listeners.get(listener) != cacheListener) {
+            return;
+        }
+        try {
+            doSubscribe(url, cacheListener);
+        } catch (Exception e) {
+            // 注册中心暂不可用，继续使用快照并定期重试
+            REGISTRY_EXECUTOR.schedule(() -> subscribeInBackground(url, listener, cacheListener),
+                    retryPeriod, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @Override
+    public void unsubscribe(URL url, NotifyListener listener) {
+        NotifyListener cacheListener = listeners.remove(listener);
+        if (cacheListener != null) {
+            doUnsubscribe(url, cacheListener);
+        }
+    }
+    
+    protected abstract List<URL> doDiscover(URL url);
+    
+    protected abstract void doSubscribe(URL url, NotifyListener listener);
+    
+    protected abstract void doUnsubscribe(URL url, NotifyListener listener);
+    
+    public List<URL> getCacheUrls(URL url) {
+        String value = properties.getProperty(url.getServiceKey());
+        if (value == null || value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<URL> urls = new ArrayList<>();
+        for (String s : value.split(URL_SEPARATOR)) {
+            if (!s.isEmpty()) {
+                urls.add(URL.valueOf(s));
+            }
+        }
+        return urls;
+    }
+    
+    private void saveCache(URL url, List<URL> urls) {
+        if (file == null) {
+            return;
+        }
+        StringBuilder buf = new StringBuilder();
+        if (urls != null) {
+            for (URL u : urls) {
+                if (buf.length() > 0) {
+                    buf.append(URL_SEPARATOR);
+                }
+                buf.append(u.toFullString());
+            }
+        }
+        String value = buf.toString();
+        if (value.equals(properties.getProperty(url.getServiceKey()))) {
+            return;
+        }
+        properties.setProperty(url.getServiceKey(), value);
+        // 异步落盘，连续多次推送只写最后一次
+        long version = lastCacheChanged.incrementAndGet();
+        REGISTRY_EXECUTOR.execute(() -> saveProperties(version));
+    }
+    
+    private void loadProperties() {
+        if (!file.exists()) {
+            return;
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            // 快照损坏不影响启动，等待注册中心推送
+            logger.warn("Failed to load registry cache file {}, waiting for registry push", file, e);
+            properties.clear();
+        }
+    }
+    
+    private void saveProperties(long version) {
+        if (version < lastCacheChanged.get()) {
+            return;
+        }
+        try {
+            Path dir = file.getAbsoluteFile().toPath().getParent();
+            Files.createDirectories(dir);
+            // 多个进程可能共用同一个快照文件，写入和替换期间持有同目录下.lock文件的排他锁；
+            // 同一进程内只有REGISTRY_EXECUTOR一个线程落盘，不会重复加锁
+            try (FileChannel channel = FileChannel.open(dir.resolve(file.getName() + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                // 先写唯一的临时文件再替换，避免进程退出时留下半个文件
+                Path tmp = Files.createTempFile(dir, file.getName(), ".tmp");
+                try {
+                    try (OutputStream out = Files.newOutputStream(tmp)) {
+                        properties.store(out, "Rpc registry cache");
+                    }
+                    Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            }
+            if (saveFailed.compareAndSet(true, false)) {
+                logger.info("Registry cache file {} saved again", file);
+            }
+        } catch (IOException e) {
+            if (saveFailed.compareAndSet(false, true)) {
+                logger.warn("Failed to save registry cache file {}", file, e);
+            } else {
+                logger.debug("Failed to save registry cache file {}: {}", file, e.toString());
+            }
+        }
+    }
+}
\ No newline at end of file
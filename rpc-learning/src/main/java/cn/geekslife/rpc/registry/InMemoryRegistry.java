@@ -0,0 +1,71 @@
+package cn.geekslife.rpc.registry;
+
+import cn.geekslife.rpc.common.URL;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+public class InMemoryRegistry extends AbstractRegistry {
+    
+    // 服务接口 -> 已注册的提供者URL
+    private final ConcurrentMap<String, Set<URL>> registered = new ConcurrentHashMap<>();
+    
+    // 服务接口 -> 订阅者
+    private final ConcurrentMap<String, Set<NotifyListener>> subscribed = new ConcurrentHashMap<>();
+    
+    public InMemoryRegistry(URL registryUrl) {
+        super(registryUrl);
+    }
+    
+    @Override
+    public void register(URL url) {
+        registered.computeIfAbsent(url.getServiceInterface(), k -> new CopyOnWriteArraySet<>()).add(url);
+        notifyListeners(url.getServiceInterface());
+    }
+    
+    @Override
+    public void unregister(URL url) {
+        Set<URL> urls = registered.get(url.getServiceInterface());
+        if (urls != null && urls.remove(url)) {
+            notifyListeners(url.getServiceInterface());
+        }
+    }
+    
+    @Override
+    protected List<URL> doDiscover(URL url) {
+        Set<URL> urls = registered.get(url.getServiceInterface());
+        return urls == null ? Collections.emptyList() : new ArrayList<>(urls);
+    }
+    
+    @Override
+    protected void doSubscribe(URL url, NotifyListener listener) {
+        subscribed.computeIfAbsent(url.getServiceInterface(), k -> new CopyOnWriteArraySet<>()).add(listener);
+        // 订阅时立即推送一次当前列表，和Nacos的行为保持一致
+        listener.notify(doDiscover(url));
+    }
+    
+    @Override
+    protected void doUnsubscribe(URL url, NotifyListener listener) {
+        Set<NotifyListener> listeners = subscribed.get(url.getServiceInterface());
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+    
+    private void notifyListeners(String serviceInterface) {
+        Set<NotifyListener> listeners = subscribed.get(serviceInterface);
+        if (listeners == null || listeners.isEmpty()) {
+            return;
+        }
+        Set<URL> urls = registered.get(serviceInterface);
+        List<URL> snapshot = urls == null ? Collections.emptyList() : new ArrayList<>(urls);
+        for (NotifyListener listener : listeners) {
+            listener.notify(snapshot);
+        }
+    }
+}
\ No newline at end of file
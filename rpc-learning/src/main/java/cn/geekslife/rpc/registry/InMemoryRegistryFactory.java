@@ -0,0 +1,17 @@
+package cn.geekslife.rpc.registry;
+
+import cn.geekslife.rpc.common.URL;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class InMemoryRegistryFactory implements RegistryFactory {
+    
+    // 同一个进程内相同地址共享一个注册中心，提供者和消费者才能互相看到
+    private static final ConcurrentMap<String, InMemoryRegistry> REGISTRIES = new ConcurrentHashMap<>();
+    
+    @Override
+    public Registry getRegistry(URL url) {
+        return REGISTRIES.computeIfAbsent(url.getAddress(), address -> new InMemoryRegistry(url));
+    }
+}
\ No newline at end of file
@@ -5,18 +5,22 @@ import cn.geekslife.rpc.common.RpcException;
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingFactory;
 import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
 import com.alibaba.nacos.api.naming.pojo.Instance;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-public class NacosRegistry implements Registry {
+public class NacosRegistry extends AbstractRegistry {
     
     private final NamingService namingService;
-    private final URL registryUrl;
+    private final ConcurrentMap<NotifyListener, EventListener> listeners = new ConcurrentHashMap<>();
     
     public NacosRegistry(URL url) {
-        this.registryUrl = url;
+        super(url);
         // 初始化Nacos NamingService
         this.namingService = createNamingService(url);
     }
@@ -63,24 +67,60 @@ public class NacosRegistry implements Registry {
     }
     
     @Override
-    public List<URL> discover(URL url) {
+    protected List<URL> doDiscover(URL url) {
         try {
             // 发现服务
             List<Instance> instances = namingService.getAllInstances(url.getServiceInterface());
-            List<URL> urls = new ArrayList<>();
-            for (Instance instance : instances) {
-                URL serviceUrl = new URL(
-                    registryUrl.getProtocol(),
-                    instance.getIp(),
-                    instance.getPort(),
-                    url.getPath(),
-                    instance.getMetadata()
-                );
-                urls.add(serviceUrl);
-            }
-            return urls;
+            return toUrls(url, instances);
         } catch (Exception e) {
             throw new RpcException("Failed to discover service from nacos", e);
         }
     }
+    
+    @Override
+    protected void doSubscribe(URL url, NotifyListener listener) {
+        try {
+            // 服务实例变化时由Nacos推送最新的完整列表
+            EventListener nacosListener = event -> {
+                if (event instanceof NamingEvent) {
+                    listener.notify(toUrls(url, ((NamingEvent) event).getInstances()));
+                }
+            };
+            listeners.put(listener, nacosListener);
+            namingService.subscribe(url.getServiceInterface(), nacosListener);
+        } catch (Exception e) {
+            throw new RpcException("Failed to subscribe service from nacos", e);
+        }
+    }
+    
+    @Override
+    protected void doUnsubscribe(URL url, NotifyListener listener) {
+        EventListener nacosListener = listeners.remove(listener);
+        if (nacosListener == null) {
+            return;
+        }
+        try {
+            namingService.unsubscribe(url.getServiceInterface(), nacosListener);
+        } catch (Exception e) {
+            throw new RpcException("Failed to unsubscribe service from nacos", e);
+        }
+    }
+    
+    private List<URL> toUrls(URL url, List<Instance> instances) {
+        List<URL> urls = new ArrayList<>();
+        for (Instance instance : instances) {
+            if (!instance.isEnabled() || !instance.isHealthy()) {
+                continue;
+            }
+            URL serviceUrl = new URL(
+                registryUrl.getProtocol(),
+                instance.getIp(),
+                instance.getPort(),
+                url.getPath(),
+                instance.getMetadata()
+            );
+            urls.add(serviceUrl);
+        }
+        return urls;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package cn.geekslife.rpc.registry;
+
+import cn.geekslife.rpc.common.URL;
+
+import java.util.List;
+
+public interface NotifyListener {
+    void notify(List<URL> urls);
+}
\ No newline at end of file
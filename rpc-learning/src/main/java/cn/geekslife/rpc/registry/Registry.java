@@ -8,4 +8,6 @@ public interface Registry {
     void register(URL url);
     void unregister(URL url);
     List<URL> discover(URL url);
+    void subscribe(URL url, NotifyListener listener);
+    void unsubscribe(URL url, NotifyListener listener);
 }
\ No newline at end of file
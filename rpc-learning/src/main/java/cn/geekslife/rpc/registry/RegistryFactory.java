@@ -1,7 +1,11 @@
 package cn.geekslife.rpc.registry;
 
 import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.Adaptive;
+import cn.geekslife.rpc.extension.SPI;
 
+@SPI("nacos")
 public interface RegistryFactory {
+    @Adaptive({"protocol"})
     Registry getRegistry(URL url);
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package cn.geekslife.rpc.serialize;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class ClassUtils {
+    
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+    
+    // 类名解析结果缓存，避免每条消息都走一次Class.forName
+    private static final ConcurrentMap<String, Class<?>> CLASS_CACHE = new ConcurrentHashMap<>();
+    
+    static {
+        for (Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class,
+                int.class, long.class, float.class, double.class, void.class}) {
+            PRIMITIVES.put(type.getName(), type);
+        }
+    }
+    
+    private ClassUtils() {}
+    
+    public static Class<?> forName(String name) throws ClassNotFoundException {
+        Class<?> type = PRIMITIVES.get(name);
+        if (type != null) {
+            return type;
+        }
+        type = CLASS_CACHE.get(name);
+        if (type == null) {
+            type = Class.forName(name, false, getClassLoader());
+            CLASS_CACHE.putIfAbsent(name, type);
+        }
+        return type;
+    }
+    
+    public static ClassLoader getClassLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader != null ? loader : ClassUtils.class.getClassLoader();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package cn.geekslife.rpc.serialize;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static cn.geekslife.rpc.serialize.CompactSerialization.*;
+
+public class CompactObjectInput implements ObjectInput {
+    
+    private final ByteBuf buf;
+    
+    public CompactObjectInput(ByteBuf buf) {
+        this.buf = buf;
+    }
+    
+    @Override
+    public boolean readBool() {
+        return buf.readBoolean();
+    }
+    
+    @Override
+    public byte readByte() {
+        return buf.readByte();
+    }
+    
+    @Override
+    public int readInt() throws IOException {
+        int v = readVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+    
+    @Override
+    public long readLong() throws IOException {
+        long v = readVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+    
+    @Override
+    public String readUTF() throws IOException {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        return buf.readCharSequence(length, StandardCharsets.UTF_8).toString();
+    }
+    
+    @Override
+    public byte[] readBytes() throws IOException {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        checkLength(length);
+        byte[] bytes = new byte[length];
+        buf.readBytes(bytes);
+        return bytes;
+    }
+    
+    @Override
+    public Object readObject() throws IOException, ClassNotFoundException {
+        byte tag = buf.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTE:
+                return buf.readByte();
+            case SHORT:
+                return buf.readShort();
+            case INT:
+                return readInt();
+            case LONG:
+                return readLong();
+            case FLOAT:
+                return buf.readFloat();
+            case DOUBLE:
+                return buf.readDouble();
+            case CHAR:
+                return buf.readChar();
+            case STRING:
+                return readUTF();
+            case BYTES:
+                return readBytes();
+            case ENUM:
+                return readEnum();
+            case CLASS:
+                return ClassUtils.forName(readUTF());
+            case INT_ARRAY: {
+                int[] array = new int[readLength()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readInt();
+                }
+                return array;
+            }
+            case LONG_ARRAY: {
+                long[] array = new long[readLength()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readLong();
+                }
+                return array;
+            }
+            case OBJECT_ARRAY: {
+                Class<?> componentType = ClassUtils.forName(readUTF());
+                Object[] array = (Object[]) Array.newInstance(componentType, readLength());
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readObject();
+                }
+                return array;
+            }
+            case LIST:
+                return readCollection(new ArrayList<>());
+            case SET:
+                return readCollection(new LinkedHashSet<>());
+            case MAP: {
+                int size = readLength();
+                Map<Object, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    map.put(readObject(), readObject());
+                }
+                return map;
+            }
+            case JAVA: {
+                int length = buf.readInt();
+                return new JavaObjectInput(new ByteBufInputStream(buf.readSlice(length))).readObject();
+            }
+            default:
+                throw new IOException("Unknown compact type tag: " + tag);
+        }
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum() throws IOException, ClassNotFoundException {
+        Class enumType = ClassUtils.forName(readUTF());
+        return Enum.valueOf(enumType, readUTF());
+    }
+    
+    private Object readCollection(Collection<Object> collection) throws IOException, ClassNotFoundException {
+        int size = readLength();
+        for (int i = 0; i < size; i++) {
+            collection.add(readObject());
+        }
+        return collection;
+    }
+    
+    private int readLength() throws IOException {
+        int length = readVarInt();
+        checkLength(length);
+        return length;
+    }
+    
+    private void checkLength(int length) throws IOException {
+        // 每个元素至少占一个字节，长度超过剩余可读字节说明数据被截断或伪造，分配内存前直接拒绝
+        if (length < 0 || length > buf.readableBytes()) {
+            throw new IOException("Invalid compact length " + length + ", readable bytes " + buf.readableBytes());
+        }
+    }
+    
+    private int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buf.readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+    
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varlong");
+    }
+}
\ No newline at end of file
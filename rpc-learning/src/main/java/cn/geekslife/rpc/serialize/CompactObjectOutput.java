@@ -0,0 +1,204 @@
+package cn.geekslife.rpc.serialize;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static cn.geekslife.rpc.serialize.CompactSerialization.*;
+
+public class CompactObjectOutput implements ObjectOutput {
+    
+    private final ByteBuf buf;
+    
+    public CompactObjectOutput(ByteBuf buf) {
+        this.buf = buf;
+    }
+    
+    @Override
+    public void writeBool(boolean v) {
+        buf.writeBoolean(v);
+    }
+    
+    @Override
+    public void writeByte(byte v) {
+        buf.writeByte(v);
+    }
+    
+    @Override
+    public void writeInt(int v) {
+        writeVarInt((v << 1) ^ (v >> 31));
+    }
+    
+    @Override
+    public void writeLong(long v) {
+        writeVarLong((v << 1) ^ (v >> 63));
+    }
+    
+    @Override
+    public void writeUTF(String v) {
+        if (v == null) {
+            writeVarInt(0);
+            return;
+        }
+        // 长度加1写入，0表示null
+        writeVarInt(ByteBufUtil.utf8Bytes(v) + 1);
+        ByteBufUtil.writeUtf8(buf, v);
+    }
+    
+    @Override
+    public void writeBytes(byte[] v) {
+        if (v == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(v.length + 1);
+        buf.writeBytes(v);
+    }
+    
+    @Override
+    public void writeObject(Object obj) throws IOException {
+        if (obj == null) {
+            buf.writeByte(NULL);
+        } else if (obj instanceof String) {
+            buf.writeByte(STRING);
+            writeUTF((String) obj);
+        } else if (obj instanceof Integer) {
+            buf.writeByte(INT);
+            writeInt((Integer) obj);
+        } else if (obj instanceof Long) {
+            buf.writeByte(LONG);
+            writeLong((Long) obj);
+        } else if (obj instanceof Boolean) {
+            buf.writeByte((Boolean) obj ? TRUE : FALSE);
+        } else if (obj instanceof Double) {
+            buf.writeByte(DOUBLE);
+            buf.writeDouble((Double) obj);
+        } else if (obj instanceof Float) {
+            buf.writeByte(FLOAT);
+            buf.writeFloat((Float) obj);
+        } else if (obj instanceof Byte) {
+            buf.writeByte(BYTE);
+            buf.writeByte((Byte) obj);
+        } else if (obj instanceof Short) {
+            buf.writeByte(SHORT);
+            buf.writeShort((Short) obj);
+        } else if (obj instanceof Character) {
+            buf.writeByte(CHAR);
+            buf.writeChar((Character) obj);
+        } else if (obj instanceof Enum) {
+            buf.writeByte(ENUM);
+            writeUTF(((Enum<?>) obj).getDeclaringClass().getName());
+            writeUTF(((Enum<?>) obj).name());
+        } else if (obj instanceof Class) {
+            buf.writeByte(CLASS);
+            writeUTF(((Class<?>) obj).getName());
+        } else if (obj.getClass().isArray()) {
+            writeArray(obj);
+        } else if (isJdkCollection(obj)) {
+            writeCollection(obj);
+        } else {
+            writeJava(obj);
+        }
+    }
+    
+    @Override
+    public void flushBuffer() {
+        // 直接写入ByteBuf，无需刷新
+    }
+    
+    private void writeArray(Object obj) throws IOException {
+        if (obj instanceof byte[]) {
+            buf.writeByte(BYTES);
+            writeBytes((byte[]) obj);
+        } else if (obj instanceof int[]) {
+            int[] array = (int[]) obj;
+            buf.writeByte(INT_ARRAY);
+            writeVarInt(array.length);
+            for (int v : array) {
+                writeInt(v);
+            }
+        } else if (obj instanceof long[]) {
+            long[] array = (long[]) obj;
+            buf.writeByte(LONG_ARRAY);
+            writeVarInt(array.length);
+            for (long v : array) {
+                writeLong(v);
+            }
+        } else if (obj instanceof Object[]) {
+            Object[] array = (Object[]) obj;
+            buf.writeByte(OBJECT_ARRAY);
+            writeUTF(obj.getClass().getComponentType().getName());
+            writeVarInt(array.length);
+            for (Object element : array) {
+                writeObject(element);
+            }
+        } else {
+            writeJava(obj);
+        }
+    }
+    
+    private void writeCollection(Object obj) throws IOException {
+        if (obj instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) obj;
+            buf.writeByte(MAP);
+            writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeObject(entry.getKey());
+                writeObject(entry.getValue());
+            }
+        } else {
+            Collection<?> collection = (Collection<?>) obj;
+            buf.writeByte(obj instanceof Set ? SET : LIST);
+            writeVarInt(collection.size());
+            for (Object element : collection) {
+                writeObject(element);
+            }
+        }
+    }
+    
+    private void writeJava(Object obj) throws IOException {
+        // 其他类型退回到Java序列化，长度字段先占位再回填
+        buf.writeByte(JAVA);
+        int lengthIndex = buf.writerIndex();
+        buf.writeInt(0);
+        ObjectOutputStream oos = new ObjectOutputStream(new ByteBufOutputStream(buf));
+        oos.writeObject(obj);
+        oos.flush();
+        buf.setInt(lengthIndex, buf.writerIndex() - lengthIndex - 4);
+    }
+    
+    private static boolean isJdkCollection(Object obj) {
+        // 只处理解码端能还原出可赋值类型的集合，TreeMap、ConcurrentHashMap、LinkedList、包装类等保留原始类型走Java序列化
+        Class<?> type = obj.getClass();
+        return type == ArrayList.class
+                || type == HashMap.class || type == LinkedHashMap.class
+                || type == HashSet.class || type == LinkedHashSet.class;
+    }
+    
+    private void writeVarInt(int v) {
+        while ((v & ~0x7F) != 0) {
+            buf.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf.writeByte(v);
+    }
+    
+    private void writeVarLong(long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.writeByte((int) v);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package cn.geekslife.rpc.serialize;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+
+public class CompactSerialization implements Serialization {
+    
+    public static final byte COMPACT_SERIALIZATION_ID = 2;
+    
+    // 类型标记
+    static final byte NULL = 0;
+    static final byte TRUE = 1;
+    static final byte FALSE = 2;
+    static final byte BYTE = 3;
+    static final byte SHORT = 4;
+    static final byte INT = 5;
+    static final byte LONG = 6;
+    static final byte FLOAT = 7;
+    static final byte DOUBLE = 8;
+    static final byte CHAR = 9;
+    static final byte STRING = 10;
+    static final byte BYTES = 11;
+    static final byte OBJECT_ARRAY = 12;
+    static final byte LIST = 13;
+    static final byte SET = 14;
+    static final byte MAP = 15;
+    static final byte CLASS = 16;
+    static final byte ENUM = 17;
+    static final byte INT_ARRAY = 18;
+    static final byte LONG_ARRAY = 19;
+    static final byte JAVA = 31;
+    
+    @Override
+    public byte getContentTypeId() {
+        return COMPACT_SERIALIZATION_ID;
+    }
+    
+    @Override
+    public String getContentType() {
+        return "x-application/compact";
+    }
+    
+    @Override
+    public ObjectOutput serialize(ByteBuf out) throws IOException {
+        return new CompactObjectOutput(out);
+    }
+    
+    @Override
+    public ObjectInput deserialize(ByteBuf in) throws IOException {
+        return new CompactObjectInput(in);
+    }
+}
\ No newline at end of file
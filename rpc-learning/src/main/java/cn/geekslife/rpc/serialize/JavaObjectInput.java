@@ -0,0 +1,67 @@
+package cn.geekslife.rpc.serialize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.nio.charset.StandardCharsets;
+
+public class JavaObjectInput implements ObjectInput {
+    
+    private final ObjectInputStream in;
+    
+    public JavaObjectInput(InputStream is) throws IOException {
+        this.in = new ObjectInputStream(is) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                try {
+                    return ClassUtils.forName(desc.getName());
+                } catch (ClassNotFoundException e) {
+                    return super.resolveClass(desc);
+                }
+            }
+        };
+    }
+    
+    @Override
+    public boolean readBool() throws IOException {
+        return in.readBoolean();
+    }
+    
+    @Override
+    public byte readByte() throws IOException {
+        return in.readByte();
+    }
+    
+    @Override
+    public int readInt() throws IOException {
+        return in.readInt();
+    }
+    
+    @Override
+    public long readLong() throws IOException {
+        return in.readLong();
+    }
+    
+    @Override
+    public String readUTF() throws IOException {
+        byte[] bytes = readBytes();
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public byte[] readBytes() throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+    
+    @Override
+    public Object readObject() throws IOException, ClassNotFoundException {
+        return in.readObject();
+    }
+}
\ No newline at end of file
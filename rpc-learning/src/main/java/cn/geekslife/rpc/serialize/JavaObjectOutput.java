@@ -0,0 +1,60 @@
+package cn.geekslife.rpc.serialize;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class JavaObjectOutput implements ObjectOutput {
+    
+    private final ObjectOutputStream out;
+    
+    public JavaObjectOutput(OutputStream os) throws IOException {
+        this.out = new ObjectOutputStream(os);
+    }
+    
+    @Override
+    public void writeBool(boolean v) throws IOException {
+        out.writeBoolean(v);
+    }
+    
+    @Override
+    public void writeByte(byte v) throws IOException {
+        out.writeByte(v);
+    }
+    
+    @Override
+    public void writeInt(int v) throws IOException {
+        out.writeInt(v);
+    }
+    
+    @Override
+    public void writeLong(long v) throws IOException {
+        out.writeLong(v);
+    }
+    
+    @Override
+    public void writeUTF(String v) throws IOException {
+        writeBytes(v == null ? null : v.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Override
+    public void writeBytes(byte[] v) throws IOException {
+        if (v == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(v.length);
+            out.write(v);
+        }
+    }
+    
+    @Override
+    public void writeObject(Object obj) throws IOException {
+        out.writeObject(obj);
+    }
+    
+    @Override
+    public void flushBuffer() throws IOException {
+        out.flush();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package cn.geekslife.rpc.serialize;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.IOException;
+
+public class JavaSerialization implements Serialization {
+    
+    public static final byte JAVA_SERIALIZATION_ID = 3;
+    
+    @Override
+    public byte getContentTypeId() {
+        return JAVA_SERIALIZATION_ID;
+    }
+    
+    @Override
+    public String getContentType() {
+        return "x-application/java";
+    }
+    
+    @Override
+    public ObjectOutput serialize(ByteBuf out) throws IOException {
+        return new JavaObjectOutput(new ByteBufOutputStream(out));
+    }
+    
+    @Override
+    public ObjectInput deserialize(ByteBuf in) throws IOException {
+        return new JavaObjectInput(new ByteBufInputStream(in));
+    }
+}
\ No newline at end of file
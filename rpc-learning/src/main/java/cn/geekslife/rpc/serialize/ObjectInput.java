@@ -0,0 +1,18 @@
+package cn.geekslife.rpc.serialize;
+
+import java.io.IOException;
+
+public interface ObjectInput {
+    boolean readBool() throws IOException;
+    byte readByte() throws IOException;
+    int readInt() throws IOException;
+    long readLong() throws IOException;
+    String readUTF() throws IOException;
+    byte[] readBytes() throws IOException;
+    Object readObject() throws IOException, ClassNotFoundException;
+    
+    @SuppressWarnings("unchecked")
+    default <T> T readObject(Class<T> cls) throws IOException, ClassNotFoundException {
+        return (T) readObject();
+    }
+}
\ No newline at end of file
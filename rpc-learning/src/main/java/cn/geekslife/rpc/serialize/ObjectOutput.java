@@ -0,0 +1,14 @@
+package cn.geekslife.rpc.serialize;
+
+import java.io.IOException;
+
+public interface ObjectOutput {
+    void writeBool(boolean v) throws IOException;
+    void writeByte(byte v) throws IOException;
+    void writeInt(int v) throws IOException;
+    void writeLong(long v) throws IOException;
+    void writeUTF(String v) throws IOException;
+    void writeBytes(byte[] v) throws IOException;
+    void writeObject(Object obj) throws IOException;
+    void flushBuffer() throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package cn.geekslife.rpc.serialize;
+
+import cn.geekslife.rpc.extension.SPI;
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+
+@SPI("compact")
+public interface Serialization {
+    byte getContentTypeId();
+    String getContentType();
+    ObjectOutput serialize(ByteBuf out) throws IOException;
+    ObjectInput deserialize(ByteBuf in) throws IOException;
+}
\ No newline at end of file
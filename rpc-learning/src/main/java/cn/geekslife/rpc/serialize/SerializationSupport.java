@@ -0,0 +1,35 @@
+package cn.geekslife.rpc.serialize;
+
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.ExtensionLoader;
+
+import java.io.IOException;
+
+public class SerializationSupport {
+    
+    // 按序列化ID直接索引，解码时不需要查Map
+    private static final Serialization[] ID_SERIALIZATIONS = new Serialization[256];
+    
+    static {
+        ExtensionLoader<Serialization> loader = ExtensionLoader.getExtensionLoader(Serialization.class);
+        for (String name : loader.getSupportedExtensions()) {
+            Serialization serialization = loader.getExtension(name);
+            ID_SERIALIZATIONS[serialization.getContentTypeId() & 0xFF] = serialization;
+        }
+    }
+    
+    private SerializationSupport() {}
+    
+    public static Serialization getSerialization(URL url) {
+        String name = url != null ? url.getParameter("serialization", "compact") : "compact";
+        return ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(name);
+    }
+    
+    public static Serialization getSerializationById(byte id) throws IOException {
+        Serialization serialization = ID_SERIALIZATIONS[id & 0xFF];
+        if (serialization == null) {
+            throw new IOException("Unrecognized serialization id: " + id);
+        }
+        return serialization;
+    }
+}
\ No newline at end of file
@@ -3,12 +3,13 @@ package cn.geekslife.rpc.spring;
 import cn.geekslife.rpc.annotation.RpcService;
 import cn.geekslife.rpc.protocol.RpcServiceExporter;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.stereotype.Component;
 
 @Component
-public class RpcServiceAnnotationBeanPostProcessor implements BeanPostProcessor {
+public class RpcServiceAnnotationBeanPostProcessor implements BeanPostProcessor, DisposableBean {
     
     @Autowired
     private RpcServiceExporter rpcServiceExporter;
@@ -23,4 +24,10 @@ public class RpcServiceAnnotationBeanPostProcessor implements BeanPostProcessor
         }
         return bean;
     }
+    
+    @Override
+    public void destroy() {
+        // 容器关闭时优雅下线已导出的服务
+        rpcServiceExporter.destroy();
+    }
 }
\ No newline at end of file
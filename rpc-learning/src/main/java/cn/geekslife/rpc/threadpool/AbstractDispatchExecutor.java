@@ -0,0 +1,56 @@
+package cn.geekslife.rpc.threadpool;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public abstract class AbstractDispatchExecutor implements DispatchExecutor {
+    
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    
+    @Override
+    public void execute(Runnable command) {
+        queued.incrementAndGet();
+        try {
+            doExecute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+    
+    protected abstract void doExecute(Runnable task);
+    
+    @Override
+    public int getQueueDepth() {
+        return queued.get();
+    }
+    
+    @Override
+    public int getActiveCount() {
+        return active.get();
+    }
+    
+    @Override
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+    
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
\ No newline at end of file
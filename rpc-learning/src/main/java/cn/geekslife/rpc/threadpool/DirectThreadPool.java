@@ -0,0 +1,31 @@
+package cn.geekslife.rpc.threadpool;
+
+import cn.geekslife.rpc.common.URL;
+
+import java.util.concurrent.TimeUnit;
+
+public class DirectThreadPool implements ThreadPool {
+    
+    @Override
+    public DispatchExecutor getExecutor(URL url) {
+        return new DirectExecutor();
+    }
+    
+    private static class DirectExecutor extends AbstractDispatchExecutor {
+        
+        @Override
+        protected void doExecute(Runnable task) {
+            // 直接在I/O线程上执行，只适合不会阻塞的快速服务
+            task.run();
+        }
+        
+        @Override
+        public void shutdown() {
+        }
+        
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
\ No newline at end of file
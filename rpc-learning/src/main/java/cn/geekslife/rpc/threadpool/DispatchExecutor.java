@@ -0,0 +1,13 @@
+package cn.geekslife.rpc.threadpool;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+public interface DispatchExecutor extends Executor {
+    int getQueueDepth();
+    int getActiveCount();
+    long getCompletedCount();
+    long getRejectedCount();
+    void shutdown();
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package cn.geekslife.rpc.threadpool;
+
+import cn.geekslife.rpc.common.NamedThreadFactory;
+import cn.geekslife.rpc.common.URL;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class FixedThreadPool implements ThreadPool {
+    
+    @Override
+    public DispatchExecutor getExecutor(URL url) {
+        String name = url.getParameter("threadname", "rpc-server-handler");
+        int threads = url.getParameter("threads", 200);
+        int queues = url.getParameter("queues", 1024);
+        return new FixedExecutor(name, threads, queues);
+    }
+    
+    private static class FixedExecutor extends AbstractDispatchExecutor {
+        
+        private final ThreadPoolExecutor executor;
+        
+        FixedExecutor(String name, int threads, int queues) {
+            // queues为0时不排队，线程全忙立即拒绝
+            BlockingQueue<Runnable> queue = queues == 0 ? new SynchronousQueue<>() : new LinkedBlockingQueue<>(queues);
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue,
+                    new NamedThreadFactory(name, true), new ThreadPoolExecutor.AbortPolicy());
+        }
+        
+        @Override
+        protected void doExecute(Runnable task) {
+            executor.execute(task);
+        }
+        
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+        
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package cn.geekslife.rpc.threadpool;
+
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.Adaptive;
+import cn.geekslife.rpc.extension.SPI;
+
+@SPI("fixed")
+public interface ThreadPool {
+    @Adaptive({"dispatcher"})
+    DispatchExecutor getExecutor(URL url);
+}
\ No newline at end of file
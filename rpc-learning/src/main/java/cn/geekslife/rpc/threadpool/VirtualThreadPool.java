@@ -0,0 +1,97 @@
+package cn.geekslife.rpc.threadpool;
+
+import cn.geekslife.rpc.common.NamedThreadFactory;
+import cn.geekslife.rpc.common.URL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class VirtualThreadPool implements ThreadPool {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPool.class);
+    
+    private static final int DEFAULT_MAX_CONCURRENCY = 10000;
+    // 退化为平台线程时每个请求占一个真实线程，默认上限和fixed线程池的线程数一致
+    private static final int DEFAULT_PLATFORM_MAX_CONCURRENCY = 200;
+    
+    @Override
+    public DispatchExecutor getExecutor(URL url) {
+        String name = url.getParameter("threadname", "rpc-server-handler");
+        ExecutorService virtual = createVirtualExecutorService(name);
+        if (virtual != null) {
+            return new VirtualExecutor(virtual, url.getParameter("max.concurrency", DEFAULT_MAX_CONCURRENCY));
+        }
+        int maxConcurrency = url.getParameter("max.concurrency", DEFAULT_PLATFORM_MAX_CONCURRENCY);
+        logger.warn("Virtual threads are not available on Java {}, threadpool=virtual falls back to at most {} "
+                + "platform threads", System.getProperty("java.version"), maxConcurrency);
+        ExecutorService platform = new ThreadPoolExecutor(0, maxConcurrency, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new NamedThreadFactory(name, true));
+        return new VirtualExecutor(platform, maxConcurrency);
+    }
+    
+    private static ExecutorService createVirtualExecutorService(String name) {
+        try {
+            // JDK 21+提供虚拟线程，编译目标为17所以通过反射获取；线程名沿用threadname
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-virtual-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+    
+    private static class VirtualExecutor extends AbstractDispatchExecutor {
+        
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        private final int maxConcurrency;
+        
+        VirtualExecutor(ExecutorService executor, int maxConcurrency) {
+            this.executor = executor;
+            this.permits = new Semaphore(maxConcurrency);
+            this.maxConcurrency = maxConcurrency;
+        }
+        
+        @Override
+        protected void doExecute(Runnable task) {
+            // 每个请求一个线程，不排队，用并发上限防止过载时无限创建线程
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Too many concurrent requests, max concurrency: " + maxConcurrency);
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+        
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,12 @@
 package cn.geekslife.rpc.transport;
 
+import cn.geekslife.rpc.common.Result;
+
+import java.util.concurrent.CompletableFuture;
+
 public interface Client {
     void send(Object message);
+    CompletableFuture<Result> request(Object request);
+    CompletableFuture<Result> request(Object request, int timeout);
     void close();
 }
\ No newline at end of file
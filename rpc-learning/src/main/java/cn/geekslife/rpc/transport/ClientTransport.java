@@ -0,0 +1,105 @@
+package cn.geekslife.rpc.transport;
+
+import cn.geekslife.rpc.common.URL;
+import io.netty.channel.EventLoopGroup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class ClientTransport {
+    
+    private static final ClientTransport INSTANCE = new ClientTransport();
+    
+    // 决定连接行为的参数，取值不同的引用不能共用同一组连接
+    private static final String[] TRANSPORT_KEYS = {
+        "serialization", "compressor", "compressors", "compress.threshold", "payload",
+        "heartbeat", "heartbeat.timeout", "connections", "lazy", "connect.timeout", "reconnect.max.delay",
+        "transport", "tcp.nodelay", "so.keepalive", "so.sndbuf", "so.rcvbuf", "allocator",
+        "write.buffer.low", "write.buffer.high", "flush.mode", "flush.consolidation.limit", "flush.batch.size",
+        "stream.prefetch"
+    };
+    
+    // 服务地址加传输参数 -> 连接池，同一进程内配置相同的引用共享
+    private final ConcurrentMap<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+    
+    private volatile EventLoopGroup eventLoopGroup;
+    
+    private ClientTransport() {}
+    
+    public static ClientTransport getInstance() {
+        return INSTANCE;
+    }
+    
+    public EventLoopGroup getEventLoopGroup() {
+        EventLoopGroup group = eventLoopGroup;
+        if (group == null) {
+            synchronized (this) {
+                group = eventLoopGroup;
+                if (group == null) {
+                    // 所有客户端连接共用一组I/O线程，进程级别通过rpc.transport选择epoll或nio
+                    boolean epoll = NettyTransports.useEpoll(System.getProperty("rpc.transport", "auto"));
+                    int threads = Integer.getInteger("rpc.client.iothreads", NettyTransports.DEFAULT_IO_THREADS);
+                    group = NettyTransports.newEventLoopGroup(epoll, threads, "rpc-client-worker", true);
+                    eventLoopGroup = group;
+                }
+            }
+        }
+        return group;
+    }
+    
+    public ConnectionPool acquire(URL url) {
+        String key = poolKey(url);
+        ConnectionPool acquired = pools.compute(key, (k, pool) -> {
+            if (pool == null || pool.isClosed()) {
+                pool = new ConnectionPool(key, url);
+            }
+            pool.retain();
+            return pool;
+        });
+        // 建连会阻塞，放到compute之外，避免占住ConcurrentHashMap的桶锁
+        acquired.connect();
+        return acquired;
+    }
+    
+    public void release(ConnectionPool pool) {
+        pools.computeIfPresent(pool.getKey(), (key, current) -> {
+            if (current != pool) {
+                return current;
+            }
+            // 最后一个引用释放时关闭连接
+            if (pool.release() == 0) {
+                pool.close();
+                return null;
+            }
+            return pool;
+        });
+    }
+    
+    static String poolKey(URL url) {
+        StringBuilder key = new StringBuilder(url.getAddress());
+        char separator = '?';
+        for (String name : TRANSPORT_KEYS) {
+            String value = url.getParameter(name);
+            if (value != null) {
+                key.append(separator).append(name).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+    
+    public int getPoolCount() {
+        return pools.size();
+    }
+    
+    public synchronized void shutdown() {
+        for (ConnectionPool pool : pools.values()) {
+            pool.close();
+        }
+        pools.clear();
+        if (eventLoopGroup != null) {
+            eventLoopGroup.shutdownGracefully();
+            eventLoopGroup = null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package cn.geekslife.rpc.transport;
+
+import cn.geekslife.rpc.common.URL;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPool {
+    
+    private final String key;
+    private final URL url;
+    private final NettyClient[] clients;
+    private final boolean lazy;
+    private final AtomicInteger index = new AtomicInteger();
+    private final AtomicBoolean connected = new AtomicBoolean();
+    
+    // 引用计数只在ClientTransport的compute中修改
+    private int refCount;
+    private volatile boolean closed;
+    
+    public ConnectionPool(String key, URL url) {
+        this.key = key;
+        this.url = url;
+        int connections = Math.max(1, url.getParameter("connections", 1));
+        this.clients = new NettyClient[connections];
+        this.lazy = url.getParameter("lazy", false);
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new NettyClient(url, null);
+        }
+    }
+    
+    void connect() {
+        // 只有第一个拿到连接池的引用负责建连，其他引用的请求会在NettyClient的连接锁上等待
+        if (lazy || !connected.compareAndSet(false, true)) {
+            return;
+        }
+        for (NettyClient client : clients) {
+            client.connectQuietly();
+        }
+    }
+    
+    public String getKey() {
+        return key;
+    }
+    
+    public URL getUrl() {
+        return url;
+    }
+    
+    public NettyClient select() {
+        int start = index.getAndIncrement();
+        int length = clients.length;
+        if (length == 1) {
+            return clients[0];
+        }
+        // 轮询选择健康的连接，全部不可用时返回任意一个让请求快速失败
+        for (int i = 0; i < length; i++) {
+            NettyClient client = clients[Math.floorMod(start + i, length)];
+            if (client.isAvailable()) {
+                return client;
+            }
+        }
+        return clients[Math.floorMod(start, length)];
+    }
+    
+    public boolean isAvailable() {
+        for (NettyClient client : clients) {
+            if (client.isAvailable() || !client.isConnectAttempted()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public int getConnectionCount() {
+        return clients.length;
+    }
+    
+    public int getAvailableCount() {
+        int count = 0;
+        for (NettyClient client : clients) {
+            if (client.isAvailable()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    int retain() {
+        return ++refCount;
+    }
+    
+    int release() {
+        return --refCount;
+    }
+    
+    public boolean isClosed() {
+        return closed;
+    }
+    
+    void close() {
+        closed = true;
+        for (NettyClient client : clients) {
+            client.close();
+        }
+    }
+}
\ No newline at end of file
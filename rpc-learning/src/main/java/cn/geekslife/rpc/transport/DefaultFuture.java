@@ -0,0 +1,162 @@
+package cn.geekslife.rpc.transport;
+
+import cn.geekslife.rpc.common.NamedThreadFactory;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.generic.RawBody;
+import cn.geekslife.rpc.generic.RawInvocation;
+import io.netty.channel.Channel;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class DefaultFuture extends CompletableFuture<Result> {
+    
+    // 所有等待响应的请求，按请求ID索引
+    private static final Map<Long, DefaultFuture> FUTURES = new ConcurrentHashMap<>();
+    
+    private static final Timer TIME_OUT_TIMER = new HashedWheelTimer(
+            new NamedThreadFactory("rpc-future-timeout", true), 30, TimeUnit.MILLISECONDS);
+    
+    private final long id;
+    private final Channel channel;
+    private final int timeout;
+    // 透传请求的响应体不解码，直接交给调用方
+    private final boolean raw;
+    private final long start = System.currentTimeMillis();
+    private volatile long sent;
+    private Timeout timeoutCheckTask;
+    
+    private DefaultFuture(Channel channel, Request request, int timeout) {
+        this.id = request.getId();
+        this.channel = channel;
+        this.timeout = timeout > 0 ? timeout : 1000;
+        this.raw = request.getData() instanceof RawInvocation;
+    }
+    
+    public static DefaultFuture newFuture(Channel channel, Request request, int timeout) {
+        DefaultFuture future = new DefaultFuture(channel, request, timeout);
+        FUTURES.put(future.id, future);
+        // 超时检查交给时间轮，避免每个请求占用一个调度任务
+        future.timeoutCheckTask = TIME_OUT_TIMER.newTimeout(
+                t -> future.doTimeout(), future.timeout, TimeUnit.MILLISECONDS);
+        return future;
+    }
+    
+    public static DefaultFuture getFuture(long id) {
+        return FUTURES.get(id);
+    }
+    
+    public static boolean isRaw(long id) {
+        DefaultFuture future = FUTURES.get(id);
+        return future != null && future.raw;
+    }
+    
+    public static int getPendingCount() {
+        return FUTURES.size();
+    }
+    
+    public static void sent(Request request) {
+        DefaultFuture future = FUTURES.get(request.getId());
+        if (future != null) {
+            future.sent = System.currentTimeMillis();
+        }
+    }
+    
+    public static void received(Response response) {
+        DefaultFuture future = FUTURES.remove(response.getId());
+        if (future != null) {
+            future.cancelTimeoutCheck();
+            future.doReceived(response);
+        } else {
+            // 找不到说明已经超时或被取消，迟到的响应直接丢弃
+            releaseRaw(response.getResult());
+        }
+    }
+    
+    public static void closeChannel(Channel channel) {
+        for (DefaultFuture future : FUTURES.values()) {
+            if (future.channel == channel && FUTURES.remove(future.id, future)) {
+                future.cancelTimeoutCheck();
+                Response disconnectResponse = new Response(future.id);
+                disconnectResponse.setStatus(Response.CHANNEL_INACTIVE);
+                disconnectResponse.setErrorMessage("Channel " + channel + " is inactive. Directly return the unfinished request");
+                future.doReceived(disconnectResponse);
+            }
+        }
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    public Channel getChannel() {
+        return channel;
+    }
+    
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (FUTURES.remove(id, this)) {
+            cancelTimeoutCheck();
+        }
+        return super.cancel(mayInterruptIfRunning);
+    }
+    
+    private void doReceived(Response response) {
+        if (response.getStatus() == Response.OK) {
+            Object result = response.getResult();
+            if (!complete(result instanceof Result ? (Result) result : new Result(result))) {
+                releaseRaw(result);
+            }
+        } else if (response.getStatus() == Response.CLIENT_TIMEOUT || response.getStatus() == Response.SERVER_TIMEOUT) {
+            completeExceptionally(new RpcException(RpcException.TIMEOUT_EXCEPTION, response.getErrorMessage()));
+        } else if (response.getStatus() == Response.CHANNEL_INACTIVE || response.getStatus() == Response.SERVER_CLOSING) {
+            completeExceptionally(new RpcException(RpcException.NETWORK_EXCEPTION, response.getErrorMessage()));
+        } else if (response.getStatus() == Response.SERVER_THREADPOOL_EXHAUSTED) {
+            completeExceptionally(new RpcException(RpcException.THREAD_POOL_EXHAUSTED_EXCEPTION, response.getErrorMessage()));
+        } else if (response.getStatus() == Response.SERVER_LIMIT_EXCEEDED) {
+            completeExceptionally(new RpcException(RpcException.LIMIT_EXCEEDED_EXCEPTION, response.getErrorMessage()));
+        } else {
+            completeExceptionally(new RpcException(response.getErrorMessage()));
+        }
+    }
+    
+    private static void releaseRaw(Object result) {
+        // 透传的响应体引用着接收缓冲区，没有调用方接收时在这里释放
+        if (result instanceof Result && ((Result) result).getValue() instanceof RawBody) {
+            ReferenceCountUtil.release(((Result) result).getValue());
+        }
+    }
+    
+    private void doTimeout() {
+        if (!FUTURES.remove(id, this)) {
+            return;
+        }
+        Response timeoutResponse = new Response(id);
+        timeoutResponse.setStatus(sent > 0 ? Response.SERVER_TIMEOUT : Response.CLIENT_TIMEOUT);
+        timeoutResponse.setErrorMessage(getTimeoutMessage());
+        doReceived(timeoutResponse);
+    }
+    
+    private void cancelTimeoutCheck() {
+        Timeout task = timeoutCheckTask;
+        if (task != null && !task.isCancelled()) {
+            task.cancel();
+        }
+    }
+    
+    private String getTimeoutMessage() {
+        long now = System.currentTimeMillis();
+        return (sent > 0 ? "Waiting server-side response timeout" : "Sending request timeout in client-side")
+                + " by scan timer. start time: " + start
+                + ", end time: " + now
+                + ", elapsed: " + (now - start) + " ms, timeout: " + timeout
+                + " ms, request id: " + id + ", channel: " + channel;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package cn.geekslife.rpc.transport;
+
+import io.netty.channel.Channel;
+
+public interface ExchangeHandler {
+    Object reply(Channel channel, Object request) throws Throwable;
+}
\ No newline at end of file
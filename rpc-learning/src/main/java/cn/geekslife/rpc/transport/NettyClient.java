@@ -1,56 +1,247 @@
 package cn.geekslife.rpc.transport;
 
+import cn.geekslife.rpc.codec.RpcCodec;
+import cn.geekslife.rpc.codec.RpcDecoder;
+import cn.geekslife.rpc.codec.RpcEncoder;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
 import cn.geekslife.rpc.common.URL;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.serialization.ClassResolvers;
-import io.netty.handler.codec.serialization.ObjectDecoder;
-import io.netty.handler.codec.serialization.ObjectEncoder;
+import io.netty.handler.timeout.IdleStateHandler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class NettyClient implements Client {
     
+    private final URL url;
     private final Bootstrap bootstrap;
-    private final EventLoopGroup group;
+    private final int connectTimeout;
+    private final long reconnectMaxDelay;
+    private final AtomicInteger reconnectAttempts = new AtomicInteger();
+    private final AtomicBoolean reconnecting = new AtomicBoolean();
     private volatile Channel channel;
+    private volatile boolean connectAttempted;
+    private volatile boolean readonly;
+    private volatile boolean closed;
     
-    public NettyClient(URL url, ChannelHandler handler) {
+    public NettyClient(URL url, ExchangeHandler handler) {
+        this.url = url;
+        this.connectTimeout = url.getParameter("connect.timeout", 3000);
+        this.reconnectMaxDelay = url.getParameter("reconnect.max.delay", 10000L);
+        int heartbeat = NettyTransports.getHeartbeat(url);
+        int heartbeatTimeout = NettyTransports.getHeartbeatTimeout(url);
+        RpcCodec codec = new RpcCodec(url);
+        NettyClient client = this;
         this.bootstrap = new Bootstrap();
-        this.group = new NioEventLoopGroup();
         
+        // 使用进程内共享的I/O线程组
+        EventLoopGroup group = ClientTransport.getInstance().getEventLoopGroup();
         bootstrap.group(group)
-            .channel(NioSocketChannel.class)
+            .channel(NettyTransports.socketChannelClass(group))
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
             .handler(new ChannelInitializer<SocketChannel>() {
                 @Override
                 protected void initChannel(SocketChannel ch) throws Exception {
+                    NettyTransports.configureFlush(ch, url);
+                    StreamRegistry.init(ch, url);
                     ch.pipeline()
-                        .addLast(new ObjectDecoder(ClassResolvers.cacheDisabled(null)))
-                        .addLast(new ObjectEncoder())
-                        .addLast(new NettyClientHandler(handler));
+                        .addLast(new RpcDecoder(codec))
+                        .addLast(new RpcEncoder(codec))
+                        // 读超时说明连接已半开，空闲时发送心跳保活
+                        .addLast(new IdleStateHandler(heartbeatTimeout, 0, heartbeat, TimeUnit.MILLISECONDS))
+                        .addLast(new NettyClientHandler(handler, client));
                 }
             });
-        
-        // 连接服务器
-        ChannelFuture future = bootstrap.connect(url.getHost(), url.getPort());
-        this.channel = future.channel();
+        NettyTransports.applyClientOptions(bootstrap, url);
+    }
+    
+    public void connect() {
+        if (closed) {
+            throw new RpcException(RpcException.NETWORK_EXCEPTION, "Client " + url.getAddress() + " is closed");
+        }
+        synchronized (this) {
+            if (isAvailable()) {
+                return;
+            }
+            connectAttempted = true;
+            // 等待连接真正建立，而不是拿到一个还没连上的Channel
+            ChannelFuture future = bootstrap.connect(url.getHost(), url.getPort());
+            if (!future.awaitUninterruptibly(connectTimeout, TimeUnit.MILLISECONDS)) {
+                future.cancel(true);
+                throw new RpcException(RpcException.NETWORK_EXCEPTION,
+                        "Client connect to server " + url.getAddress() + " timeout after " + connectTimeout + "ms");
+            }
+            if (!future.isSuccess()) {
+                throw new RpcException(RpcException.NETWORK_EXCEPTION,
+                        "Failed to connect to server " + url.getAddress(), future.cause());
+            }
+            onConnected(future.channel());
+        }
+    }
+    
+    void connectQuietly() {
+        try {
+            connect();
+        } catch (RpcException e) {
+            // 首次连接失败不影响启动，后台按退避策略重连
+            scheduleReconnect();
+        }
+    }
+    
+    private void onConnected(Channel newChannel) {
+        Channel old = channel;
+        channel = newChannel;
+        readonly = false;
+        reconnectAttempts.set(0);
+        if (closed) {
+            newChannel.close();
+        } else if (old != null && old != newChannel) {
+            old.close();
+        }
+    }
+    
+    void onReadonly(Channel ch) {
+        // 服务端正在下线：已发出的请求照常等待响应，新请求优先发往其他连接或提供者
+        if (ch == channel) {
+            readonly = true;
+        }
+    }
+    
+    void sendHeartbeat(Channel ch) {
+        Request heartbeat = new Request();
+        heartbeat.setEvent(true);
+        heartbeat.setData(Request.HEARTBEAT_EVENT);
+        WriteQueue.writeAndFlush(ch, heartbeat);
+    }
+    
+    void onChannelInactive(Channel inactive) {
+        if (!closed && inactive == channel) {
+            scheduleReconnect();
+        }
+    }
+    
+    private void scheduleReconnect() {
+        if (closed || !reconnecting.compareAndSet(false, true)) {
+            return;
+        }
+        // 指数退避加随机抖动，避免大量客户端同时重连
+        int attempts = reconnectAttempts.getAndIncrement();
+        long delay = Math.min(reconnectMaxDelay, 100L << Math.min(attempts, 16));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        bootstrap.config().group().schedule(this::doReconnect, delay, TimeUnit.MILLISECONDS);
+    }
+    
+    private void doReconnect() {
+        Channel ch = channel;
+        if (closed || (ch != null && ch.isActive())) {
+            reconnecting.set(false);
+            return;
+        }
+        connectAttempted = true;
+        bootstrap.connect(url.getHost(), url.getPort()).addListener((ChannelFutureListener) future -> {
+            reconnecting.set(false);
+            if (future.isSuccess()) {
+                onConnected(future.channel());
+            } else {
+                scheduleReconnect();
+            }
+        });
+    }
+    
+    public boolean isAvailable() {
+        Channel ch = channel;
+        return !closed && !readonly && ch != null && ch.isActive();
+    }
+    
+    public boolean isReadonly() {
+        return readonly;
+    }
+    
+    public boolean isConnectAttempted() {
+        return connectAttempted;
+    }
+    
+    public int getReconnectAttempts() {
+        return reconnectAttempts.get();
+    }
+    
+    public URL getUrl() {
+        return url;
+    }
+    
+    private Channel getChannel() {
+        Channel ch = channel;
+        if (ch == null && !connectAttempted) {
+            // 延迟连接：第一次请求时才建立连接
+            try {
+                connect();
+            } catch (RpcException e) {
+                scheduleReconnect();
+                throw e;
+            }
+            ch = channel;
+        }
+        return ch;
     }
     
     @Override
     public void send(Object message) {
-        if (channel != null && channel.isActive()) {
-            channel.writeAndFlush(message);
+        Channel ch = getChannel();
+        if (ch != null && ch.isActive()) {
+            WriteQueue.writeAndFlush(ch, message);
         }
     }
     
     @Override
-    public void close() {
-        if (channel != null) {
-            channel.close();
+    public CompletableFuture<Result> request(Object request) {
+        return request(request, url.getParameter("timeout", 1000));
+    }
+    
+    @Override
+    public CompletableFuture<Result> request(Object request, int timeout) {
+        Channel ch;
+        try {
+            ch = getChannel();
+        } catch (RpcException e) {
+            return CompletableFuture.failedFuture(e);
         }
-        if (group != null) {
-            group.shutdownGracefully();
+        if (ch == null || !ch.isActive()) {
+            return CompletableFuture.failedFuture(new RpcException(RpcException.NETWORK_EXCEPTION,
+                    "Failed to send request " + request + ", cause: channel is not active, url: " + url.getAddress()));
+        }
+        
+        // 构造带ID的请求，响应通过ID回填到对应的Future
+        Request req = new Request();
+        req.setTwoWay(true);
+        req.setData(request);
+        DefaultFuture future = DefaultFuture.newFuture(ch, req, timeout);
+        // 流式调用在请求发出前登记流，响应只作为流建立的确认
+        CompletableFuture<Result> result = StreamRegistry.get(ch).bindRequest(req.getId(), request, future);
+        WriteQueue.writeAndFlush(ch, req).addListener((ChannelFutureListener) f -> {
+            if (f.isSuccess()) {
+                DefaultFuture.sent(req);
+            } else {
+                Response response = new Response(req.getId());
+                response.setStatus(Response.CHANNEL_INACTIVE);
+                response.setErrorMessage("Failed to send request " + req + ", cause: " + f.cause());
+                DefaultFuture.received(response);
+            }
+        });
+        return result;
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        Channel ch = channel;
+        if (ch != null) {
+            ch.close();
         }
     }
 }
\ No newline at end of file
@@ -2,20 +2,72 @@ package cn.geekslife.rpc.transport;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
 
 public class NettyClientHandler extends ChannelInboundHandlerAdapter {
     
-    private final io.netty.channel.ChannelHandler handler;
+    private final ExchangeHandler handler;
+    private final NettyClient client;
     
-    public NettyClientHandler(io.netty.channel.ChannelHandler handler) {
+    public NettyClientHandler(ExchangeHandler handler, NettyClient client) {
         this.handler = handler;
+        this.client = client;
     }
     
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        // 处理接收到的消息
-        // 这里应该调用实际的响应处理器
-        handler.getClass().getMethod("handle", Object.class).invoke(handler, msg);
+        // 响应按请求ID交给对应的Future，不再经过业务处理器
+        if (msg instanceof Response) {
+            // 心跳响应只用来刷新读空闲计时
+            if (!((Response) msg).isEvent()) {
+                DefaultFuture.received((Response) msg);
+            }
+            return;
+        }
+        if (msg instanceof Request && ((Request) msg).isEvent()) {
+            if (Request.READONLY_EVENT.equals(((Request) msg).getData())) {
+                client.onReadonly(ctx.channel());
+            }
+            return;
+        }
+        if (msg instanceof StreamFrame) {
+            StreamRegistry.get(ctx.channel()).received((StreamFrame) msg);
+            return;
+        }
+        
+        // 处理其他消息
+        if (handler != null) {
+            try {
+                handler.reply(ctx.channel(), msg);
+            } catch (Throwable t) {
+                ctx.fireExceptionCaught(t);
+            }
+        }
+    }
+    
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // 连接断开时立即结束该连接上所有未完成的请求
+        DefaultFuture.closeChannel(ctx.channel());
+        StreamRegistry.get(ctx.channel()).close();
+        // 通知客户端按退避策略重连
+        client.onChannelInactive(ctx.channel());
+        super.channelInactive(ctx);
+    }
+    
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            if (((IdleStateEvent) evt).state() == IdleState.READER_IDLE) {
+                // 超过心跳超时没有任何数据到达，关闭连接后按退避策略重连
+                ctx.close();
+            } else {
+                client.sendHeartbeat(ctx.channel());
+            }
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
     }
     
     @Override
@@ -1,14 +1,21 @@
 package cn.geekslife.rpc.transport;
 
+import cn.geekslife.rpc.codec.RpcCodec;
+import cn.geekslife.rpc.codec.RpcDecoder;
+import cn.geekslife.rpc.codec.RpcEncoder;
 import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.extension.ExtensionLoader;
+import cn.geekslife.rpc.threadpool.DispatchExecutor;
+import cn.geekslife.rpc.threadpool.ThreadPool;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.serialization.ClassResolvers;
-import io.netty.handler.codec.serialization.ObjectDecoder;
-import io.netty.handler.codec.serialization.ObjectEncoder;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.GlobalEventExecutor;
+
+import java.util.concurrent.TimeUnit;
 
 public class NettyServer implements Server {
     
@@ -16,39 +23,117 @@ public class NettyServer implements Server {
     private final EventLoopGroup bossGroup;
     private final EventLoopGroup workerGroup;
     private final Channel channel;
+    private final DispatchExecutor executor;
+    private final URL url;
+    // 已接入的客户端连接，下线时逐个通知并在排空后关闭
+    private final ChannelGroup channels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private volatile boolean closed;
     
-    public NettyServer(URL url, ChannelHandler handler) {
+    public NettyServer(URL url, ExchangeHandler handler) {
+        this.url = url;
+        RpcCodec codec = new RpcCodec(url);
+        // 解码后的请求交给业务线程池执行，避免阻塞I/O线程
+        this.executor = ExtensionLoader.getExtensionLoader(ThreadPool.class)
+                .getAdaptiveExtension()
+                .getExecutor(url);
         this.bootstrap = new ServerBootstrap();
-        this.bossGroup = new NioEventLoopGroup(1);
-        this.workerGroup = new NioEventLoopGroup();
+        boolean epoll = NettyTransports.useEpoll(url);
+        this.bossGroup = NettyTransports.newEventLoopGroup(epoll, 1, "rpc-server-boss", false);
+        this.workerGroup = NettyTransports.newEventLoopGroup(epoll,
+                url.getParameter("iothreads", NettyTransports.DEFAULT_IO_THREADS), "rpc-server-worker", false);
         
+        int idleTimeout = NettyTransports.getHeartbeatTimeout(url);
         bootstrap.group(bossGroup, workerGroup)
-            .channel(NioServerSocketChannel.class)
+            .channel(NettyTransports.serverChannelClass(bossGroup))
             .childHandler(new ChannelInitializer<SocketChannel>() {
                 @Override
                 protected void initChannel(SocketChannel ch) throws Exception {
+                    NettyTransports.configureFlush(ch, url);
+                    StreamRegistry.init(ch, url);
+                    channels.add(ch);
                     ch.pipeline()
-                        .addLast(new ObjectDecoder(ClassResolvers.cacheDisabled(null)))
-                        .addLast(new ObjectEncoder())
-                        .addLast(new NettyServerHandler(handler));
+                        .addLast(new RpcDecoder(codec))
+                        .addLast(new RpcEncoder(codec))
+                        .addLast(new IdleStateHandler(0, 0, idleTimeout, TimeUnit.MILLISECONDS))
+                        .addLast(new NettyServerHandler(handler, executor, NettyServer.this));
                 }
             });
+        NettyTransports.applyServerOptions(bootstrap, url);
         
         // 绑定端口
         ChannelFuture future = bootstrap.bind(url.getHost(), url.getPort());
         this.channel = future.channel();
     }
     
+    @Override
+    public DispatchExecutor getDispatchExecutor() {
+        return executor;
+    }
+    
+    public int getChannelCount() {
+        return channels.size();
+    }
+    
+    public boolean isClosed() {
+        return closed;
+    }
+    
     @Override
     public void close() {
+        close(url.getParameter("shutdown.timeout", 10000));
+    }
+    
+    @Override
+    public void close(int timeout) {
+        if (closed) {
+            return;
+        }
+        // 先置位再排空，排空期间新到的请求由NettyServerHandler直接拒绝
+        closed = true;
+        // 先停止接收新连接，再通知已有连接本端只读，客户端会把新请求发往其他提供者
         if (channel != null) {
-            channel.close();
+            channel.close().syncUninterruptibly();
+        }
+        Request readonly = new Request();
+        readonly.setEvent(true);
+        readonly.setTwoWay(false);
+        readonly.setData(Request.READONLY_EVENT);
+        for (Channel ch : channels) {
+            WriteQueue.writeAndFlush(ch, readonly);
+        }
+        
+        // 等待已接收的请求执行完并写回响应，超时后强制关闭
+        long deadline = System.currentTimeMillis() + timeout;
+        while (System.currentTimeMillis() < deadline && hasPendingWork()) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
         }
+        channels.close().awaitUninterruptibly(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
         if (bossGroup != null) {
             bossGroup.shutdownGracefully();
         }
         if (workerGroup != null) {
             workerGroup.shutdownGracefully();
         }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+    
+    private boolean hasPendingWork() {
+        if (executor.getQueueDepth() > 0 || executor.getActiveCount() > 0) {
+            return true;
+        }
+        // 已写入但还没刷到网络的响应
+        for (Channel ch : channels) {
+            if (ch.isActive() && ch.unsafe().outboundBuffer() != null && ch.unsafe().outboundBuffer().totalPendingWriteBytes() > 0) {
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
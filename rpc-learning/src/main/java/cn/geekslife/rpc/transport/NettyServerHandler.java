@@ -1,21 +1,139 @@
 package cn.geekslife.rpc.transport;
 
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.generic.RawInvocation;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.timeout.IdleStateEvent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 public class NettyServerHandler extends ChannelInboundHandlerAdapter {
     
-    private final io.netty.channel.ChannelHandler handler;
+    private final ExchangeHandler handler;
+    private final Executor executor;
+    private final NettyServer server;
     
-    public NettyServerHandler(io.netty.channel.ChannelHandler handler) {
+    public NettyServerHandler(ExchangeHandler handler, Executor executor, NettyServer server) {
         this.handler = handler;
+        this.executor = executor;
+        this.server = server;
     }
     
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        // 处理接收到的消息
-        // 这里应该调用实际的服务处理器
-        handler.getClass().getMethod("handle", Object.class).invoke(handler, msg);
+        if (msg instanceof Request) {
+            dispatch(ctx, (Request) msg);
+            return;
+        }
+        if (msg instanceof StreamFrame) {
+            StreamRegistry.get(ctx.channel()).received((StreamFrame) msg);
+            return;
+        }
+        
+        // 处理其他消息
+        try {
+            handler.reply(ctx.channel(), msg);
+        } catch (Throwable t) {
+            ctx.fireExceptionCaught(t);
+        }
+    }
+    
+    private void dispatch(ChannelHandlerContext ctx, Request request) {
+        if (request.isBroken()) {
+            Response response = new Response(request.getId());
+            response.setStatus(Response.BAD_REQUEST);
+            response.setErrorMessage("Fail to decode request due to: " + request.getData());
+            WriteQueue.writeAndFlush(ctx.channel(), response);
+            return;
+        }
+        if (request.isEvent()) {
+            // 心跳直接在I/O线程上应答，不占用业务线程
+            if (request.isHeartbeat() && request.isTwoWay()) {
+                Response response = new Response(request.getId());
+                response.setEvent(true);
+                response.setResult(Request.HEARTBEAT_EVENT);
+                WriteQueue.writeAndFlush(ctx.channel(), response);
+            }
+            return;
+        }
+        if (server.isClosed()) {
+            // 已经发出只读通知后仍然到达的请求不再执行，否则会在连接关闭时被丢弃；调用方按网络异常换节点重试
+            release(request);
+            if (request.isTwoWay()) {
+                Response response = new Response(request.getId());
+                response.setStatus(Response.SERVER_CLOSING);
+                response.setErrorMessage("Server side(" + ctx.channel().localAddress() + ") is closing");
+                WriteQueue.writeAndFlush(ctx.channel(), response);
+            }
+            return;
+        }
+        if (request.getData() instanceof RpcInvocation) {
+            StreamRegistry.get(ctx.channel()).bindArguments(request.getId(), (RpcInvocation) request.getData());
+        }
+        try {
+            executor.execute(() -> handleRequest(ctx, request));
+        } catch (RejectedExecutionException e) {
+            // 线程池满时在I/O线程上直接拒绝，调用方可以立即重试其他节点
+            StreamRegistry.get(ctx.channel()).abort(request.getId());
+            release(request);
+            if (request.isTwoWay()) {
+                Response response = new Response(request.getId());
+                response.setStatus(Response.SERVER_THREADPOOL_EXHAUSTED);
+                response.setErrorMessage("Server side(" + ctx.channel().localAddress() + ") thread pool is exhausted, detail msg: "
+                        + e.getMessage());
+                WriteQueue.writeAndFlush(ctx.channel(), response);
+            }
+        }
+    }
+    
+    private void handleRequest(ChannelHandlerContext ctx, Request request) {
+        Response response = new Response(request.getId());
+        StreamRegistry streams = StreamRegistry.get(ctx.channel());
+        try {
+            response.setResult(streams.bindResult(request.getId(), handler.reply(ctx.channel(), request.getData())));
+        } catch (RpcException e) {
+            streams.abort(request.getId());
+            // 限流拒绝单独返回状态码，调用方可以换节点重试
+            response.setStatus(e.isLimitExceeded() ? Response.SERVER_LIMIT_EXCEEDED : Response.SERVICE_ERROR);
+            response.setErrorMessage(String.valueOf(e));
+        } catch (Throwable e) {
+            streams.abort(request.getId());
+            response.setStatus(Response.SERVICE_ERROR);
+            response.setErrorMessage(String.valueOf(e));
+        } finally {
+            release(request);
+        }
+        
+        // 单向请求不需要回写响应
+        if (request.isTwoWay()) {
+            WriteQueue.writeAndFlush(ctx.channel(), response);
+        }
+    }
+    
+    private static void release(Request request) {
+        // 透传的请求体在调用返回后释放，Invoker需要异步使用时自行retain
+        if (request.getData() instanceof RawInvocation) {
+            ((RawInvocation) request.getData()).release();
+        }
+    }
+    
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        StreamRegistry.get(ctx.channel()).close();
+        super.channelInactive(ctx);
+    }
+    
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            // 客户端在心跳超时内没有任何读写，认为连接已失效
+            ctx.close();
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
     }
     
     @Override
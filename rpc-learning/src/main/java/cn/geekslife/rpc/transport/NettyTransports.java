@@ -0,0 +1,126 @@
+package cn.geekslife.rpc.transport;
+
+import cn.geekslife.rpc.common.NamedThreadFactory;
+import cn.geekslife.rpc.common.URL;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+public class NettyTransports {
+    
+    public static final int DEFAULT_IO_THREADS = Math.min(Runtime.getRuntime().availableProcessors() + 1, 32);
+    public static final int DEFAULT_HEARTBEAT = 60 * 1000;
+    
+    private NettyTransports() {}
+    
+    public static boolean useEpoll(URL url) {
+        return useEpoll(url != null ? url.getParameter("transport", "auto") : "auto");
+    }
+    
+    public static boolean useEpoll(String transport) {
+        // auto和epoll都在native epoll可用时使用，不可用时回退到NIO
+        if ("nio".equalsIgnoreCase(transport)) {
+            return false;
+        }
+        return Epoll.isAvailable();
+    }
+    
+    public static EventLoopGroup newEventLoopGroup(boolean epoll, int threads, String name, boolean daemon) {
+        NamedThreadFactory threadFactory = new NamedThreadFactory(name, daemon);
+        return epoll ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+    
+    public static Class<? extends ServerChannel> serverChannelClass(EventLoopGroup group) {
+        return group instanceof EpollEventLoopGroup ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+    
+    public static Class<? extends SocketChannel> socketChannelClass(EventLoopGroup group) {
+        return group instanceof EpollEventLoopGroup ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+    
+    public static void applyServerOptions(ServerBootstrap bootstrap, URL url) {
+        bootstrap.option(ChannelOption.SO_BACKLOG, url.getParameter("so.backlog", 1024))
+            .option(ChannelOption.SO_REUSEADDR, true)
+            .option(ChannelOption.ALLOCATOR, allocator(url))
+            .childOption(ChannelOption.TCP_NODELAY, url.getParameter("tcp.nodelay", true))
+            .childOption(ChannelOption.SO_KEEPALIVE, url.getParameter("so.keepalive", true))
+            .childOption(ChannelOption.ALLOCATOR, allocator(url))
+            .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark(url));
+        // SO_REUSEPORT只有epoll支持，允许多个进程/线程绑定同一端口分摊accept
+        if (bootstrap.config().group() instanceof EpollEventLoopGroup && url.getParameter("so.reuseport", false)) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+        int sendBuffer = url.getParameter("so.sndbuf", 0);
+        if (sendBuffer > 0) {
+            bootstrap.childOption(ChannelOption.SO_SNDBUF, sendBuffer);
+        }
+        int receiveBuffer = url.getParameter("so.rcvbuf", 0);
+        if (receiveBuffer > 0) {
+            bootstrap.childOption(ChannelOption.SO_RCVBUF, receiveBuffer);
+        }
+    }
+    
+    public static void applyClientOptions(Bootstrap bootstrap, URL url) {
+        bootstrap.option(ChannelOption.TCP_NODELAY, url.getParameter("tcp.nodelay", true))
+            .option(ChannelOption.SO_KEEPALIVE, url.getParameter("so.keepalive", true))
+            .option(ChannelOption.ALLOCATOR, allocator(url))
+            .option(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark(url));
+        int sendBuffer = url.getParameter("so.sndbuf", 0);
+        if (sendBuffer > 0) {
+            bootstrap.option(ChannelOption.SO_SNDBUF, sendBuffer);
+        }
+        int receiveBuffer = url.getParameter("so.rcvbuf", 0);
+        if (receiveBuffer > 0) {
+            bootstrap.option(ChannelOption.SO_RCVBUF, receiveBuffer);
+        }
+    }
+    
+    public static int getHeartbeat(URL url) {
+        return url.getParameter("heartbeat", DEFAULT_HEARTBEAT);
+    }
+    
+    public static int getHeartbeatTimeout(URL url) {
+        // 至少容忍两次心跳丢失
+        int heartbeat = getHeartbeat(url);
+        return Math.max(heartbeat * 2, url.getParameter("heartbeat.timeout", heartbeat * 3));
+    }
+    
+    public static void configureFlush(Channel channel, URL url) {
+        String mode = url.getParameter("flush.mode", "none");
+        if ("consolidate".equalsIgnoreCase(mode)) {
+            // 在读循环结束或达到上限时才真正flush，读循环之外的flush也延迟合并
+            channel.pipeline().addFirst(new FlushConsolidationHandler(
+                    url.getParameter("flush.consolidation.limit", FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES), true));
+        } else if ("batch".equalsIgnoreCase(mode)) {
+            channel.attr(WriteQueue.KEY).set(new WriteQueue(channel, url.getParameter("flush.batch.size", 128)));
+        }
+    }
+    
+    private static ByteBufAllocator allocator(URL url) {
+        return "unpooled".equalsIgnoreCase(url.getParameter("allocator", "pooled"))
+                ? UnpooledByteBufAllocator.DEFAULT : PooledByteBufAllocator.DEFAULT;
+    }
+    
+    private static WriteBufferWaterMark writeBufferWaterMark(URL url) {
+        int low = url.getParameter("write.buffer.low", 32 * 1024);
+        int high = url.getParameter("write.buffer.high", 64 * 1024);
+        return new WriteBufferWaterMark(low, Math.max(low, high));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package cn.geekslife.rpc.transport;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Request implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private static final AtomicLong INVOKE_ID = new AtomicLong(0);
+    
+    // 事件请求：数据为空表示心跳，READONLY_EVENT表示服务端正在下线
+    public static final String HEARTBEAT_EVENT = null;
+    public static final String READONLY_EVENT = "R";
+    
+    private final long id;
+    private boolean twoWay = true;
+    private boolean event = false;
+    private boolean broken = false;
+    private Object data;
+    
+    public Request() {
+        this.id = newId();
+    }
+    
+    public Request(long id) {
+        this.id = id;
+    }
+    
+    private static long newId() {
+        // getAndIncrement()溢出后从负数继续，不影响请求ID的唯一性
+        return INVOKE_ID.getAndIncrement();
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    public boolean isTwoWay() {
+        return twoWay;
+    }
+    
+    public void setTwoWay(boolean twoWay) {
+        this.twoWay = twoWay;
+    }
+    
+    public boolean isEvent() {
+        return event;
+    }
+    
+    public void setEvent(boolean event) {
+        this.event = event;
+    }
+    
+    public boolean isHeartbeat() {
+        return event && data == HEARTBEAT_EVENT;
+    }
+    
+    public boolean isBroken() {
+        return broken;
+    }
+    
+    public void setBroken(boolean broken) {
+        this.broken = broken;
+    }
+    
+    public Object getData() {
+        return data;
+    }
+    
+    public void setData(Object data) {
+        this.data = data;
+    }
+    
+    @Override
+    public String toString() {
+        return "Request [id=" + id + ", twoWay=" + twoWay + ", event=" + event + ", data=" + data + "]";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package cn.geekslife.rpc.transport;
+
+import java.io.Serializable;
+
+public class Response implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final byte OK = 20;
+    public static final byte CLIENT_TIMEOUT = 30;
+    public static final byte SERVER_TIMEOUT = 31;
+    public static final byte CHANNEL_INACTIVE = 35;
+    public static final byte BAD_REQUEST = 40;
+    public static final byte BAD_RESPONSE = 50;
+    public static final byte SERVICE_NOT_FOUND = 60;
+    public static final byte SERVICE_ERROR = 70;
+    public static final byte SERVER_ERROR = 80;
+    public static final byte CLIENT_ERROR = 90;
+    public static final byte SERVER_THREADPOOL_EXHAUSTED = 100;
+    public static final byte SERVER_LIMIT_EXCEEDED = 101;
+    public static final byte SERVER_CLOSING = 102;
+    
+    private long id;
+    private byte status = OK;
+    private boolean event = false;
+    private String errorMessage;
+    private Object result;
+    
+    public Response() {}
+    
+    public Response(long id) {
+        this.id = id;
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public byte getStatus() {
+        return status;
+    }
+    
+    public void setStatus(byte status) {
+        this.status = status;
+    }
+    
+    public boolean isEvent() {
+        return event;
+    }
+    
+    public void setEvent(boolean event) {
+        this.event = event;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+    
+    public Object getResult() {
+        return result;
+    }
+    
+    public void setResult(Object result) {
+        this.result = result;
+    }
+    
+    @Override
+    public String toString() {
+        return "Response [id=" + id + ", status=" + status + ", event=" + event
+                + ", error=" + errorMessage + ", result=" + result + "]";
+    }
+}
\ No newline at end of file
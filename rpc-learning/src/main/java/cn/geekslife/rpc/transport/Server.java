@@ -1,5 +1,9 @@
 package cn.geekslife.rpc.transport;
 
+import cn.geekslife.rpc.threadpool.DispatchExecutor;
+
 public interface Server {
+    DispatchExecutor getDispatchExecutor();
     void close();
+    void close(int timeout);
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package cn.geekslife.rpc.transport;
+
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.serialize.ClassUtils;
+
+import java.io.Serializable;
+
+public class StreamFrame implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final byte DATA = 1;
+    public static final byte COMPLETE = 2;
+    public static final byte ERROR = 3;
+    public static final byte REQUEST_N = 4;
+    public static final byte CANCEL = 5;
+    
+    // 流ID就是发起调用的请求ID，同一连接上唯一；ERROR帧的data是异常，线上只传异常类型和消息
+    private final long streamId;
+    private final byte type;
+    private final Object data;
+    
+    public StreamFrame(long streamId, byte type, Object data) {
+        this.streamId = streamId;
+        this.type = type;
+        this.data = data;
+    }
+    
+    public long getStreamId() {
+        return streamId;
+    }
+    
+    public byte getType() {
+        return type;
+    }
+    
+    public Object getData() {
+        return data;
+    }
+    
+    public static Throwable remoteError(String type, String message, int code) {
+        // RpcException保留错误码；本端能加载且带String构造器的异常类型还原成同类型，否则用RpcException带上原始类型
+        if (RpcException.class.getName().equals(type)) {
+            return new RpcException(code, message);
+        }
+        try {
+            Class<?> cls = ClassUtils.forName(type);
+            if (Throwable.class.isAssignableFrom(cls)) {
+                return (Throwable) cls.getConstructor(String.class).newInstance(message);
+            }
+        } catch (Exception | LinkageError e) {
+            // 类型不可用时退回RpcException
+        }
+        return new RpcException(code, type + ": " + message);
+    }
+    
+    @Override
+    public String toString() {
+        return "StreamFrame [streamId=" + streamId + ", type=" + type + ", data=" + data + "]";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package cn.geekslife.rpc.transport;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StreamInbound<T> implements Flow.Publisher<T>, Flow.Subscription {
+    
+    private final StreamRegistry registry;
+    private final long streamId;
+    private final int prefetch;
+    private final int limit;
+    
+    // 对端最多只能发送已授予的额度，队列长度不会超过prefetch
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile Flow.Subscriber<? super T> subscriber;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private Throwable error;
+    private int consumed;
+    
+    StreamInbound(StreamRegistry registry, long streamId, int prefetch) {
+        this.registry = registry;
+        this.streamId = streamId;
+        this.prefetch = Math.max(1, prefetch);
+        this.limit = Math.max(1, this.prefetch - (this.prefetch >> 2));
+    }
+    
+    public long getStreamId() {
+        return streamId;
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> s) {
+        if (!subscribed.compareAndSet(false, true)) {
+            s.onSubscribe(EmptySubscription.INSTANCE);
+            s.onError(new IllegalStateException("Stream " + streamId + " allows only one subscriber"));
+            return;
+        }
+        subscriber = s;
+        s.onSubscribe(this);
+        // 订阅后一次性授予prefetch额度，之后按消费进度补充
+        if (!done && !cancelled) {
+            registry.send(new StreamFrame(streamId, StreamFrame.REQUEST_N, (long) prefetch));
+        }
+        drain();
+    }
+    
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            cancel();
+            onError(new IllegalArgumentException("Rule 3.9 violated: non-positive request " + n));
+            return;
+        }
+        long current;
+        long next;
+        do {
+            current = requested.get();
+            next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!requested.compareAndSet(current, next));
+        drain();
+    }
+    
+    @Override
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        registry.removeInbound(streamId, this);
+        if (!done) {
+            registry.send(new StreamFrame(streamId, StreamFrame.CANCEL, null));
+        }
+        drain();
+    }
+    
+    void onData(Object item) {
+        if (!done && !cancelled) {
+            queue.offer(item);
+            drain();
+        }
+    }
+    
+    void onComplete() {
+        done = true;
+        drain();
+    }
+    
+    void onError(Throwable e) {
+        if (!done) {
+            error = e;
+            done = true;
+        }
+        drain();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        // 网络线程和订阅者线程都可能触发，用wip保证同一时刻只有一个线程回调订阅者
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        for (;;) {
+            Flow.Subscriber<? super T> s = subscriber;
+            if (s != null) {
+                long r = requested.get();
+                long emitted = 0;
+                while (emitted != r) {
+                    if (cancelled) {
+                        queue.clear();
+                        return;
+                    }
+                    boolean d = done;
+                    Object item = queue.poll();
+                    if (item == null) {
+                        if (d) {
+                            terminate(s);
+                            return;
+                        }
+                        break;
+                    }
+                    s.onNext((T) item);
+                    emitted++;
+                    if (++consumed == limit) {
+                        replenish();
+                    }
+                }
+                if (cancelled) {
+                    queue.clear();
+                    return;
+                }
+                if (done && queue.isEmpty()) {
+                    terminate(s);
+                    return;
+                }
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+            } else if (cancelled) {
+                queue.clear();
+                return;
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+    
+    private void replenish() {
+        int n = consumed;
+        consumed = 0;
+        if (!done && !cancelled) {
+            registry.send(new StreamFrame(streamId, StreamFrame.REQUEST_N, (long) n));
+        }
+    }
+    
+    private void terminate(Flow.Subscriber<? super T> s) {
+        cancelled = true;
+        registry.removeInbound(streamId, this);
+        Throwable e = error;
+        if (e != null) {
+            s.onError(e);
+        } else {
+            s.onComplete();
+        }
+    }
+    
+    static final class EmptySubscription implements Flow.Subscription {
+        
+        static final EmptySubscription INSTANCE = new EmptySubscription();
+        
+        @Override
+        public void request(long n) {
+        }
+        
+        @Override
+        public void cancel() {
+        }
+    }
+}
\ No newline at end of file
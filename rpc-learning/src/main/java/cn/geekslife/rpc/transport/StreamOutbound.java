@@ -0,0 +1,114 @@
+package cn.geekslife.rpc.transport;
+
+import cn.geekslife.rpc.common.RpcException;
+
+import java.util.concurrent.Flow;
+
+public class StreamOutbound implements Flow.Subscriber<Object> {
+    
+    private final StreamRegistry registry;
+    private final long streamId;
+    
+    private Flow.Subscription subscription;
+    // 订阅建立前收到的对端额度
+    private long pendingCredit;
+    private volatile boolean requested;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    
+    StreamOutbound(StreamRegistry registry, long streamId) {
+        this.registry = registry;
+        this.streamId = streamId;
+    }
+    
+    public long getStreamId() {
+        return streamId;
+    }
+    
+    @Override
+    public void onSubscribe(Flow.Subscription s) {
+        long credit;
+        synchronized (this) {
+            if (subscription != null) {
+                s.cancel();
+                return;
+            }
+            subscription = s;
+            credit = pendingCredit;
+            pendingCredit = 0;
+        }
+        if (cancelled) {
+            s.cancel();
+        } else if (credit > 0) {
+            s.request(credit);
+        }
+    }
+    
+    @Override
+    public void onNext(Object item) {
+        if (!done && !cancelled) {
+            registry.send(new StreamFrame(streamId, StreamFrame.DATA, item));
+        }
+    }
+    
+    @Override
+    public void onError(Throwable e) {
+        if (done || cancelled) {
+            return;
+        }
+        done = true;
+        registry.removeOutbound(streamId, this);
+        registry.send(new StreamFrame(streamId, StreamFrame.ERROR, e));
+    }
+    
+    @Override
+    public void onComplete() {
+        if (done || cancelled) {
+            return;
+        }
+        done = true;
+        registry.removeOutbound(streamId, this);
+        registry.send(new StreamFrame(streamId, StreamFrame.COMPLETE, null));
+    }
+    
+    void request(long n) {
+        // 对端授予多少额度就向上游请求多少，上游发出的数据不会超过对端能缓冲的数量
+        requested = true;
+        Flow.Subscription s;
+        synchronized (this) {
+            s = subscription;
+            if (s == null) {
+                pendingCredit += n;
+                return;
+            }
+        }
+        if (!done && !cancelled) {
+            s.request(n);
+        }
+    }
+    
+    void expire(long timeout) {
+        // 对端一直没有订阅返回的流，取消上游并通知对端，不让流一直占着登记表直到连接关闭
+        if (requested || done || cancelled) {
+            return;
+        }
+        cancel();
+        registry.send(new StreamFrame(streamId, StreamFrame.ERROR,
+                new RpcException(RpcException.TIMEOUT_EXCEPTION, "Stream " + streamId + " is not subscribed within " + timeout + "ms")));
+    }
+    
+    void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        registry.removeOutbound(streamId, this);
+        Flow.Subscription s;
+        synchronized (this) {
+            s = subscription;
+        }
+        if (s != null) {
+            s.cancel();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,233 @@
+package cn.geekslife.rpc.transport;
+
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+public class StreamRegistry {
+    
+    public static final AttributeKey<StreamRegistry> KEY = AttributeKey.valueOf("rpc.streams");
+    
+    public static final int DEFAULT_PREFETCH = 64;
+    public static final int DEFAULT_SUBSCRIBE_TIMEOUT = 30000;
+    
+    private final Channel channel;
+    private final int prefetch;
+    private final int subscribeTimeout;
+    private final WriteQueue writeQueue;
+    
+    // 本端接收的流和本端发送的流分开登记，双向流在两张表里使用同一个ID
+    private final ConcurrentMap<Long, StreamInbound<?>> inbounds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, StreamOutbound> outbounds = new ConcurrentHashMap<>();
+    
+    private StreamRegistry(Channel channel, int prefetch, int subscribeTimeout) {
+        this.channel = channel;
+        this.prefetch = prefetch;
+        this.subscribeTimeout = subscribeTimeout;
+        // 流帧数量多、单帧小，总是经过写队列合并flush
+        WriteQueue shared = channel.attr(WriteQueue.KEY).get();
+        this.writeQueue = shared != null ? shared : new WriteQueue(channel, 128);
+    }
+    
+    public static StreamRegistry init(Channel channel, URL url) {
+        StreamRegistry registry = new StreamRegistry(channel,
+                url != null ? url.getParameter("stream.prefetch", DEFAULT_PREFETCH) : DEFAULT_PREFETCH,
+                url != null ? url.getParameter("stream.subscribe.timeout", DEFAULT_SUBSCRIBE_TIMEOUT) : DEFAULT_SUBSCRIBE_TIMEOUT);
+        channel.attr(KEY).set(registry);
+        return registry;
+    }
+    
+    public static StreamRegistry get(Channel channel) {
+        StreamRegistry registry = channel.attr(KEY).get();
+        if (registry == null) {
+            StreamRegistry created = new StreamRegistry(channel, DEFAULT_PREFETCH, DEFAULT_SUBSCRIBE_TIMEOUT);
+            registry = channel.attr(KEY).setIfAbsent(created);
+            if (registry == null) {
+                registry = created;
+            }
+        }
+        return registry;
+    }
+    
+    public static boolean isStream(Class<?> type) {
+        return type != null && Flow.Publisher.class.isAssignableFrom(type);
+    }
+    
+    public CompletableFuture<Result> bindRequest(long id, Object request, CompletableFuture<Result> future) {
+        // 客户端发送请求前登记：参数中的Publisher作为上行流，返回Publisher的方法准备好下行流
+        if (!(request instanceof RpcInvocation)) {
+            return future;
+        }
+        RpcInvocation invocation = (RpcInvocation) request;
+        int index = publisherIndex(invocation.getParameterTypes());
+        boolean streamResult = isStream(invocation.getReturnType());
+        if (index < 0 && !streamResult) {
+            return future;
+        }
+        if (index >= 0) {
+            Object argument = invocation.getArguments()[index];
+            if (argument != null) {
+                StreamOutbound outbound = new StreamOutbound(this, id);
+                outbounds.put(id, outbound);
+                ((Flow.Publisher<?>) argument).subscribe(outbound);
+            }
+        }
+        StreamInbound<Object> inbound = streamResult ? new StreamInbound<>(this, id, prefetch) : null;
+        if (inbound != null) {
+            inbounds.put(id, inbound);
+        }
+        return future.handle((result, e) -> {
+            if (e != null || result.hasException()) {
+                abort(id);
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                }
+                if (e != null) {
+                    throw new RpcException(e);
+                }
+                return result;
+            }
+            return inbound != null ? new Result(inbound) : result;
+        });
+    }
+    
+    public void bindArguments(long id, RpcInvocation invocation) {
+        // 服务端在I/O线程上先登记上行流，保证对端的数据帧到达时能找到接收方
+        int index = publisherIndex(invocation.getParameterTypes());
+        if (index >= 0) {
+            StreamInbound<Object> inbound = new StreamInbound<>(this, id, prefetch);
+            inbounds.put(id, inbound);
+            invocation.getArguments()[index] = inbound;
+        }
+    }
+    
+    public Object bindResult(long id, Object result) {
+        // 服务方法返回Publisher时登记下行流，响应本身只作为建立流的确认
+        if (result instanceof Result && !((Result) result).hasException()
+                && ((Result) result).getValue() instanceof Flow.Publisher) {
+            StreamOutbound outbound = new StreamOutbound(this, id);
+            outbounds.put(id, outbound);
+            ((Flow.Publisher<?>) ((Result) result).getValue()).subscribe(outbound);
+            // 调用方拿到流却一直不订阅时不会发来额度，超时后结束这个流
+            if (subscribeTimeout > 0) {
+                channel.eventLoop().schedule(() -> outbound.expire(subscribeTimeout), subscribeTimeout, TimeUnit.MILLISECONDS);
+            }
+            return new Result();
+        }
+        if (result instanceof Result && ((Result) result).hasException()) {
+            abort(id);
+        }
+        return result;
+    }
+    
+    public void abort(long id) {
+        StreamOutbound outbound = outbounds.get(id);
+        if (outbound != null) {
+            outbound.cancel();
+        }
+        StreamInbound<?> inbound = inbounds.remove(id);
+        if (inbound != null) {
+            inbound.onError(new RpcException("Stream " + id + " is aborted because the call failed"));
+        }
+    }
+    
+    public void received(StreamFrame frame) {
+        long id = frame.getStreamId();
+        switch (frame.getType()) {
+            case StreamFrame.DATA: {
+                StreamInbound<?> inbound = inbounds.get(id);
+                if (inbound != null) {
+                    inbound.onData(frame.getData());
+                }
+                break;
+            }
+            case StreamFrame.COMPLETE: {
+                // 结束帧之后不会再有数据，还没订阅的流也可以移出登记表，订阅时照常收到结束信号
+                StreamInbound<?> inbound = inbounds.remove(id);
+                if (inbound != null) {
+                    inbound.onComplete();
+                }
+                break;
+            }
+            case StreamFrame.ERROR: {
+                StreamInbound<?> inbound = inbounds.remove(id);
+                if (inbound != null) {
+                    inbound.onError((Throwable) frame.getData());
+                }
+                break;
+            }
+            case StreamFrame.REQUEST_N: {
+                StreamOutbound outbound = outbounds.get(id);
+                if (outbound != null) {
+                    outbound.request((Long) frame.getData());
+                }
+                break;
+            }
+            case StreamFrame.CANCEL: {
+                StreamOutbound outbound = outbounds.get(id);
+                if (outbound != null) {
+                    outbound.cancel();
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+    
+    public void close() {
+        // 连接断开时结束所有流：接收方收到网络异常，发送方取消上游订阅
+        for (StreamInbound<?> inbound : inbounds.values()) {
+            inbound.onError(new RpcException(RpcException.NETWORK_EXCEPTION,
+                    "Channel " + channel + " is inactive, stream " + inbound.getStreamId() + " is broken"));
+        }
+        inbounds.clear();
+        for (StreamOutbound outbound : outbounds.values()) {
+            outbound.cancel();
+        }
+        outbounds.clear();
+    }
+    
+    public int getInboundCount() {
+        return inbounds.size();
+    }
+    
+    public int getOutboundCount() {
+        return outbounds.size();
+    }
+    
+    void send(StreamFrame frame) {
+        if (channel.isActive()) {
+            writeQueue.enqueue(frame);
+        }
+    }
+    
+    void removeInbound(long id, StreamInbound<?> inbound) {
+        inbounds.remove(id, inbound);
+    }
+    
+    void removeOutbound(long id, StreamOutbound outbound) {
+        outbounds.remove(id, outbound);
+    }
+    
+    private static int publisherIndex(Class<?>[] parameterTypes) {
+        if (parameterTypes == null) {
+            return -1;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (isStream(parameterTypes[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package cn.geekslife.rpc.transport;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.AttributeKey;
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class WriteQueue {
+    
+    public static final AttributeKey<WriteQueue> KEY = AttributeKey.valueOf("rpc.writeQueue");
+    
+    private final Channel channel;
+    private final int maxBatch;
+    private final Queue<PendingWrite> queue = PlatformDependent.newMpscQueue();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable flushTask = this::flush;
+    
+    public WriteQueue(Channel channel, int maxBatch) {
+        this.channel = channel;
+        this.maxBatch = Math.max(1, maxBatch);
+    }
+    
+    public static ChannelFuture writeAndFlush(Channel channel, Object msg) {
+        // 开启批量模式的连接走写队列，否则直接writeAndFlush
+        WriteQueue writeQueue = channel.attr(KEY).get();
+        if (writeQueue == null) {
+            return channel.writeAndFlush(msg);
+        }
+        return writeQueue.enqueue(msg);
+    }
+    
+    public ChannelFuture enqueue(Object msg) {
+        ChannelPromise promise = channel.newPromise();
+        queue.add(new PendingWrite(msg, promise));
+        scheduleFlush();
+        return promise;
+    }
+    
+    private void scheduleFlush() {
+        // 每个事件循环周期只提交一次刷新任务，多个线程的写入合并成一次flush
+        if (scheduled.compareAndSet(false, true)) {
+            channel.eventLoop().execute(flushTask);
+        }
+    }
+    
+    private void flush() {
+        try {
+            int written = 0;
+            PendingWrite write;
+            while ((write = queue.poll()) != null) {
+                channel.write(write.msg, write.promise);
+                if (++written == maxBatch) {
+                    channel.flush();
+                    written = 0;
+                }
+            }
+            if (written > 0) {
+                channel.flush();
+            }
+        } finally {
+            scheduled.set(false);
+            // 刷新期间可能有新的写入进来
+            if (!queue.isEmpty()) {
+                scheduleFlush();
+            }
+        }
+    }
+    
+    private static final class PendingWrite {
+        private final Object msg;
+        private final ChannelPromise promise;
+        
+        private PendingWrite(Object msg, ChannelPromise promise) {
+            this.msg = msg;
+            this.promise = promise;
+        }
+    }
+}
\ No newline at end of file
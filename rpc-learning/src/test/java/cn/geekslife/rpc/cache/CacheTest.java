@@ -0,0 +1,110 @@
+package cn.geekslife.rpc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheTest {
+    
+    @Test
+    public void lruEvictsLeastRecentlyAccessed() {
+        LruCache cache = new LruCache(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        // 访问a之后，最久未访问的是b
+        assertEquals(1, cache.get("a"));
+        cache.put("d", 4);
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(4, cache.get("d"));
+        
+        // 覆盖写也算一次访问
+        cache.put("a", 5);
+        cache.put("e", 6);
+        assertNull(cache.get("c"));
+        assertEquals(5, cache.get("a"));
+        
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new LruCache(0));
+    }
+    
+    @Test
+    public void tinyLfuRejectsColdCandidate() {
+        TinyLfuCache cache = new TinyLfuCache(100);
+        for (int i = 0; i < 100; i++) {
+            cache.put("hot" + i, i);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                cache.get("hot" + i);
+            }
+        }
+        assertEquals(100, cache.size());
+        
+        // 只访问过一次的条目被挤出窗口时频率低于主区的淘汰对象，直接丢弃
+        cache.put("cold1", "x");
+        cache.put("cold2", "y");
+        assertNull(cache.get("cold1"));
+        assertEquals("y", cache.get("cold2"));
+        int hot = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.get("hot" + i) != null) {
+                hot++;
+            }
+        }
+        // 窗口里原来的热点条目与主区淘汰对象比较，最多替换掉一个热点
+        assertTrue(hot >= 99, "hot entries left: " + hot);
+        assertEquals(100, cache.size());
+    }
+    
+    @Test
+    public void tinyLfuAdmitsFrequentCandidate() {
+        TinyLfuCache cache = new TinyLfuCache(100);
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, i);
+        }
+        cache.put("warm", "w");
+        for (int i = 0; i < 10; i++) {
+            assertEquals("w", cache.get("warm"));
+        }
+        // 窗口中的条目在窗口期内被多次访问，挤出窗口时可以替换主区的淘汰对象
+        cache.put("next", "n");
+        assertEquals("w", cache.get("warm"));
+        assertEquals(100, cache.size());
+        
+        cache.remove("warm");
+        assertNull(cache.get("warm"));
+        assertThrows(IllegalArgumentException.class, () -> cache.put("k", null));
+    }
+    
+    @Test
+    public void sketchCountsSaturatesAndAges() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        assertEquals(0, sketch.frequency("a"));
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("a");
+        }
+        assertEquals(5, sketch.frequency("a"));
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("a");
+        }
+        // 4位计数器最多到15
+        assertEquals(15, sketch.frequency("a"));
+        
+        // 采样窗口为容量的10倍，累计增加到窗口大小后所有计数减半
+        int increments = 0;
+        while (sketch.frequency("a") == 15 && increments < 160) {
+            sketch.increment(increments++);
+        }
+        assertTrue(increments < 160, "sketch is not reset");
+        assertEquals(7, sketch.frequency("a"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConsistentHashLoadBalanceTest {
+    
+    private static final int KEYS = 1000;
+    
+    private final ConsistentHashLoadBalance loadBalance = new ConsistentHashLoadBalance();
+    
+    @Test
+    public void removingProviderOnlyRemapsItsKeys() {
+        List<Invoker<Object>> invokers = List.of(invoker(20880, null), invoker(20881, null), invoker(20882, null));
+        List<Invoker<Object>> before = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            before.add(loadBalance.select(invokers, invocation("key" + i)));
+        }
+        
+        Invoker<Object> removed = invokers.get(1);
+        List<Invoker<Object>> remaining = List.of(invokers.get(0), invokers.get(2));
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            Invoker<Object> selected = loadBalance.select(remaining, invocation("key" + i));
+            if (before.get(i) == removed) {
+                assertNotSame(removed, selected);
+                moved++;
+            } else {
+                // 其他提供者上的键保持不变
+                assertSame(before.get(i), selected);
+            }
+        }
+        // 虚拟节点足够多时每个提供者分到的键大致均匀
+        assertTrue(moved > KEYS / 6 && moved < KEYS / 2, "moved keys: " + moved);
+    }
+    
+    @Test
+    public void arrayArgumentsHashByContent() {
+        List<Invoker<Object>> invokers = List.of(invoker(20880, null), invoker(20881, null), invoker(20882, null));
+        for (int i = 0; i < 100; i++) {
+            Object first = new String[]{"key", String.valueOf(i)};
+            Object second = new String[]{"key", String.valueOf(i)};
+            assertSame(loadBalance.select(invokers, invocation(first)), loadBalance.select(invokers, invocation(second)));
+            assertSame(loadBalance.select(invokers, invocation(new int[]{i})),
+                    loadBalance.select(invokers, invocation(new int[]{i})));
+        }
+    }
+    
+    @Test
+    public void hashOnConfiguredArguments() {
+        List<Invoker<Object>> invokers = List.of(invoker(20880, "1"), invoker(20881, "1"), invoker(20882, "1"));
+        // 只按第二个参数选择，第一个参数不同也落到同一个节点
+        for (int i = 0; i < 100; i++) {
+            assertSame(loadBalance.select(invokers, invocation("a", "key" + i)),
+                    loadBalance.select(invokers, invocation("b", "key" + i)));
+        }
+    }
+    
+    @Test
+    public void rejectInvalidHashArguments() {
+        List<Invoker<Object>> invokers = List.of(invoker(20880, "0,x"), invoker(20881, "0,x"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> loadBalance.select(invokers, invocation("a")));
+        assertTrue(e.getMessage().contains("hash.arguments"), e.getMessage());
+        List<Invoker<Object>> negative = List.of(invoker(20880, "-1"), invoker(20881, "-1"));
+        assertThrows(IllegalArgumentException.class, () -> loadBalance.select(negative, invocation("a")));
+    }
+    
+    @Test
+    public void retrySkipsExcludedOnSameRing() {
+        List<Invoker<Object>> invokers = List.of(invoker(20880, null), invoker(20881, null), invoker(20882, null));
+        for (int i = 0; i < 100; i++) {
+            Invocation invocation = invocation("key" + i);
+            Invoker<Object> first = loadBalance.select(invokers, invocation);
+            Invoker<Object> second = loadBalance.select(invokers, invocation, List.of(first));
+            assertNotSame(first, second);
+            assertEquals(second, loadBalance.select(invokers, invocation, List.of(first)));
+        }
+    }
+    
+    private static RpcInvocation invocation(Object... args) {
+        Class<?>[] types = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            types[i] = args[i].getClass();
+        }
+        return new RpcInvocation("get", types, args);
+    }
+    
+    private static Invoker<Object> invoker(int port, String hashArguments) {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("interface", "demo.CacheService");
+        if (hashArguments != null) {
+            parameters.put("hash.arguments", hashArguments);
+        }
+        URL url = new URL("rpc", "127.0.0.1", port, "demo.CacheService", parameters);
+        return new Invoker<Object>() {
+            @Override
+            public Class<Object> getInterface() {
+                return Object.class;
+            }
+            
+            @Override
+            public Result invoke(Invocation invocation) throws RpcException {
+                return new Result((Object) null);
+            }
+            
+            @Override
+            public URL getUrl() {
+                return url;
+            }
+        };
+    }
+}
\ No newline at end of file
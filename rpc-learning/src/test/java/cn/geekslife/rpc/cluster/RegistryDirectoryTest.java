@@ -0,0 +1,114 @@
+package cn.geekslife.rpc.cluster;
+
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.registry.NotifyListener;
+import cn.geekslife.rpc.registry.Registry;
+import cn.geekslife.rpc.transport.ClientTransport;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegistryDirectoryTest {
+    
+    @AfterAll
+    public static void shutdown() {
+        ClientTransport.getInstance().shutdown();
+    }
+    
+    @Test
+    public void keepProvidersOnEmptyPush() {
+        RegistryDirectory<DemoService> directory = new RegistryDirectory<>(DemoService.class, consumer(null), new NoopRegistry());
+        directory.notify(List.of(provider(20880), provider(20881)));
+        List<Invoker<DemoService>> before = directory.list(null);
+        assertEquals(2, before.size());
+        
+        // 空推送和null推送都保留上一份快照
+        directory.notify(Collections.emptyList());
+        assertSame(before, directory.list(null));
+        directory.notify(null);
+        assertSame(before, directory.list(null));
+        
+        // 下一次非空推送正常更新，未变化的提供者复用原来的Invoker
+        directory.notify(List.of(provider(20881)));
+        List<Invoker<DemoService>> after = directory.list(null);
+        assertEquals(1, after.size());
+        assertSame(before.get(1), after.get(0));
+        directory.destroy();
+    }
+    
+    @Test
+    public void clearProvidersOnEmptyPushWhenProtectionDisabled() {
+        RegistryDirectory<DemoService> directory = new RegistryDirectory<>(DemoService.class, consumer("false"),
+                new NoopRegistry());
+        directory.notify(List.of(provider(20880)));
+        assertEquals(1, directory.list(null).size());
+        directory.notify(Collections.emptyList());
+        assertTrue(directory.list(null).isEmpty());
+        directory.destroy();
+    }
+    
+    @Test
+    public void firstEmptyPushLeavesDirectoryEmpty() {
+        RegistryDirectory<DemoService> directory = new RegistryDirectory<>(DemoService.class, consumer(null), new NoopRegistry());
+        directory.notify(Collections.emptyList());
+        assertTrue(directory.list(null).isEmpty());
+        directory.notify(List.of(provider(20880)));
+        assertFalse(directory.list(null).isEmpty());
+        directory.destroy();
+    }
+    
+    private static URL consumer(String emptyProtection) {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("interface", DemoService.class.getName());
+        // 测试里不需要真正建连
+        parameters.put("lazy", "true");
+        if (emptyProtection != null) {
+            parameters.put("empty.protection", emptyProtection);
+        }
+        return new URL("rpc", "127.0.0.1", 0, DemoService.class.getName(), parameters);
+    }
+    
+    private static URL provider(int port) {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("interface", DemoService.class.getName());
+        return new URL("rpc", "127.0.0.1", port, DemoService.class.getName(), parameters);
+    }
+    
+    public interface DemoService {
+        String hello(String name);
+    }
+    
+    private static class NoopRegistry implements Registry {
+        
+        @Override
+        public void register(URL url) {
+        }
+        
+        @Override
+        public void unregister(URL url) {
+        }
+        
+        @Override
+        public List<URL> discover(URL url) {
+            return Collections.emptyList();
+        }
+        
+        @Override
+        public void subscribe(URL url, NotifyListener listener) {
+        }
+        
+        @Override
+        public void unsubscribe(URL url, NotifyListener listener) {
+        }
+    }
+}
\ No newline at end of file
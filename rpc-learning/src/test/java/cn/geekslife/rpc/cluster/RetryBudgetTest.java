@@ -0,0 +1,38 @@
+package cn.geekslife.rpc.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RetryBudgetTest {
+    
+    @Test
+    public void refillAfterMultiDayIdle() {
+        RetryBudget budget = new RetryBudget(0.1, 100, 200);
+        long start = System.nanoTime();
+        while (budget.tryWithdraw(start)) {
+            // 先把初始额度用光
+        }
+        assertFalse(budget.tryWithdraw(start));
+        
+        // 空闲3天，minPerSecond * elapsed 按long计算会溢出
+        long now = start + TimeUnit.DAYS.toNanos(3);
+        assertEquals(200d, budget.getBalance(now));
+        assertTrue(budget.tryWithdraw(now));
+        assertEquals(199d, budget.getBalance(now));
+        
+        // 补充时间点已经推进，之后按正常速率继续补充
+        assertEquals(199.1d, budget.getBalance(now + TimeUnit.MILLISECONDS.toNanos(1)), 1e-9);
+    }
+    
+    @Test
+    public void refillIsCappedAtMaxRetries() {
+        RetryBudget budget = new RetryBudget(0.1, 10, 20);
+        long start = System.nanoTime();
+        assertEquals(20d, budget.getBalance(start + TimeUnit.SECONDS.toNanos(5)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+package cn.geekslife.rpc.codec;
+
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.transport.ClientTransport;
+import cn.geekslife.rpc.transport.NettyClient;
+import cn.geekslife.rpc.transport.NettyServer;
+import cn.geekslife.rpc.transport.Request;
+import cn.geekslife.rpc.transport.Response;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RpcCodecTest {
+    
+    @AfterAll
+    public static void shutdown() {
+        ClientTransport.getInstance().shutdown();
+    }
+    
+    @Test
+    public void requestRoundTrip() {
+        for (String params : List.of("", "?serialization=java", "?compressor=snappy&compress.threshold=0",
+                "?compressor=deflate&compress.threshold=0")) {
+            RpcCodec codec = new RpcCodec(URL.valueOf("rpc://127.0.0.1:20880/demo.Echo" + params));
+            RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class, int.class, List.class},
+                    new Object[]{"hello".repeat(100), 3, Arrays.asList(1, 2)});
+            invocation.setAttachment("path", "demo.Echo");
+            invocation.setAttachment("version", "1.0");
+            invocation.setAttachment("group", "g");
+            invocation.setAttachment("trace", "t-1");
+            Request request = new Request();
+            request.setData(invocation);
+            
+            Request decoded = transfer(codec, codec, request);
+            assertEquals(request.getId(), decoded.getId(), params);
+            assertTrue(decoded.isTwoWay());
+            assertFalse(decoded.isBroken(), params);
+            RpcInvocation result = (RpcInvocation) decoded.getData();
+            assertEquals("echo", result.getMethodName());
+            assertArrayEquals(invocation.getParameterTypes(), result.getParameterTypes());
+            assertArrayEquals(invocation.getArguments(), result.getArguments());
+            assertEquals("demo.Echo", result.getAttachment("path"));
+            assertEquals("1.0", result.getAttachment("version"));
+            assertEquals("g", result.getAttachment("group"));
+            assertEquals("t-1", result.getAttachment("trace"));
+        }
+    }
+    
+    @Test
+    public void heartbeatRoundTrip() {
+        RpcCodec codec = new RpcCodec(null);
+        Request heartbeat = new Request();
+        heartbeat.setEvent(true);
+        heartbeat.setData(Request.HEARTBEAT_EVENT);
+        Request decoded = transfer(codec, codec, heartbeat);
+        assertTrue(decoded.isHeartbeat());
+    }
+    
+    @Test
+    public void responseRoundTrip() {
+        RpcCodec codec = new RpcCodec(null);
+        Response response = new Response(7L);
+        response.setResult(new Result("world"));
+        Response decoded = transfer(codec, codec, response);
+        assertEquals(7L, decoded.getId());
+        assertEquals(Response.OK, decoded.getStatus());
+        Result result = (Result) decoded.getResult();
+        assertFalse(result.hasException());
+        assertEquals("world", result.getValue());
+        
+        Response empty = new Response(8L);
+        empty.setResult(new Result());
+        Response decodedEmpty = transfer(codec, codec, empty);
+        assertNull(((Result) decodedEmpty.getResult()).getValue());
+    }
+    
+    @Test
+    public void exceptionResultRoundTrip() {
+        RpcCodec codec = new RpcCodec(null);
+        Response response = new Response(9L);
+        response.setResult(new Result(new IllegalStateException("boom")));
+        Response decoded = transfer(codec, codec, response);
+        assertEquals(Response.OK, decoded.getStatus());
+        Result result = (Result) decoded.getResult();
+        assertTrue(result.getException() instanceof IllegalStateException);
+        assertEquals("boom", result.getException().getMessage());
+    }
+    
+    @Test
+    public void errorStatusRoundTrip() {
+        RpcCodec codec = new RpcCodec(null);
+        Response response = new Response(10L);
+        response.setStatus(Response.SERVICE_ERROR);
+        response.setErrorMessage("failed");
+        Response decoded = transfer(codec, codec, response);
+        assertEquals(Response.SERVICE_ERROR, decoded.getStatus());
+        assertEquals("failed", decoded.getErrorMessage());
+    }
+    
+    @Test
+    public void undecodableRequestIsBroken() {
+        RpcCodec codec = new RpcCodec(null);
+        Request request = new Request();
+        request.setData(missingTypeInvocation());
+        Request decoded = transfer(codec, codec, request);
+        assertTrue(decoded.isBroken());
+        assertTrue(decoded.getData() instanceof ClassNotFoundException);
+    }
+    
+    @Test
+    public void badRequestIsAnswered() throws Exception {
+        URL url = URL.valueOf("rpc://127.0.0.1:" + freePort() + "/codec");
+        NettyServer server = new NettyServer(url, (channel, request) -> "unexpected");
+        NettyClient client = new NettyClient(url, null);
+        try {
+            connect(client);
+            // 服务端解码失败时立即回复BAD_REQUEST，而不是让调用方等到超时
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> client.request(missingTypeInvocation(), 5000).get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof RpcException);
+            assertTrue(e.getCause().getMessage().contains("Fail to decode request"), e.getCause().getMessage());
+        } finally {
+            client.close();
+            server.close(0);
+        }
+    }
+    
+    private static RpcInvocation missingTypeInvocation() {
+        // 参数类型描述指向服务端不存在的类
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, "com.example.Missing",
+                new Object[]{"x"});
+        invocation.setAttachment("path", "demo.Echo");
+        return invocation;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T transfer(RpcCodec sender, RpcCodec receiver, Object message) {
+        EmbeddedChannel out = new EmbeddedChannel(new RpcEncoder(sender));
+        EmbeddedChannel in = new EmbeddedChannel(new RpcDecoder(receiver));
+        try {
+            assertTrue(out.writeOutbound(message));
+            ByteBuf frame = out.readOutbound();
+            // 分两次写入，验证按长度字段拼帧
+            int half = frame.readableBytes() / 2;
+            in.writeInbound(frame.readRetainedSlice(half));
+            in.writeInbound(frame);
+            return (T) in.readInbound();
+        } finally {
+            out.finishAndReleaseAll();
+            in.finishAndReleaseAll();
+        }
+    }
+    
+    private static void connect(NettyClient client) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            try {
+                client.connect();
+                return;
+            } catch (RpcException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package cn.geekslife.rpc.compress;
+
+import cn.geekslife.rpc.codec.RpcCodec;
+import cn.geekslife.rpc.transport.Request;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SnappyCompressorTest {
+    
+    private static final int DECLARED_LENGTH = 16;
+    // 块头声明解压后64MB，实际只带几个字节
+    private static final int FORGED_LENGTH = 64 * 1024 * 1024;
+    
+    @Test
+    public void roundTrip() throws IOException {
+        byte[] data = "hello snappy, hello snappy, hello snappy".repeat(2000).getBytes(StandardCharsets.UTF_8);
+        SnappyCompressor compressor = new SnappyCompressor();
+        ByteBuf compressed = Unpooled.buffer();
+        compressor.compress(Unpooled.wrappedBuffer(data), compressed);
+        ByteBuf out = Unpooled.buffer(data.length, data.length);
+        compressor.decompress(compressed, out, data.length);
+        byte[] result = new byte[out.readableBytes()];
+        out.readBytes(result);
+        assertArrayEquals(data, result);
+    }
+    
+    @Test
+    public void rejectChunkLargerThanDeclaredLength() {
+        ByteBuf out = Unpooled.buffer(DECLARED_LENGTH);
+        assertThrows(IOException.class, () -> new SnappyCompressor().decompress(forgedBody(), out, DECLARED_LENGTH));
+        // 没有按块头声明的长度扩容
+        assertTrue(out.capacity() <= DECLARED_LENGTH);
+    }
+    
+    @Test
+    public void codecRejectsForgedFrame() throws IOException {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeShort(RpcCodec.MAGIC);
+        frame.writeByte(RpcCodec.VERSION);
+        frame.writeByte(RpcCodec.FLAG_REQUEST | RpcCodec.FLAG_TWOWAY | RpcCodec.FLAG_COMPRESSED | SnappyCompressor.SNAPPY_ID);
+        frame.writeByte(2);
+        frame.writeByte(0);
+        frame.writeLong(1L);
+        ByteBuf body = forgedBody();
+        frame.writeInt(body.readableBytes() + 4);
+        frame.writeInt(DECLARED_LENGTH);
+        frame.writeBytes(body);
+        
+        Object message = new RpcCodec(null).decode(channel, frame);
+        assertTrue(message instanceof Request);
+        Request request = (Request) message;
+        assertTrue(request.isBroken());
+        assertEquals(1L, request.getId());
+        channel.finishAndReleaseAll();
+    }
+    
+    private static ByteBuf forgedBody() {
+        ByteBuf chunk = Unpooled.buffer();
+        int v = FORGED_LENGTH;
+        while ((v & ~0x7F) != 0) {
+            chunk.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        chunk.writeByte(v);
+        // 一个长度为4的字面量
+        chunk.writeByte(3 << 2);
+        chunk.writeBytes(new byte[] {1, 2, 3, 4});
+        ByteBuf body = Unpooled.buffer();
+        body.writeInt(chunk.readableBytes());
+        body.writeBytes(chunk);
+        return body;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,250 @@
+package cn.geekslife.rpc.extension;
+
+import cn.geekslife.rpc.common.URL;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExtensionLoaderTest {
+    
+    // 实现类的静态初始化块记录在这里，读取实现类自己的静态字段会触发初始化
+    private static final Set<String> INITIALIZED = ConcurrentHashMap.newKeySet();
+    
+    @Test
+    public void loadExtensionClassesLazily() {
+        ExtensionLoader<Lazy> loader = ExtensionLoader.getExtensionLoader(Lazy.class);
+        // 只读配置文件，不加载实现类，找不到的类也不影响其他扩展
+        assertEquals(List.of("loaded", "unused", "missing"), loader.getSupportedExtensions());
+        assertTrue(loader.hasExtension("missing"));
+        assertFalse(INITIALIZED.contains("loaded"));
+        
+        Lazy loaded = loader.getExtension("loaded");
+        assertTrue(INITIALIZED.contains("loaded"));
+        assertFalse(INITIALIZED.contains("unused"));
+        assertSame(loaded, loader.getExtension("loaded"));
+        
+        IllegalStateException missing = assertThrows(IllegalStateException.class, () -> loader.getExtension("missing"));
+        assertTrue(missing.getMessage().contains("com.example.MissingLazy"), missing.getMessage());
+        assertThrows(IllegalStateException.class, () -> loader.getExtension("none"));
+        assertThrows(IllegalStateException.class, loader::getDefaultExtension);
+        assertFalse(INITIALIZED.contains("unused"));
+    }
+    
+    @Test
+    public void rejectNonExtensionTypes() {
+        assertThrows(IllegalArgumentException.class, () -> ExtensionLoader.getExtensionLoader(null));
+        assertThrows(IllegalArgumentException.class, () -> ExtensionLoader.getExtensionLoader(Source.class));
+        assertThrows(IllegalArgumentException.class, () -> ExtensionLoader.getExtensionLoader(PlainCodec.class));
+    }
+    
+    @Test
+    public void activateByGroupConditionAndOrder() {
+        ExtensionLoader<Greeting> loader = ExtensionLoader.getExtensionLoader(Greeting.class);
+        assertEquals(List.of("first", "second", "third"), greet(loader.getActivateExtension(url(), "greeting", "g")));
+        // 没有指定分组时全部匹配
+        assertEquals(List.of("first", "second", "third", "other"),
+                greet(loader.getActivateExtension(url(), "greeting", null)));
+        // 带条件的扩展在URL中有对应参数时才激活，方法级参数同样算
+        assertEquals(List.of("first", "second", "polite", "third"),
+                greet(loader.getActivateExtension(url("polite", "true"), "greeting", "g")));
+        assertEquals(List.of("first", "second", "polite", "third"),
+                greet(loader.getActivateExtension(url("hello.polite", "true"), "greeting", "g")));
+        
+        // -name去掉某个自动激活的扩展，指定的扩展按配置顺序追加在后面
+        assertEquals(List.of("first", "third", "other", "polite"),
+                greet(loader.getActivateExtension(url("greeting", "-second,other,polite"), "greeting", "g")));
+        assertEquals(List.of("third"),
+                greet(loader.getActivateExtension(url("greeting", "-default,third"), "greeting", "g")));
+    }
+    
+    @Test
+    public void adaptiveSelectsByUrl() throws IOException {
+        ExtensionLoader<Codec> loader = ExtensionLoader.getExtensionLoader(Codec.class);
+        Codec codec = loader.getAdaptiveExtension();
+        assertSame(codec, loader.getAdaptiveExtension());
+        assertEquals("plain:a", codec.encode(url(), "a"));
+        // 交替选择不同扩展，每个扩展名各自缓存
+        for (int i = 0; i < 3; i++) {
+            assertEquals("upper:A", codec.encode(url("codec", "upper"), "a"));
+            assertEquals("plain:b", codec.encode(url("codec", "plain"), "b"));
+        }
+        
+        // 参数本身不是URL时通过getUrl()取URL，默认参数名由接口名推导
+        assertEquals("upper:x", codec.decode(() -> url("codec", "upper"), "X"));
+        assertEquals("plain:x", codec.decode(() -> url(), "x"));
+        assertEquals(3, codec.length(url("codec", "upper"), "abc"));
+        
+        // 扩展抛出的异常原样抛出，不包装
+        IOException declared = assertThrows(IOException.class, () -> codec.decode(() -> url("codec", "failing"), "x"));
+        assertEquals("decode x", declared.getMessage());
+        IllegalStateException runtime = assertThrows(IllegalStateException.class,
+                () -> codec.encode(url("codec", "failing"), "x"));
+        assertEquals("encode x", runtime.getMessage());
+        
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(null, "x"));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(() -> null, "x"));
+        assertThrows(IllegalStateException.class, () -> codec.encode(url("codec", "none"), "x"));
+        assertThrows(UnsupportedOperationException.class, codec::name);
+        assertEquals(Codec.class.getName() + "$Adaptive", codec.toString());
+    }
+    
+    private static List<String> greet(List<Greeting> greetings) {
+        List<String> names = new ArrayList<>();
+        for (Greeting greeting : greetings) {
+            names.add(greeting.greet());
+        }
+        return names;
+    }
+    
+    private static URL url(String... pairs) {
+        Map<String, String> parameters = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            parameters.put(pairs[i], pairs[i + 1]);
+        }
+        return new URL("rpc", "127.0.0.1", 20880, "demo", parameters);
+    }
+    
+    public interface Source {
+        URL getUrl();
+    }
+    
+    @SPI("plain")
+    public interface Codec {
+        @Adaptive({"codec"})
+        String encode(URL url, String value);
+        @Adaptive
+        String decode(Source source, String value) throws IOException;
+        @Adaptive({"codec"})
+        int length(URL url, String value);
+        String name();
+    }
+    
+    public static class PlainCodec implements Codec {
+        
+        @Override
+        public String encode(URL url, String value) {
+            return "plain:" + value;
+        }
+        
+        @Override
+        public String decode(Source source, String value) throws IOException {
+            return "plain:" + value.toLowerCase();
+        }
+        
+        @Override
+        public int length(URL url, String value) {
+            return value.length();
+        }
+        
+        @Override
+        public String name() {
+            return "plain";
+        }
+    }
+    
+    public static class UpperCodec extends PlainCodec {
+        
+        @Override
+        public String encode(URL url, String value) {
+            return "upper:" + value.toUpperCase();
+        }
+        
+        @Override
+        public String decode(Source source, String value) {
+            return "upper:" + value.toLowerCase();
+        }
+    }
+    
+    public static class FailingCodec extends PlainCodec {
+        
+        @Override
+        public String encode(URL url, String value) {
+            throw new IllegalStateException("encode " + value);
+        }
+        
+        @Override
+        public String decode(Source source, String value) throws IOException {
+            throw new IOException("decode " + value);
+        }
+    }
+    
+    @SPI
+    public interface Lazy {
+    }
+    
+    public static class LoadedLazy implements Lazy {
+        
+        static {
+            INITIALIZED.add("loaded");
+        }
+    }
+    
+    public static class UnusedLazy implements Lazy {
+        
+        static {
+            INITIALIZED.add("unused");
+        }
+    }
+    
+    @SPI
+    public interface Greeting {
+        String greet();
+    }
+    
+    @Activate(group = "g", order = -10)
+    public static class FirstGreeting implements Greeting {
+        
+        @Override
+        public String greet() {
+            return "first";
+        }
+    }
+    
+    @Activate
+    public static class SecondGreeting implements Greeting {
+        
+        @Override
+        public String greet() {
+            return "second";
+        }
+    }
+    
+    @Activate(group = {"g", "h"}, order = 10)
+    public static class ThirdGreeting implements Greeting {
+        
+        @Override
+        public String greet() {
+            return "third";
+        }
+    }
+    
+    @Activate(group = "g", value = "polite", order = 5)
+    public static class PoliteGreeting implements Greeting {
+        
+        @Override
+        public String greet() {
+            return "polite";
+        }
+    }
+    
+    @Activate(group = "other", order = 20)
+    public static class OtherGreeting implements Greeting {
+        
+        @Override
+        public String greet() {
+            return "other";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,205 @@
+package cn.geekslife.rpc.filter;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheFilterTest {
+    
+    private static final int CALLERS = 8;
+    
+    private final CacheFilter filter = new CacheFilter();
+    
+    @Test
+    public void cacheByArgumentsUntilTtlExpires() throws Exception {
+        CountingInvoker invoker = new CountingInvoker(url("lru", "100"), null);
+        assertEquals("hello a", filter.invoke(invoker, hello("a")).getValue());
+        assertEquals("hello a", filter.invoke(invoker, hello("a")).getValue());
+        assertEquals(1, invoker.invocations.get());
+        // 参数不同不会命中
+        assertEquals("hello b", filter.invoke(invoker, hello("b")).getValue());
+        assertEquals(2, invoker.invocations.get());
+        
+        Thread.sleep(150);
+        assertEquals("hello a", filter.invoke(invoker, hello("a")).getValue());
+        assertEquals(3, invoker.invocations.get());
+        assertEquals("hello a", filter.invoke(invoker, hello("a")).getValue());
+        assertEquals(3, invoker.invocations.get());
+    }
+    
+    @Test
+    public void businessExceptionIsNotCached() {
+        CountingInvoker invoker = new CountingInvoker(url("tinylfu", "0"), null);
+        invoker.fail = true;
+        assertTrue(filter.invoke(invoker, hello("a")).hasException());
+        assertTrue(filter.invoke(invoker, hello("a")).hasException());
+        assertEquals(2, invoker.invocations.get());
+        
+        invoker.fail = false;
+        assertEquals("hello a", filter.invoke(invoker, hello("a")).getValue());
+        assertEquals("hello a", filter.invoke(invoker, hello("a")).getValue());
+        assertEquals(3, invoker.invocations.get());
+    }
+    
+    @Test
+    public void disabledCacheAlwaysInvokes() {
+        CountingInvoker invoker = new CountingInvoker(url("false", "0"), null);
+        filter.invoke(invoker, hello("a"));
+        filter.invoke(invoker, hello("a"));
+        assertEquals(2, invoker.invocations.get());
+    }
+    
+    @Test
+    public void concurrentIdenticalCallsShareOneInvoke() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountingInvoker invoker = new CountingInvoker(url("lru", "0"), release);
+        List<CompletableFuture<Result>> results = callConcurrently(invoker, release);
+        
+        Result first = results.get(0).get(5, TimeUnit.SECONDS);
+        assertEquals("hello a", first.getValue());
+        for (CompletableFuture<Result> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, invoker.invocations.get());
+        
+        // 结果已缓存，之后的调用不再访问提供者
+        assertSame(first, filter.invoke(invoker, hello("a")));
+        assertEquals(1, invoker.invocations.get());
+    }
+    
+    @Test
+    public void concurrentIdenticalCallsShareOneFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountingInvoker invoker = new CountingInvoker(url("lru", "0"), release);
+        invoker.error = new RpcException(RpcException.TIMEOUT_EXCEPTION, "provider timeout");
+        List<CompletableFuture<Result>> results = callConcurrently(invoker, release);
+        
+        for (CompletableFuture<Result> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(invoker.error, e.getCause());
+        }
+        assertEquals(1, invoker.invocations.get());
+        
+        // 异常不缓存，也不会留在进行中的调用里
+        invoker.error = null;
+        assertEquals("hello a", filter.invoke(invoker, hello("a")).getValue());
+        assertEquals(2, invoker.invocations.get());
+    }
+    
+    private List<CompletableFuture<Result>> callConcurrently(CountingInvoker invoker, CountDownLatch release)
+            throws InterruptedException {
+        List<CompletableFuture<Result>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            CompletableFuture<Result> result = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    result.complete(filter.invoke(invoker, hello("a")));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }, "cache-caller-" + i);
+            results.add(result);
+            threads.add(thread);
+            thread.start();
+        }
+        // 一个线程阻塞在提供者里，其余线程都在等待同一个结果之后再放行
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!allWaiting(threads)) {
+            assertTrue(System.nanoTime() < deadline, "callers are not blocked");
+            Thread.sleep(5);
+        }
+        assertEquals(1, invoker.invocations.get());
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        return results;
+    }
+    
+    private static boolean allWaiting(List<Thread> threads) {
+        for (Thread thread : threads) {
+            Thread.State state = thread.getState();
+            if (state != Thread.State.WAITING && state != Thread.State.TIMED_WAITING) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static RpcInvocation hello(String name) {
+        return new RpcInvocation("hello", new Class<?>[]{String.class}, new Object[]{name});
+    }
+    
+    private static URL url(String cache, String ttl) {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("interface", "demo");
+        parameters.put("hello.cache", cache);
+        // ttl为0时只受容量限制
+        parameters.put("hello.cache.ttl", ttl);
+        parameters.put("cache.size", "10");
+        return new URL("rpc", "127.0.0.1", 20880, "demo", parameters);
+    }
+    
+    private static class CountingInvoker implements Invoker<Object> {
+        
+        private final URL url;
+        private final CountDownLatch release;
+        private final AtomicInteger invocations = new AtomicInteger();
+        private volatile boolean fail;
+        private volatile RpcException error;
+        
+        CountingInvoker(URL url, CountDownLatch release) {
+            this.url = url;
+            this.release = release;
+        }
+        
+        @Override
+        public Class<Object> getInterface() {
+            return Object.class;
+        }
+        
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            invocations.incrementAndGet();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RpcException(e);
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            if (fail) {
+                return new Result(new IllegalStateException("business failure"));
+            }
+            return new Result("hello " + invocation.getArguments()[0]);
+        }
+        
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,240 @@
+package cn.geekslife.rpc.filter;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import cn.geekslife.rpc.generic.GenericException;
+import cn.geekslife.rpc.generic.GenericService;
+import cn.geekslife.rpc.generic.PojoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GenericFilterTest {
+    
+    private final GenericFilter filter = new GenericFilter();
+    private final Invoker<DemoService> invoker = new ServiceInvoker(new DemoServiceImpl());
+    
+    @Test
+    public void resolveOverloadsByParameterTypes() {
+        assertEquals("int:5", $invoke("echo", new String[]{"int"}, 5).getValue());
+        assertEquals("string:a", $invoke("echo", new String[]{"java.lang.String"}, "a").getValue());
+        // 数组参数既可以写成Class.getName()，也可以写成源码形式
+        assertEquals("array:2", $invoke("echo", new String[]{"[Ljava.lang.String;"}, (Object) new String[]{"a", "b"}).getValue());
+        assertEquals("array:1", $invoke("echo", new String[]{"java.lang.String[]"}, (Object) new String[]{"a"}).getValue());
+        // 数字宽度按声明的参数类型转换
+        assertEquals("int:7", $invoke("echo", new String[]{"int"}, 7L).getValue());
+        
+        RpcException ambiguous = assertThrows(RpcException.class, () -> $invoke("echo", null, "a"));
+        assertTrue(ambiguous.getMessage().contains("Ambiguous"), ambiguous.getMessage());
+        RpcException missing = assertThrows(RpcException.class, () -> $invoke("echo", new String[]{"long"}, 1L));
+        assertTrue(missing.getMessage().contains("Not found method"), missing.getMessage());
+        // 方法名唯一时可以不给参数类型
+        assertEquals(6, $invoke("size", null, List.of("a", "b", "c", "d", "e", "f")).getValue());
+    }
+    
+    @Test
+    public void realizeAndGeneralizeRoundTrip() {
+        Order order = new Order();
+        order.id = 42;
+        order.status = Status.NEW;
+        order.items = new ArrayList<>();
+        order.items.add(new Item("apple", 3));
+        order.items.add(new Item("pear", 1));
+        order.tags = new LinkedHashMap<>();
+        order.tags.put("channel", "web");
+        
+        Object generalized = PojoUtils.generalize(order);
+        assertTrue(generalized instanceof Map);
+        assertEquals(Order.class.getName(), ((Map<?, ?>) generalized).get(PojoUtils.CLASS_KEY));
+        assertEquals("NEW", ((Map<?, ?>) generalized).get("status"));
+        
+        Result result = $invoke("place", new String[]{Order.class.getName()}, generalized);
+        assertFalse(result.hasException());
+        assertTrue(result.getValue() instanceof Map, String.valueOf(result.getValue()));
+        
+        Order placed = (Order) PojoUtils.realize(result.getValue(), Order.class, Order.class);
+        assertEquals(42, placed.id);
+        assertEquals(Status.PLACED, placed.status);
+        assertEquals(2, placed.items.size());
+        assertEquals("apple", placed.items.get(0).name);
+        assertEquals(4, placed.items.get(0).count);
+        assertEquals("pear", placed.items.get(1).name);
+        assertEquals(2, placed.items.get(1).count);
+        assertEquals("web", placed.tags.get("channel"));
+    }
+    
+    @Test
+    public void wrapExceptionsAsGenericException() {
+        Result result = $invoke("fail", new String[]{"java.lang.String"}, "boom");
+        assertTrue(result.getException() instanceof GenericException, String.valueOf(result.getException()));
+        GenericException e = (GenericException) result.getException();
+        assertEquals(IllegalStateException.class.getName(), e.getExceptionClass());
+        assertEquals("boom", e.getExceptionMessage());
+        
+        // 参数还原失败也包装成GenericException，不会走到服务实现
+        Map<String, Object> broken = new LinkedHashMap<>();
+        broken.put("id", "not a number");
+        result = $invoke("place", new String[]{Order.class.getName()}, broken);
+        assertTrue(result.getException() instanceof GenericException, String.valueOf(result.getException()));
+    }
+    
+    @Test
+    public void nonGenericInvocationPassesThrough() {
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"x"});
+        assertEquals("string:x", filter.invoke(invoker, invocation).getValue());
+    }
+    
+    @Test
+    public void classKeyIsBoundByDeclaredType() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(PojoUtils.CLASS_KEY, SpecialOrder.class.getName());
+        map.put("id", 1);
+        map.put("priority", 9);
+        
+        // 声明类型是具体类时，记录的子类可以使用
+        Object special = PojoUtils.realize(map, Order.class, Order.class);
+        assertSame(SpecialOrder.class, special.getClass());
+        assertEquals(9, ((SpecialOrder) special).priority);
+        
+        // 记录的类与声明类型无关时按声明类型还原
+        map.put(PojoUtils.CLASS_KEY, Item.class.getName());
+        assertSame(Order.class, PojoUtils.realize(map, Order.class, Order.class).getClass());
+        
+        // 声明类型是Object、接口或抽象类时，不在白名单里的类名不会被实例化
+        map.put(PojoUtils.CLASS_KEY, SpecialOrder.class.getName());
+        assertSame(map, PojoUtils.realize(map, Object.class, Object.class));
+        assertSame(map, PojoUtils.realize(map, Priced.class, Priced.class));
+        assertSame(map, PojoUtils.realize(map, AbstractOrder.class, AbstractOrder.class));
+    }
+    
+    private Result $invoke(String method, String[] types, Object... args) {
+        RpcInvocation invocation = new RpcInvocation(GenericService.$INVOKE,
+                new Class<?>[]{String.class, String[].class, Object[].class}, new Object[]{method, types, args});
+        return filter.invoke(invoker, invocation);
+    }
+    
+    public enum Status {
+        NEW, PLACED
+    }
+    
+    public interface Priced {
+    }
+    
+    public abstract static class AbstractOrder implements Priced {
+    }
+    
+    public static class Order extends AbstractOrder {
+        int id;
+        Status status;
+        List<Item> items;
+        Map<String, String> tags;
+    }
+    
+    public static class SpecialOrder extends Order {
+        int priority;
+    }
+    
+    public static class Item {
+        String name;
+        int count;
+        
+        Item() {}
+        
+        Item(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+    
+    public interface DemoService {
+        String echo(String value);
+        String echo(int value);
+        String echo(String[] values);
+        int size(List<String> values);
+        Order place(Order order);
+        void fail(String message);
+    }
+    
+    static class DemoServiceImpl implements DemoService {
+        
+        @Override
+        public String echo(String value) {
+            return "string:" + value;
+        }
+        
+        @Override
+        public String echo(int value) {
+            return "int:" + value;
+        }
+        
+        @Override
+        public String echo(String[] values) {
+            return "array:" + values.length;
+        }
+        
+        @Override
+        public int size(List<String> values) {
+            return values.size();
+        }
+        
+        @Override
+        public Order place(Order order) {
+            order.status = Status.PLACED;
+            for (Item item : order.items) {
+                item.count++;
+            }
+            return order;
+        }
+        
+        @Override
+        public void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+    
+    static class ServiceInvoker implements Invoker<DemoService> {
+        
+        private final DemoService service;
+        
+        ServiceInvoker(DemoService service) {
+            this.service = service;
+        }
+        
+        @Override
+        public Class<DemoService> getInterface() {
+            return DemoService.class;
+        }
+        
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            try {
+                Method method = DemoService.class.getMethod(invocation.getMethodName(), invocation.getParameterTypes());
+                return new Result(method.invoke(service, invocation.getArguments()));
+            } catch (InvocationTargetException e) {
+                return new Result(e.getTargetException());
+            } catch (ReflectiveOperationException e) {
+                throw new RpcException(e);
+            }
+        }
+        
+        @Override
+        public URL getUrl() {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package cn.geekslife.rpc.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MethodMetricsTest {
+    
+    @Test
+    public void readersDoNotStealSamples() {
+        MethodMetrics metrics = new MethodMetrics(MetricsRegistry.PROVIDER, "demo", "hello", "127.0.0.1:20880");
+        MethodMetrics.Interval first = new MethodMetrics.Interval();
+        MethodMetrics.Interval second = new MethodMetrics.Interval();
+        record(metrics, 10, 1);
+        
+        // 累计快照可以反复读取，不影响其他读取方
+        assertEquals(10, metrics.snapshot().getCount());
+        assertEquals(10, metrics.snapshot().getCount());
+        assertEquals(10, metrics.snapshot(first).getCount());
+        assertEquals(10, metrics.snapshot(second).getCount());
+        
+        record(metrics, 5, 100);
+        MethodMetricsSnapshot delta = metrics.snapshot(first);
+        assertEquals(5, delta.getCount());
+        assertEquals(15, delta.getTotal());
+        assertEquals(TimeUnit.MILLISECONDS.toMicros(100), delta.getP50(), 1000);
+        assertEquals(0, metrics.snapshot(first).getCount());
+        
+        record(metrics, 2, 1);
+        assertEquals(7, metrics.snapshot(second).getCount());
+        MethodMetricsSnapshot cumulative = metrics.snapshot();
+        assertEquals(17, cumulative.getCount());
+        assertEquals(17, cumulative.getTotal());
+    }
+    
+    @Test
+    public void errorsAreCounted() {
+        MethodMetrics metrics = new MethodMetrics(MetricsRegistry.CONSUMER, "demo", "hello", "127.0.0.1:20880");
+        metrics.begin();
+        assertEquals(1, metrics.getActive());
+        metrics.end(TimeUnit.MILLISECONDS.toNanos(1), ErrorType.TIMEOUT);
+        MethodMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(0, snapshot.getActive());
+        assertEquals(1, snapshot.getFailed());
+        assertEquals(1L, snapshot.getErrors().get(ErrorType.TIMEOUT.name()));
+    }
+    
+    private static void record(MethodMetrics metrics, int count, long millis) {
+        for (int i = 0; i < count; i++) {
+            metrics.begin();
+            metrics.end(TimeUnit.MILLISECONDS.toNanos(millis), null);
+        }
+    }
+}
\ No newline at end of file
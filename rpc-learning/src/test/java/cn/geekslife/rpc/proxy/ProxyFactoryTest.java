@@ -0,0 +1,170 @@
+package cn.geekslife.rpc.proxy;
+
+import cn.geekslife.rpc.common.Invocation;
+import cn.geekslife.rpc.common.Invoker;
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.URL;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProxyFactoryTest {
+    
+    @Test
+    public void bytecodeProxyIsGenerated() {
+        DemoService proxy = ProxyFactory.getProxy(DemoService.class, new StubInvoker<>(DemoService.class, "bytecode"));
+        assertFalse(Proxy.isProxyClass(proxy.getClass()));
+        DemoService jdk = ProxyFactory.getProxy(DemoService.class, new StubInvoker<>(DemoService.class, "jdk"));
+        assertTrue(Proxy.isProxyClass(jdk.getClass()));
+    }
+    
+    @Test
+    public void objectMethodsMatchJdkProxy() {
+        for (Target target : targets()) {
+            DemoService proxy = target.proxy;
+            StubInvoker<DemoService> invoker = target.invoker;
+            // Object的方法直接调用Invoker自身，两种代理行为一致
+            assertEquals(invoker.hashCode(), proxy.hashCode());
+            assertEquals(invoker.toString(), proxy.toString());
+            assertTrue(proxy.equals(invoker));
+            assertFalse(proxy.equals(proxy));
+            assertFalse(proxy.equals(null));
+            assertEquals(0, invoker.invocations);
+        }
+    }
+    
+    @Test
+    public void resultsAndArgumentsMatchJdkProxy() {
+        for (Target target : targets()) {
+            DemoService proxy = target.proxy;
+            StubInvoker<DemoService> invoker = target.invoker;
+            invoker.result = new Result("hello");
+            assertEquals("hello", proxy.hello("a"));
+            assertEquals("hello", invoker.last.getMethodName());
+            assertEquals(List.of(String.class), List.of(invoker.last.getParameterTypes()));
+            assertEquals("a", invoker.last.getArguments()[0]);
+            
+            invoker.result = new Result(42);
+            assertEquals(42, proxy.add(40, 2));
+            assertEquals(List.of(40, 2), List.of(invoker.last.getArguments()));
+            
+            invoker.result = new Result((Object) null);
+            proxy.ping();
+            assertEquals(0, invoker.last.getArguments() == null ? 0 : invoker.last.getArguments().length);
+        }
+    }
+    
+    @Test
+    public void exceptionsMatchJdkProxy() {
+        for (Target target : targets()) {
+            DemoService proxy = target.proxy;
+            StubInvoker<DemoService> invoker = target.invoker;
+            
+            // 声明的受检异常原样抛出
+            IOException declared = new IOException("declared");
+            invoker.result = new Result(declared);
+            assertSame(declared, assertThrows(IOException.class, proxy::load));
+            
+            // 运行时异常和Error原样抛出
+            IllegalStateException runtime = new IllegalStateException("runtime");
+            invoker.result = new Result(runtime);
+            assertSame(runtime, assertThrows(IllegalStateException.class, () -> proxy.hello("a")));
+            AssertionError error = new AssertionError("error");
+            invoker.result = new Result(error);
+            assertSame(error, assertThrows(AssertionError.class, () -> proxy.hello("a")));
+            
+            // 未声明的受检异常和JDK代理一样包装成UndeclaredThrowableException
+            IOException undeclared = new IOException("undeclared");
+            invoker.result = new Result(undeclared);
+            UndeclaredThrowableException e = assertThrows(UndeclaredThrowableException.class, () -> proxy.hello("a"));
+            assertSame(undeclared, e.getUndeclaredThrowable());
+            
+            // Invoker自身抛出的RpcException不包装
+            invoker.result = null;
+            assertThrows(RpcException.class, () -> proxy.hello("a"));
+        }
+    }
+    
+    @Test
+    public void fallbackToJdkProxyWhenGenerationFails() {
+        // 非public接口无法生成字节码代理，退回JDK代理
+        HiddenService proxy = ProxyFactory.getProxy(HiddenService.class, new StubInvoker<>(HiddenService.class, "bytecode"));
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+        HiddenService again = ProxyFactory.getProxy(HiddenService.class, new StubInvoker<>(HiddenService.class, "bytecode"));
+        assertTrue(Proxy.isProxyClass(again.getClass()));
+    }
+    
+    private static List<Target> targets() {
+        return List.of(new Target("bytecode"), new Target("jdk"));
+    }
+    
+    public interface DemoService {
+        String hello(String name);
+        int add(int a, int b);
+        void ping();
+        String load() throws IOException;
+    }
+    
+    interface HiddenService {
+        String hello(String name);
+    }
+    
+    private static class Target {
+        
+        private final StubInvoker<DemoService> invoker;
+        private final DemoService proxy;
+        
+        Target(String proxy) {
+            this.invoker = new StubInvoker<>(DemoService.class, proxy);
+            this.proxy = ProxyFactory.getProxy(DemoService.class, invoker);
+        }
+    }
+    
+    private static class StubInvoker<T> implements Invoker<T> {
+        
+        private final Class<T> type;
+        private final URL url;
+        private volatile Result result;
+        private volatile Invocation last;
+        private volatile int invocations;
+        
+        StubInvoker(Class<T> type, String proxy) {
+            this.type = type;
+            Map<String, String> parameters = new HashMap<>();
+            parameters.put("proxy", proxy);
+            this.url = new URL("rpc", "127.0.0.1", 20880, type.getName(), parameters);
+        }
+        
+        @Override
+        public Class<T> getInterface() {
+            return type;
+        }
+        
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            invocations++;
+            last = invocation;
+            if (result == null) {
+                throw new RpcException("no result");
+            }
+            return result;
+        }
+        
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+    }
+}
\ No newline at end of file
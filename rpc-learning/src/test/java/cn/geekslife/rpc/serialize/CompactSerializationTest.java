@@ -0,0 +1,155 @@
+package cn.geekslife.rpc.serialize;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cn.geekslife.rpc.serialize.CompactSerialization.INT_ARRAY;
+import static cn.geekslife.rpc.serialize.CompactSerialization.LIST;
+import static cn.geekslife.rpc.serialize.CompactSerialization.MAP;
+import static cn.geekslife.rpc.serialize.CompactSerialization.OBJECT_ARRAY;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompactSerializationTest {
+    
+    private final CompactSerialization serialization = new CompactSerialization();
+    
+    @Test
+    public void varIntZigZag() throws IOException {
+        int[] ints = {0, 1, -1, 63, -64, 64, -65, 8191, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        long[] longs = {0L, 1L, -1L, 1L << 40, -(1L << 40), Long.MAX_VALUE, Long.MIN_VALUE};
+        ByteBuf buf = Unpooled.buffer();
+        ObjectOutput out = serialization.serialize(buf);
+        for (int v : ints) {
+            out.writeInt(v);
+        }
+        for (long v : longs) {
+            out.writeLong(v);
+        }
+        ObjectInput in = serialization.deserialize(buf);
+        for (int v : ints) {
+            assertEquals(v, in.readInt());
+        }
+        for (long v : longs) {
+            assertEquals(v, in.readLong());
+        }
+        assertEquals(0, buf.readableBytes());
+    }
+    
+    @Test
+    public void zigZagKeepsSmallNegativesShort() throws IOException {
+        // 小的负数经过zigzag后和小正数一样只占一个字节
+        assertEquals(1, encodedIntLength(0));
+        assertEquals(1, encodedIntLength(-1));
+        assertEquals(1, encodedIntLength(-64));
+        assertEquals(2, encodedIntLength(64));
+        assertEquals(5, encodedIntLength(Integer.MIN_VALUE));
+    }
+    
+    @Test
+    public void primitivesAndStrings() throws Exception {
+        Object[] values = {null, true, false, (byte) 7, (short) -3, 42, -42L, 1.5f, 2.25d, 'x', "", "中文字符串",
+                DayOfWeek.FRIDAY, String.class};
+        for (Object value : values) {
+            assertEquals(value, roundTrip(value));
+        }
+        ByteBuf buf = Unpooled.buffer();
+        ObjectOutput out = serialization.serialize(buf);
+        out.writeUTF(null);
+        out.writeBytes(null);
+        ObjectInput in = serialization.deserialize(buf);
+        assertNull(in.readUTF());
+        assertNull(in.readBytes());
+    }
+    
+    @Test
+    public void arrays() throws Exception {
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) roundTrip(new byte[]{1, 2, 3}));
+        assertArrayEquals(new int[]{-1, 0, Integer.MAX_VALUE}, (int[]) roundTrip(new int[]{-1, 0, Integer.MAX_VALUE}));
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 9L}, (long[]) roundTrip(new long[]{Long.MIN_VALUE, 9L}));
+        Object strings = roundTrip(new String[]{"a", null, "c"});
+        assertEquals(String[].class, strings.getClass());
+        assertArrayEquals(new String[]{"a", null, "c"}, (String[]) strings);
+    }
+    
+    @Test
+    public void collections() throws Exception {
+        List<Object> list = new ArrayList<>(Arrays.asList(1, "two", null, 3L));
+        assertEquals(list, roundTrip(list));
+        
+        Map<String, Object> map = new HashMap<>();
+        map.put("list", new ArrayList<>(List.of(1, 2)));
+        map.put("set", new LinkedHashSet<>(List.of("a", "b")));
+        map.put("nested", new HashMap<>(Map.of("k", 1)));
+        assertEquals(map, roundTrip(map));
+        
+        // 解码端无法还原的集合类型保留原始类型
+        Object treeMap = roundTrip(new TreeMap<>(Map.of("b", 2, "a", 1)));
+        assertSame(TreeMap.class, treeMap.getClass());
+        assertEquals(List.of("a", "b"), new ArrayList<>(((TreeMap<?, ?>) treeMap).keySet()));
+        assertSame(LinkedList.class, roundTrip(new LinkedList<>(List.of(1))).getClass());
+        assertSame(ConcurrentHashMap.class, roundTrip(new ConcurrentHashMap<>(Map.of("a", 1))).getClass());
+    }
+    
+    @Test
+    public void rejectLengthBeyondReadableBytes() {
+        // 各种带长度的类型声明了远超剩余字节的长度，应在分配前拒绝
+        for (byte tag : new byte[]{LIST, MAP, INT_ARRAY}) {
+            ByteBuf buf = Unpooled.buffer();
+            buf.writeByte(tag);
+            writeVarInt(buf, Integer.MAX_VALUE);
+            buf.writeByte(0);
+            assertThrows(IOException.class, () -> serialization.deserialize(buf).readObject());
+        }
+        ByteBuf array = Unpooled.buffer();
+        array.writeByte(OBJECT_ARRAY);
+        byte[] type = String.class.getName().getBytes();
+        writeVarInt(array, type.length + 1);
+        array.writeBytes(type);
+        writeVarInt(array, 1 << 28);
+        assertThrows(IOException.class, () -> serialization.deserialize(array).readObject());
+        
+        ByteBuf bytes = Unpooled.buffer();
+        writeVarInt(bytes, 1 << 20);
+        bytes.writeByte(1);
+        assertThrows(IOException.class, () -> serialization.deserialize(bytes).readBytes());
+    }
+    
+    private Object roundTrip(Object value) throws Exception {
+        ByteBuf buf = Unpooled.buffer();
+        serialization.serialize(buf).writeObject(value);
+        Object result = serialization.deserialize(buf).readObject();
+        assertEquals(0, buf.readableBytes());
+        return result;
+    }
+    
+    private int encodedIntLength(int v) throws IOException {
+        ByteBuf buf = Unpooled.buffer();
+        serialization.serialize(buf).writeInt(v);
+        return buf.readableBytes();
+    }
+    
+    private static void writeVarInt(ByteBuf buf, int v) {
+        while ((v & ~0x7F) != 0) {
+            buf.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf.writeByte(v);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package cn.geekslife.rpc.transport;
+
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.URL;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NettyServerCloseTest {
+    
+    @AfterAll
+    public static void shutdown() {
+        ClientTransport.getInstance().shutdown();
+    }
+    
+    @Test
+    public void rejectRequestArrivingDuringDrain() throws Exception {
+        URL url = URL.valueOf("rpc://127.0.0.1:" + freePort() + "/drain");
+        CountDownLatch release = new CountDownLatch(1);
+        NettyServer server = new NettyServer(url, (channel, request) -> {
+            if ("slow".equals(request)) {
+                release.await();
+            }
+            return "ok:" + request;
+        });
+        NettyClient client = new NettyClient(url, null);
+        try {
+            connect(client);
+            // 一个执行中的请求让下线过程停在排空阶段
+            CompletableFuture<Result> slow = client.request("slow", 10000);
+            waitUntil(() -> server.getDispatchExecutor().getActiveCount() > 0);
+            Thread closer = new Thread(() -> server.close(10000));
+            closer.start();
+            waitUntil(server::isClosed);
+            
+            // 排空期间到达的新请求被直接拒绝，按网络异常交给集群换节点重试
+            CompletableFuture<Result> late = client.request("late", 5000);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> late.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof RpcException);
+            assertTrue(((RpcException) e.getCause()).isNetwork());
+            
+            // 排空前已接收的请求照常完成
+            release.countDown();
+            assertEquals("ok:slow", slow.get(5, TimeUnit.SECONDS).getValue());
+            closer.join(10000);
+        } finally {
+            release.countDown();
+            client.close();
+            server.close(0);
+        }
+    }
+    
+    private static void connect(NettyClient client) throws InterruptedException {
+        // 服务端异步绑定端口，连接失败时稍后重试
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            try {
+                client.connect();
+                return;
+            } catch (RpcException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+    
+    private static void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.test()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    private interface Condition {
+        boolean test();
+    }
+}
\ No newline at end of file
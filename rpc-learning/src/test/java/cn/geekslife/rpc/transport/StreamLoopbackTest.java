@@ -0,0 +1,291 @@
+package cn.geekslife.rpc.transport;
+
+import cn.geekslife.rpc.common.Result;
+import cn.geekslife.rpc.common.RpcException;
+import cn.geekslife.rpc.common.RpcInvocation;
+import cn.geekslife.rpc.common.URL;
+import io.netty.channel.Channel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamLoopbackTest {
+    
+    private static final int PREFETCH = 4;
+    
+    private NettyServer server;
+    private NettyClient client;
+    
+    @AfterAll
+    public static void shutdown() {
+        ClientTransport.getInstance().shutdown();
+    }
+    
+    @AfterEach
+    public void close() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close(0);
+        }
+    }
+    
+    @Test
+    public void downloadRespectsCredit() throws Exception {
+        CountingPublisher publisher = new CountingPublisher(100, null);
+        start("", (channel, request) -> new Result(publisher));
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        downloadStream().subscribe(subscriber);
+        
+        // 订阅者还没有消费，提供者最多只能收到prefetch个额度
+        waitUntil(() -> publisher.requested.get() == PREFETCH);
+        Thread.sleep(100);
+        assertEquals(PREFETCH, publisher.requested.get());
+        assertEquals(PREFETCH, publisher.emitted.get());
+        
+        subscriber.request(Long.MAX_VALUE);
+        assertNull(subscriber.done.get(5, TimeUnit.SECONDS));
+        assertEquals(100, subscriber.items.size());
+        assertEquals(99, subscriber.items.get(99));
+    }
+    
+    @Test
+    public void uploadRespectsCreditAndPropagatesCancel() throws Exception {
+        CountingPublisher publisher = new CountingPublisher(1000, null);
+        CollectingSubscriber received = new CollectingSubscriber(0);
+        start("", (channel, request) -> {
+            @SuppressWarnings("unchecked")
+            Flow.Publisher<Object> upload = (Flow.Publisher<Object>) ((RpcInvocation) request).getArguments()[0];
+            upload.subscribe(received);
+            return "accepted";
+        });
+        RpcInvocation invocation = new RpcInvocation("upload", new Class<?>[]{Flow.Publisher.class},
+                new Object[]{publisher});
+        assertEquals("accepted", client.request(invocation, 5000).get(5, TimeUnit.SECONDS).getValue());
+        
+        // 服务端还没有消费时，调用方只向上游请求prefetch个
+        waitUntil(() -> publisher.requested.get() == PREFETCH);
+        Thread.sleep(100);
+        assertEquals(PREFETCH, publisher.requested.get());
+        
+        // 服务端取消后，调用方的上游订阅也被取消
+        received.request(2);
+        waitUntil(() -> received.items.size() == 2);
+        received.subscription.cancel();
+        waitUntil(() -> publisher.cancelled);
+        assertTrue(publisher.emitted.get() < 1000);
+    }
+    
+    @Test
+    public void channelCloseFailsInboundStreams() throws Exception {
+        CountingPublisher publisher = CountingPublisher.endless();
+        CollectingSubscriber received = new CollectingSubscriber(Long.MAX_VALUE);
+        start("", (channel, request) -> {
+            Object[] args = ((RpcInvocation) request).getArguments();
+            if (args.length == 1) {
+                @SuppressWarnings("unchecked")
+                Flow.Publisher<Object> upload = (Flow.Publisher<Object>) args[0];
+                upload.subscribe(received);
+                return "accepted";
+            }
+            return new Result(publisher);
+        });
+        RpcInvocation upload = new RpcInvocation("upload", new Class<?>[]{Flow.Publisher.class},
+                new Object[]{CountingPublisher.endless()});
+        client.request(upload, 5000).get(5, TimeUnit.SECONDS);
+        CollectingSubscriber downloaded = new CollectingSubscriber(Long.MAX_VALUE);
+        downloadStream().subscribe(downloaded);
+        waitUntil(() -> publisher.requested.get() > 0);
+        
+        // 连接断开时两端没有结束的接收流都以网络异常结束
+        client.close();
+        Throwable clientError = downloaded.done.get(5, TimeUnit.SECONDS);
+        Throwable serverError = received.done.get(5, TimeUnit.SECONDS);
+        assertTrue(clientError instanceof RpcException && ((RpcException) clientError).isNetwork(), String.valueOf(clientError));
+        assertTrue(serverError instanceof RpcException && ((RpcException) serverError).isNetwork(), String.valueOf(serverError));
+        waitUntil(() -> publisher.cancelled);
+    }
+    
+    @Test
+    public void unsubscribedResultExpires() throws Exception {
+        CountingPublisher publisher = new CountingPublisher(10, null);
+        start("?stream.subscribe.timeout=200", (channel, request) -> new Result(publisher));
+        Flow.Publisher<Object> stream = downloadStream();
+        
+        // 调用方一直不订阅，服务端超时后取消上游并通知调用方
+        waitUntil(() -> publisher.cancelled);
+        assertEquals(0, publisher.emitted.get());
+        StreamRegistry clientStreams = StreamRegistry.get(clientChannel());
+        waitUntil(() -> clientStreams.getInboundCount() == 0);
+        CollectingSubscriber late = new CollectingSubscriber(Long.MAX_VALUE);
+        stream.subscribe(late);
+        Throwable error = late.done.get(5, TimeUnit.SECONDS);
+        assertTrue(error instanceof RpcException && ((RpcException) error).isTimeout(), String.valueOf(error));
+    }
+    
+    @Test
+    public void remoteErrorKeepsType() throws Exception {
+        CountingPublisher publisher = new CountingPublisher(3, new IllegalArgumentException("bad item"));
+        start("", (channel, request) -> new Result(publisher));
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        downloadStream().subscribe(subscriber);
+        Throwable error = subscriber.done.get(5, TimeUnit.SECONDS);
+        assertEquals(IllegalArgumentException.class, error.getClass());
+        assertEquals("bad item", error.getMessage());
+        assertEquals(3, subscriber.items.size());
+    }
+    
+    private void start(String params, ExchangeHandler handler) throws Exception {
+        String prefetch = (params.isEmpty() ? "?" : params + "&") + "stream.prefetch=" + PREFETCH;
+        URL url = URL.valueOf("rpc://127.0.0.1:" + freePort() + "/stream" + prefetch);
+        server = new NettyServer(url, handler);
+        client = new NettyClient(url, null);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            try {
+                client.connect();
+                return;
+            } catch (RpcException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Flow.Publisher<Object> downloadStream() throws Exception {
+        RpcInvocation invocation = new RpcInvocation("download", new Class<?>[0], "", new Object[0], Flow.Publisher.class);
+        return (Flow.Publisher<Object>) client.request(invocation, 5000).get(5, TimeUnit.SECONDS).getValue();
+    }
+    
+    private Channel clientChannel() throws Exception {
+        Field field = NettyClient.class.getDeclaredField("channel");
+        field.setAccessible(true);
+        return (Channel) field.get(client);
+    }
+    
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    // 按请求量同步发出递增的整数，记录上游收到的额度和取消信号
+    private static final class CountingPublisher implements Flow.Publisher<Object> {
+        
+        private final int count;
+        private final Throwable error;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicLong emitted = new AtomicLong();
+        private final boolean complete;
+        private volatile boolean cancelled;
+        
+        CountingPublisher(int count, Throwable error) {
+            this(count, error, true);
+        }
+        
+        private CountingPublisher(int count, Throwable error, boolean complete) {
+            this.count = count;
+            this.error = error;
+            this.complete = complete;
+        }
+        
+        static CountingPublisher endless() {
+            return new CountingPublisher(0, null, false);
+        }
+        
+        @Override
+        public void subscribe(Flow.Subscriber<? super Object> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private boolean done;
+                
+                @Override
+                public synchronized void request(long n) {
+                    requested.addAndGet(n);
+                    for (long i = 0; i < n && !done && !cancelled && emitted.get() < count; i++) {
+                        subscriber.onNext((int) emitted.getAndIncrement());
+                    }
+                    if (!done && !cancelled && complete && emitted.get() == count) {
+                        done = true;
+                        if (error != null) {
+                            subscriber.onError(error);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                    }
+                }
+                
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+    
+    private static final class CollectingSubscriber implements Flow.Subscriber<Object> {
+        
+        private final long initialRequest;
+        private final List<Object> items = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Throwable> done = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+        
+        CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+        
+        void request(long n) throws InterruptedException {
+            waitUntil(() -> subscription != null);
+            subscription.request(n);
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            subscription = s;
+            if (initialRequest > 0) {
+                s.request(initialRequest);
+            }
+        }
+        
+        @Override
+        public void onNext(Object item) {
+            items.add(item);
+        }
+        
+        @Override
+        public void onError(Throwable e) {
+            done.complete(e);
+        }
+        
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+}
\ No newline at end of file